@@ -2,6 +2,7 @@ plugins {
     id("fabric-loom") version "1.3.5"
     id("maven-publish")
     id("com.github.johnrengelman.shadow") version "8.1.1"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 val minecraft_version = "1.21.5"
@@ -28,10 +29,16 @@ dependencies {
     modImplementation("net.fabricmc.fabric-api:fabric-api:$fabric_api_version")
 
     implementation("com.google.code.gson:gson:$gson_version")
+    // twitch.backend defaults to TWITCH4J, so the shaded jar has to carry it. TwitchProvider
+    // only touches it when that backend starts; BUILTIN users pay for the jar size, not the load.
     implementation("com.github.twitch4j:twitch4j-chat:$twitch4j_version")
     implementation("com.github.twitch4j:twitch4j-auth:$twitch4j_version")
     implementation("com.github.twitch4j:twitch4j-common:$twitch4j_version")
     implementation("org.slf4j:slf4j-simple:2.0.13")
+
+    testImplementation(platform("org.junit:junit-bom:5.10.2"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
 
 java {
@@ -39,6 +46,37 @@ java {
 }
 tasks.compileJava { options.release.set(21) }
 
+tasks.test {
+    useJUnitPlatform()
+}
+
+// Benchmarks need Minecraft and the mod's dependencies exactly as main sees them.
+sourceSets.named("jmh") {
+    compileClasspath += sourceSets.main.get().compileClasspath
+    runtimeClasspath += sourceSets.main.get().runtimeClasspath
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("reports/jmh/results.json"))
+}
+
+// Local stand-in for the YouTube Data API: ./gradlew runMockYouTube --args="8089 200"
+tasks.register<JavaExec>("runMockYouTube") {
+    group = "verification"
+    classpath = sourceSets.main.get().runtimeClasspath
+    mainClass.set("com.wooldrum.chattermod.dev.MockYouTubeServer")
+}
+
+// Local stand-in for Kick's channel API and Pusher socket: ./gradlew runMockKick --args="8090 50 120"
+tasks.register<JavaExec>("runMockKick") {
+    group = "verification"
+    classpath = sourceSets.main.get().runtimeClasspath
+    mainClass.set("com.wooldrum.chattermod.dev.MockKickServer")
+}
+
 tasks.processResources {
     inputs.property("version", project.version)
     filesMatching("fabric.mod.json") {
@@ -0,0 +1,28 @@
+package com.wooldrum.chattermod;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Loads the recorded payloads under {@code src/jmh/resources/payloads}.
+ */
+public final class BenchmarkPayloads {
+
+    private BenchmarkPayloads() {}
+
+    public static String read(String name) {
+        try (InputStream in = BenchmarkPayloads.class.getResourceAsStream("/payloads/" + name)) {
+            if (in == null) throw new IllegalStateException("Missing benchmark payload: " + name);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static List<String> lines(String name) {
+        return read(name).lines().filter(line -> !line.isBlank()).toList();
+    }
+}
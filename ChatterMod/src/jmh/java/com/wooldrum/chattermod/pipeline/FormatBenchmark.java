@@ -0,0 +1,50 @@
+package com.wooldrum.chattermod.pipeline;
+
+import com.wooldrum.chattermod.BenchmarkPayloads;
+import com.wooldrum.chattermod.ChatterModConfig;
+import com.wooldrum.chattermod.platform.ChatMessage;
+import com.wooldrum.chattermod.platform.YouTubeChatParser;
+import net.minecraft.text.Text;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds chat line {@link Text}s for the messages of the recorded YouTube page, so author
+ * repetition matches real chat and the author cache hit rate is realistic.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FormatBenchmark {
+
+    private final ChatFormatter formatter = new ChatFormatter(1024);
+    private List<ChatMessage> messages;
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        formatter.compile(ChatterModConfig.fromProperties(new Properties()));
+        messages = new ArrayList<>();
+        new YouTubeChatParser("UCbenchmark")
+                .parse(new StringReader(BenchmarkPayloads.read("youtube-livechat-page.json")), messages::add);
+    }
+
+    @Benchmark
+    public Text format() {
+        ChatMessage msg = messages.get(next);
+        next = (next + 1) % messages.size();
+        return formatter.format(msg);
+    }
+}
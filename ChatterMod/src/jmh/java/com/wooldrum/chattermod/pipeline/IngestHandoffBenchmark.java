@@ -0,0 +1,52 @@
+package com.wooldrum.chattermod.pipeline;
+
+import com.wooldrum.chattermod.platform.ChatMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Handoff through the message queue with three producers (standing in for the twitch4j
+ * event threads and the YouTube poller) and the single processor thread as consumer.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IngestHandoffBenchmark {
+
+    private static final ChatMessage MESSAGE =
+            new ChatMessage("PixelPanda", "that jump was insane", ChatMessage.Platform.TWITCH, "wooldrum");
+
+    @Param({"DROP_OLDEST", "DROP_NEWEST", "SAMPLE"})
+    public IngestBuffer.OverloadPolicy policy;
+
+    private IngestBuffer<ChatMessage> buffer;
+
+    @Setup
+    public void setup() {
+        buffer = new IngestBuffer<>(4096, policy, 4);
+    }
+
+    @Benchmark
+    @Group("handoff")
+    @GroupThreads(3)
+    public boolean offer() {
+        return buffer.offer(MESSAGE);
+    }
+
+    @Benchmark
+    @Group("handoff")
+    @GroupThreads(1)
+    public ChatMessage poll() {
+        return buffer.poll();
+    }
+}
@@ -0,0 +1,70 @@
+package com.wooldrum.chattermod.platform;
+
+import com.github.twitch4j.chat.events.channel.ChannelMessageEvent;
+import com.github.twitch4j.chat.events.channel.IRCMessageEvent;
+import com.wooldrum.chattermod.BenchmarkPayloads;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converts recorded PRIVMSG lines into {@link ChatMessage}s. {@code convert} measures only
+ * {@link TwitchPlatform#toChatMessage}; {@code parseAndConvert} includes twitch4j's own IRC
+ * parsing and event construction, which is what each incoming line really costs.
+ * {@code builtinParse} is the same work done by the built-in {@link TwitchIrcParser}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TwitchConversionBenchmark {
+
+    private static final Map<String, String> ROOM_ID_TO_NAME = Map.of("123456789", "wooldrum");
+    private static final Map<String, String> ROOM_NAME_TO_ID = Map.of("wooldrum", "123456789");
+
+    private List<String> rawLines;
+    private List<ChannelMessageEvent> events;
+    private final TwitchIrcParser parser = new TwitchIrcParser(new String[] {"wooldrum"});
+    private int next;
+
+    @Setup
+    public void setup() {
+        rawLines = BenchmarkPayloads.lines("twitch-privmsg.txt");
+        events = rawLines.stream().map(TwitchConversionBenchmark::toEvent).toList();
+    }
+
+    @Benchmark
+    public ChatMessage convert() {
+        ChannelMessageEvent event = events.get(next);
+        next = (next + 1) % events.size();
+        return TwitchPlatform.toChatMessage(event);
+    }
+
+    @Benchmark
+    public ChatMessage parseAndConvert() {
+        String raw = rawLines.get(next);
+        next = (next + 1) % rawLines.size();
+        return TwitchPlatform.toChatMessage(toEvent(raw));
+    }
+
+    @Benchmark
+    public ChatMessage builtinParse() {
+        String raw = rawLines.get(next);
+        next = (next + 1) % rawLines.size();
+        parser.parse(raw, 0, raw.length());
+        return parser.chatMessage();
+    }
+
+    private static ChannelMessageEvent toEvent(String raw) {
+        IRCMessageEvent irc = new IRCMessageEvent(raw, ROOM_ID_TO_NAME, ROOM_NAME_TO_ID, Collections.emptySet());
+        return new ChannelMessageEvent(irc.getChannel(), irc, irc.getUser(), irc.getMessage().orElse(""), irc.getClientPermissions());
+    }
+}
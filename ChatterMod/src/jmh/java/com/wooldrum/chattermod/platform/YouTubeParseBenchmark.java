@@ -0,0 +1,56 @@
+package com.wooldrum.chattermod.platform;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.wooldrum.chattermod.BenchmarkPayloads;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses one recorded {@code liveChatMessages.list} page (120 items) the way
+ * {@link YouTubePlatform} does, next to the old Gson tree approach as a baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class YouTubeParseBenchmark {
+
+    private String page;
+    private YouTubeChatParser parser;
+
+    @Setup
+    public void setup() {
+        page = BenchmarkPayloads.read("youtube-livechat-page.json");
+        parser = new YouTubeChatParser("UCbenchmark");
+    }
+
+    @Benchmark
+    public YouTubeChatParser.Page streaming(Blackhole bh) throws IOException {
+        return parser.parse(new StringReader(page), bh::consume);
+    }
+
+    @Benchmark
+    public String treeBaseline(Blackhole bh) {
+        JsonObject root = JsonParser.parseString(page).getAsJsonObject();
+        for (JsonElement el : root.getAsJsonArray("items")) {
+            JsonObject item = el.getAsJsonObject();
+            if (item.getAsJsonObject("snippet").get("type").getAsString().equals("textMessageEvent")) {
+                String author = item.getAsJsonObject("authorDetails").get("displayName").getAsString();
+                String msg = item.getAsJsonObject("snippet").getAsJsonObject("textMessageDetails").get("messageText").getAsString();
+                bh.consume(new ChatMessage(author, msg, ChatMessage.Platform.YOUTUBE, "UCbenchmark"));
+            }
+        }
+        return root.has("nextPageToken") ? root.get("nextPageToken").getAsString() : "";
+    }
+}
@@ -1,7 +1,20 @@
 package com.wooldrum.chattermod;
 
+import com.mojang.brigadier.arguments.IntegerArgumentType;
 import com.mojang.brigadier.arguments.StringArgumentType;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.wooldrum.chattermod.dev.MockKickServer;
+import com.wooldrum.chattermod.dev.MockYouTubeServer;
+import com.wooldrum.chattermod.journal.ChatJournal;
+import com.wooldrum.chattermod.metrics.Meter;
+import com.wooldrum.chattermod.metrics.MetricsRegistry;
+import com.wooldrum.chattermod.metrics.MetricsReporter;
+import com.wooldrum.chattermod.outbound.OutboundChat;
+import com.wooldrum.chattermod.pipeline.ChatFormatter;
+import com.wooldrum.chattermod.pipeline.ChatRules;
+import com.wooldrum.chattermod.pipeline.ChatHudDelivery;
+import com.wooldrum.chattermod.pipeline.PriorityIngestBuffer;
+import com.wooldrum.chattermod.pipeline.SpamFilter;
 import com.wooldrum.chattermod.platform.*;
 import net.fabricmc.api.ClientModInitializer;
 import net.fabricmc.api.EnvType;
@@ -9,6 +22,8 @@ import net.fabricmc.api.Environment;
 import net.fabricmc.fabric.api.client.command.v2.ClientCommandManager;
 import net.fabricmc.fabric.api.client.command.v2.ClientCommandRegistrationCallback;
 import net.fabricmc.fabric.api.client.command.v2.FabricClientCommandSource;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientLifecycleEvents;
+import net.fabricmc.fabric.api.client.message.v1.ClientSendMessageEvents;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.text.MutableText;
 import net.minecraft.text.Text;
@@ -16,52 +31,347 @@ import net.minecraft.util.Formatting;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 @Environment(EnvType.CLIENT)
 public class ChatterMod implements ClientModInitializer {
 
     public static final Logger LOGGER = LoggerFactory.getLogger("ChatterMod");
+    public static final MetricsRegistry METRICS = new MetricsRegistry();
 
-    private ChatterModConfig config;
-    private final List<ChatPlatform> activePlatforms = new ArrayList<>();
-    private final BlockingQueue<ChatMessage> messageQueue = new LinkedBlockingQueue<>();
+    private static final Path CONFIG_FILE = Path.of("config", "chattermod.properties");
+    private static final Path JOURNAL_DIR = Path.of("config", "chattermod-journal");
+    private static final int HISTORY_RESULTS = 10;
+    private static final int MAX_REPLAY_LINES = 500;
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    private final ConfigStore configStore = new ConfigStore(CONFIG_FILE);
+    // The snapshot the running pipeline and platforms were last built from.
+    private volatile ChatterModConfig config;
+    // Keyed by every setting the platform was built from; an unchanged key means nothing to restart.
+    private final Map<List<Object>, ChatPlatform> activePlatforms = new LinkedHashMap<>();
+    private final ConfigWatcher configWatcher = new ConfigWatcher(CONFIG_FILE, this::onConfigFileChanged);
+    private PriorityIngestBuffer<ChatMessage> messageQueue;
     private Thread messageProcessorThread;
+    private ChatHudDelivery delivery;
+    private final ChatFormatter formatter = new ChatFormatter(1024);
+    // History and replay format off the processor thread, one request at a time.
+    private final ChatFormatter journalFormatter = new ChatFormatter(256);
+    private volatile ChatJournal journal;
+    private final ChatRules chatRules = new ChatRules();
+    private final SpamFilter spamFilter = new SpamFilter();
+    private final PlatformSupervisor supervisor = new PlatformSupervisor();
+    // Only while dev.mockYouTube.enabled is set; YouTube platforms then poll it instead of Google.
+    private MockYouTubeServer mockYouTube;
+    // Only while dev.mockKick.enabled is set; Kick platforms then look up and connect to it.
+    private MockKickServer mockKick;
+    // Discovered on first use; a provider only loads its platform classes when asked to build one.
+    private List<ChatPlatformProvider> providers;
+    // Platforms connect only once the game has finished starting, so they never slow the loading screen.
+    private volatile boolean clientStarted;
+    private final MetricsReporter metricsReporter = new MetricsReporter(METRICS);
+    // The first running platform of each kind that can post; rebuilt whenever platforms change.
+    private volatile Map<ChatMessage.Platform, ChatSender> senders = Map.of();
+    private final OutboundChat outbound = new OutboundChat(platform -> senders.get(platform), this::outboundFailed);
+    private final Map<ChatMessage.Platform, Meter> ingestMeters = new EnumMap<>(ChatMessage.Platform.class);
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
 
     @Override
     public void onInitializeClient() {
+        long startNanos = System.nanoTime();
         LOGGER.info("Initializing ChatterMod BETA 1.0...");
-        loadAndConnect();
+        reload();
+        registerMetrics();
+        delivery.register();
         startMessageProcessor();
+        metricsReporter.start();
+        configWatcher.start();
         registerCommands();
+        ClientSendMessageEvents.ALLOW_CHAT.register(this::allowChat);
+        ClientLifecycleEvents.CLIENT_STARTED.register(client -> connectPlatforms());
+        ClientLifecycleEvents.CLIENT_STOPPING.register(client -> shutdown());
+        LOGGER.info("ChatterMod initialized in {} ms; platforms connect once the client has started.", millisSince(startNanos));
+    }
+
+    private void connectPlatforms() {
+        clientStarted = true;
+        Thread.ofVirtual().name("ChatterMod-Connect").start(() -> {
+            synchronized (this) {
+                reconcilePlatforms();
+            }
+        });
     }
 
-    private void loadAndConnect() {
-        activePlatforms.forEach(ChatPlatform::disconnect);
-        activePlatforms.clear();
+    private void shutdown() {
+        configWatcher.stop();
+        configStore.close();
+        outbound.stop();
+        supervisor.stopAll();
+        if (mockYouTube != null) {
+            mockYouTube.stop();
+        }
+        if (mockKick != null) {
+            mockKick.stop();
+        }
+        metricsReporter.stop();
+        if (journal != null) {
+            journal.close();
+        }
+        if (messageProcessorThread != null) {
+            messageProcessorThread.interrupt();
+        }
+    }
 
-        this.config = ChatterModConfig.load();
-        HttpClient httpClient = HttpClient.newHttpClient();
+    /** Loads the config file and applies it. */
+    private void reload() {
+        apply(configStore.load());
+    }
 
-        if (!config.youtubeAccounts.isEmpty()) {
-            activePlatforms.add(new YouTubePlatform(config.youtubeAccounts.get(0), httpClient));
+    /**
+     * Called by the watcher. Our own saves also show up as changes; those carry nothing the
+     * store does not already hold, so they are skipped.
+     */
+    private void onConfigFileChanged() {
+        ChatterModConfig known = configStore.get();
+        ChatterModConfig loaded = configStore.load();
+        if (known != null && known.sameSettings(loaded)) return;
+        LOGGER.info("{} changed on disk, reloading.", CONFIG_FILE.getFileName());
+        apply(loaded);
+    }
+
+    /** Applies what commands changed in the store, off the client thread. */
+    private void applyStoredConfig() {
+        Thread.ofVirtual().name("ChatterMod-Apply").start(() -> apply(configStore.get()));
+    }
+
+    /** Rebuilds the filter rules from the stored config off the client thread; the last build wins. */
+    private void compileRules() {
+        Thread.ofVirtual().name("ChatterMod-Rules").start(() -> {
+            // Read under the lock so a build that started earlier cannot install older rules.
+            synchronized (chatRules) {
+                chatRules.compile(configStore.get());
+            }
+        });
+    }
+
+    /**
+     * Applies only what changed: cosmetic and pipeline settings are swapped in place, and
+     * only platforms whose channels or credentials changed are restarted. Stopping stale
+     * platforms can take seconds, so this never runs on the client thread after startup.
+     */
+    private synchronized void apply(ChatterModConfig next) {
+        ChatterModConfig previous = config;
+        config = next;
+        applyPipelineSettings(previous);
+        applyMockYouTube();
+        applyMockKick();
+        if (clientStarted) {
+            reconcilePlatforms();
         }
-        if (!config.twitchAccounts.isEmpty()) {
-            activePlatforms.add(new TwitchPlatform(config.twitchAccounts.get(0)));
+    }
+
+    private void applyMockYouTube() {
+        MockYouTubeServer.Settings wanted = new MockYouTubeServer.Settings(config.mockYouTubePort,
+                config.mockYouTubeMessagesPerSecond, config.mockYouTubeErrorRate, config.mockYouTubeChatDurationSeconds, 0);
+        if (mockYouTube != null && (!config.mockYouTubeEnabled || !mockYouTube.settings().equals(wanted))) {
+            mockYouTube.stop();
+            mockYouTube = null;
         }
+        if (config.mockYouTubeEnabled && mockYouTube == null) {
+            MockYouTubeServer server = new MockYouTubeServer(wanted);
+            try {
+                LOGGER.info("Mock YouTube API listening at {}; YouTube channels will poll it.", server.start());
+                mockYouTube = server;
+            } catch (IOException e) {
+                LOGGER.error("Could not start the mock YouTube API.", e);
+            }
+        }
+    }
+
+    private void applyMockKick() {
+        MockKickServer.Settings wanted = new MockKickServer.Settings(config.mockKickPort,
+                config.mockKickMessagesPerSecond, config.mockKickReconnectSeconds);
+        if (mockKick != null && (!config.mockKickEnabled || !mockKick.settings().equals(wanted))) {
+            mockKick.stop();
+            mockKick = null;
+        }
+        if (config.mockKickEnabled && mockKick == null) {
+            MockKickServer server = new MockKickServer(wanted);
+            try {
+                LOGGER.info("Mock Kick API listening at {}; Kick channels will connect to it.", server.start());
+                mockKick = server;
+            } catch (IOException e) {
+                LOGGER.error("Could not start the mock Kick API.", e);
+            }
+        }
+    }
+
+    private void reconcilePlatforms() {
+        ChatterModConfig effective = config;
+        if (mockYouTube != null || mockKick != null) {
+            ChatterModConfig.Builder b = effective.toBuilder();
+            if (mockYouTube != null) {
+                b.youtubeApiBaseUrl = mockYouTube.baseUrl();
+            }
+            if (mockKick != null) {
+                b.kickApiBaseUrl = mockKick.baseUrl();
+                b.kickEndpoint = mockKick.endpoint();
+            }
+            effective = b.build();
+        }
+        Map<List<Object>, Supplier<ChatPlatform>> wanted = new LinkedHashMap<>();
+        for (ChatPlatformProvider provider : providers()) {
+            wanted.putAll(provider.platforms(effective, httpClient));
+        }
+
+        List<ChatPlatform> stale = new ArrayList<>();
+        Iterator<Map.Entry<List<Object>, ChatPlatform>> it = activePlatforms.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<List<Object>, ChatPlatform> entry = it.next();
+            if (!wanted.containsKey(entry.getKey())) {
+                stale.add(entry.getValue());
+                it.remove();
+            }
+        }
+        supervisor.stop(stale);
 
-        for (ChatPlatform platform : activePlatforms) {
-            platform.onMessage(messageQueue::add);
-            platform.connect();
+        int started = 0;
+        for (Map.Entry<List<Object>, Supplier<ChatPlatform>> entry : wanted.entrySet()) {
+            if (activePlatforms.containsKey(entry.getKey())) continue;
+            long createNanos = System.nanoTime();
+            ChatPlatform platform = entry.getValue().get();
+            LOGGER.info("[{}] Platform created in {} ms.", platform.name(), millisSince(createNanos));
+            platform.onMessage(this::ingest);
+            activePlatforms.put(entry.getKey(), platform);
+            supervisor.start(platform);
+            started++;
+        }
+        Map<ChatMessage.Platform, ChatSender> running = new EnumMap<>(ChatMessage.Platform.class);
+        for (ChatPlatform platform : activePlatforms.values()) {
+            if (platform instanceof ChatSender sender) running.putIfAbsent(sender.platform(), sender);
         }
+        senders = running;
+        LOGGER.info("Config applied: {} platform(s) stopped, {} started, {} left running.",
+                stale.size(), started, activePlatforms.size() - started);
+    }
+
+    private List<ChatPlatformProvider> providers() {
+        if (providers == null) {
+            long startNanos = System.nanoTime();
+            List<ChatPlatformProvider> found = new ArrayList<>();
+            for (ChatPlatformProvider provider : ServiceLoader.load(ChatPlatformProvider.class, ChatterMod.class.getClassLoader())) {
+                found.add(provider);
+            }
+            providers = List.copyOf(found);
+            LOGGER.info("Found {} chat platform provider(s) {} in {} ms.", providers.size(),
+                    providers.stream().map(ChatPlatformProvider::id).toList(), millisSince(startNanos));
+        }
+        return providers;
+    }
+
+    private static long millisSince(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private void applyPipelineSettings(ChatterModConfig previous) {
+        compileFormatters(config);
+        // Through the same guarded build as the commands use, so a reload cannot race them.
+        compileRules();
+        spamFilter.configure(config);
+        if (previous == null || journalSettingsChanged(previous, config) || (journal != null && !journal.writable())) {
+            openJournal();
+        }
+        metricsReporter.setIntervalSeconds(config.metricsLogIntervalSeconds);
+        outbound.configure(config);
+        // The ring buffers are sized once at startup; policy and budgets follow every reload.
+        if (messageQueue == null) {
+            messageQueue = new PriorityIngestBuffer<>(ChatMessage.Priority.values().length, config.ingestCapacity,
+                    config.ingestOverloadPolicy, config.ingestSampleRate);
+        } else {
+            messageQueue.setOverloadPolicy(config.ingestOverloadPolicy, config.ingestSampleRate);
+        }
+        if (delivery == null) {
+            delivery = new ChatHudDelivery(config.deliveryMaxMessagesPerTick, config.deliveryMaxMicrosPerTick,
+                    config.deliveryMaxPending, config.deliveryAgingMillis);
+        } else {
+            delivery.setBudget(config.deliveryMaxMessagesPerTick, config.deliveryMaxMicrosPerTick);
+            delivery.setLanes(config.deliveryMaxPending, config.deliveryAgingMillis);
+        }
+    }
+
+    /** Templates swap in atomically, so the processor thread never sees a half-applied toggle. */
+    private void compileFormatters(ChatterModConfig snapshot) {
+        formatter.compile(snapshot);
+        journalFormatter.compile(snapshot);
+    }
+
+    private static boolean journalSettingsChanged(ChatterModConfig a, ChatterModConfig b) {
+        return a.journalEnabled != b.journalEnabled
+                || a.journalSegmentSizeMB != b.journalSegmentSizeMB
+                || a.journalMaxSegments != b.journalMaxSegments
+                || a.journalRetentionDays != b.journalRetentionDays;
+    }
+
+    /** Also reopens a journal that stopped after a disk error. */
+    private void openJournal() {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+        if (!config.journalEnabled) return;
+        try {
+            journal = ChatJournal.open(JOURNAL_DIR, config.journalSegmentSizeMB, config.journalMaxSegments, config.journalRetentionDays);
+        } catch (IOException e) {
+            LOGGER.error("Could not open the chat journal; history and replay are unavailable.", e);
+        }
+    }
+
+    private void registerMetrics() {
+        for (ChatMessage.Platform platform : ChatMessage.Platform.values()) {
+            ingestMeters.put(platform, METRICS.meter("messages." + platform.name().toLowerCase()));
+        }
+        METRICS.gauge("queue.depth", messageQueue::size);
+        METRICS.gauge("queue.dropped.oldest", messageQueue::droppedOldest);
+        METRICS.gauge("queue.dropped.newest", messageQueue::droppedNewest);
+        METRICS.gauge("queue.dropped.sampled", messageQueue::sampledOut);
+        METRICS.gauge("delivery.pending", delivery::pending);
+        METRICS.gauge("delivery.deferred", delivery::deferredTotal);
+        METRICS.gauge("delivery.dropped", delivery::dropped);
+        for (ChatMessage.Priority priority : ChatMessage.Priority.values()) {
+            METRICS.gauge("delivery.pending." + priority.name().toLowerCase(), () -> delivery.pending(priority));
+        }
+        METRICS.gauge("spam.coalesced", spamFilter::coalesced);
+        METRICS.gauge("spam.rateLimited", spamFilter::rateLimited);
+        // For soak runs: heap that stays up across full GCs is a leak.
+        Runtime runtime = Runtime.getRuntime();
+        METRICS.gauge("jvm.heapUsedMB", () -> (runtime.totalMemory() - runtime.freeMemory()) >> 20);
+    }
+
+    /** Called on platform threads. */
+    private void ingest(ChatMessage msg) {
+        ingestMeters.get(msg.platform()).mark();
+        messageQueue.offer(msg, msg.priority().ordinal());
     }
 
     private void startMessageProcessor() {
-        messageProcessorThread = new Thread(() -> {
+        messageProcessorThread = Thread.ofVirtual().name("ChatterMod-Message-Processor").start(() -> {
             try {
                 while (!Thread.currentThread().isInterrupted()) {
                     displayInMinecraftChat(messageQueue.take());
@@ -70,48 +380,28 @@ public class ChatterMod implements ClientModInitializer {
                 LOGGER.info("Chat message processor thread interrupted.");
             }
         });
-        messageProcessorThread.setDaemon(true);
-        messageProcessorThread.setName("ChatterMod-Message-Processor");
-        messageProcessorThread.start();
     }
 
     private void displayInMinecraftChat(ChatMessage msg) {
-        Formatting platformColor = Formatting.WHITE;
-        String platformTag = "";
-
-        switch (msg.platform()) {
-            case YOUTUBE:
-                platformColor = Formatting.byName(config.youtubeColor.toUpperCase());
-                platformTag = "[YT]";
-                break;
-            case TWITCH:
-                platformColor = Formatting.byName(config.twitchColor.toUpperCase());
-                platformTag = "[TW]";
-                break;
+        // Blocked messages never reach the journal; masked ones are journaled masked.
+        msg = chatRules.apply(msg);
+        if (msg == null) return;
+        ChatJournal currentJournal = journal;
+        if (currentJournal != null) {
+            currentJournal.append(msg);
         }
-        if (platformColor == null) platformColor = Formatting.WHITE;
-
-        MutableText fullMessage = Text.literal("");
-
-        if (config.showPlatformLogo) {
-            fullMessage.append(Text.literal(platformTag + " ").formatted(platformColor));
+        // Paid and moderator messages are never coalesced or rate limited.
+        if (msg.priority().compareTo(ChatMessage.Priority.MODERATOR) <= 0) {
+            delivery.submit(formatter.format(msg, chatRules.lastHighlighted()), 0, msg.receivedAt(), msg.priority());
+            return;
         }
-
-        MutableText authorText = Text.literal(msg.author());
-        if (config.usePlatformColors) {
-            authorText.formatted(platformColor);
+        int count = spamFilter.process(msg);
+        if (count == SpamFilter.RATE_LIMITED) return;
+        if (count == 1) {
+            delivery.submit(formatter.format(msg, chatRules.lastHighlighted()), spamFilter.lastKey(), msg.receivedAt(), msg.priority());
+        } else {
+            delivery.update(spamFilter.lastKey(), formatter.formatBurst(msg, count));
         }
-
-        fullMessage.append(Text.literal("<").formatted(Formatting.GRAY))
-                .append(authorText)
-                .append(Text.literal("> ").formatted(Formatting.GRAY))
-                .append(Text.literal(msg.message()).formatted(Formatting.WHITE));
-
-        MinecraftClient.getInstance().execute(() -> {
-            if (MinecraftClient.getInstance().inGameHud != null) {
-                MinecraftClient.getInstance().inGameHud.getChatHud().addMessage(fullMessage);
-            }
-        });
     }
 
     private void registerCommands() {
@@ -121,20 +411,29 @@ public class ChatterMod implements ClientModInitializer {
             chattermodNode.then(ClientCommandManager.literal("toggle")
                 .then(ClientCommandManager.literal("logos")
                     .executes(c -> {
-                        config.showPlatformLogo = !config.showPlatformLogo;
-                        config.save();
-                        reply(c.getSource(), "Platform logos " + (config.showPlatformLogo ? "enabled." : "disabled."));
+                        ChatterModConfig updated = configStore.update(b -> b.showPlatformLogo = !b.showPlatformLogo);
+                        applyStoredConfig();
+                        reply(c.getSource(), "Platform logos " + (updated.showPlatformLogo ? "enabled." : "disabled."));
                         return 1;
                     }))
                 .then(ClientCommandManager.literal("colors")
                     .executes(c -> {
-                        config.usePlatformColors = !config.usePlatformColors;
-                        config.save();
-                        reply(c.getSource(), "Platform colors " + (config.usePlatformColors ? "enabled." : "disabled."));
+                        ChatterModConfig updated = configStore.update(b -> b.usePlatformColors = !b.usePlatformColors);
+                        applyStoredConfig();
+                        reply(c.getSource(), "Platform colors " + (updated.usePlatformColors ? "enabled." : "disabled."));
+                        return 1;
+                    }))
+                .then(ClientCommandManager.literal("filter")
+                    .executes(c -> {
+                        ChatterModConfig updated = configStore.update(b -> b.filterEnabled = !b.filterEnabled);
+                        applyStoredConfig();
+                        reply(c.getSource(), "Chat filter " + (updated.filterEnabled ? "enabled." : "disabled."));
                         return 1;
                     }))
             );
 
+            chattermodNode.then(filterCommand());
+
             // /chattermod youtube
             chattermodNode.then(ClientCommandManager.literal("youtube")
                 .then(ClientCommandManager.literal("set")
@@ -142,25 +441,56 @@ public class ChatterMod implements ClientModInitializer {
                         .then(ClientCommandManager.argument("key", StringArgumentType.greedyString())
                             .executes(c -> {
                                 String key = StringArgumentType.getString(c, "key");
-                                String channelId = config.youtubeAccounts.isEmpty() ? "" : config.youtubeAccounts.get(0).channelId();
-                                config.youtubeAccounts.clear();
-                                config.youtubeAccounts.add(new ChatterModConfig.YouTubeAccount(channelId, key));
-                                config.save();
-                                reply(c.getSource(), "YouTube API Key set. Use /chattermod reload to apply.");
+                                configStore.update(b -> {
+                                    String channelId = b.youtubeAccounts.isEmpty() ? "" : b.youtubeAccounts.get(0).channelId();
+                                    String liveChatId = b.youtubeAccounts.isEmpty() ? "" : b.youtubeAccounts.get(0).liveChatId();
+                                    b.setPrimaryYouTubeAccount(new ChatterModConfig.YouTubeAccount(channelId, key, liveChatId));
+                                });
+                                applyStoredConfig();
+                                reply(c.getSource(), "YouTube API Key set.");
                                 return 1;
                             })))
                     .then(ClientCommandManager.literal("channel")
                         .then(ClientCommandManager.argument("id", StringArgumentType.string())
                             .executes(c -> {
                                 String id = StringArgumentType.getString(c, "id");
-                                String apiKey = config.youtubeAccounts.isEmpty() ? "" : config.youtubeAccounts.get(0).apiKey();
-                                config.youtubeAccounts.clear();
-                                config.youtubeAccounts.add(new ChatterModConfig.YouTubeAccount(id, apiKey));
-                                config.save();
-                                reply(c.getSource(), "YouTube Channel ID set. Use /chattermod reload to apply.");
+                                configStore.update(b -> {
+                                    String apiKey = b.youtubeAccounts.isEmpty() ? "" : b.youtubeAccounts.get(0).apiKey();
+                                    b.setPrimaryYouTubeAccount(new ChatterModConfig.YouTubeAccount(id, apiKey));
+                                });
+                                applyStoredConfig();
+                                reply(c.getSource(), "YouTube Channel ID set.");
                                 return 1;
                             })))
                 )
+                .then(ClientCommandManager.literal("add")
+                    .then(ClientCommandManager.literal("channel")
+                        .then(ClientCommandManager.argument("id", StringArgumentType.string())
+                            .executes(c -> {
+                                if (configStore.get().youtubeAccounts.isEmpty()) {
+                                    reply(c.getSource(), "Set a YouTube API Key first with /chattermod youtube set apikey.");
+                                    return 0;
+                                }
+                                String id = StringArgumentType.getString(c, "id");
+                                configStore.update(b -> b.youtubeAccounts.add(new ChatterModConfig.YouTubeAccount(id, b.youtubeAccounts.get(0).apiKey())));
+                                applyStoredConfig();
+                                reply(c.getSource(), "YouTube channel added.");
+                                return 1;
+                            }))))
+                .then(ClientCommandManager.literal("remove")
+                    .then(ClientCommandManager.literal("channel")
+                        .then(ClientCommandManager.argument("id", StringArgumentType.string())
+                            .executes(c -> {
+                                String id = StringArgumentType.getString(c, "id");
+                                if (configStore.get().youtubeAccounts.stream().noneMatch(a -> a.channelId().equals(id))) {
+                                    reply(c.getSource(), "No YouTube channel '" + id + "' is configured.");
+                                    return 0;
+                                }
+                                configStore.update(b -> b.youtubeAccounts.removeIf(a -> a.channelId().equals(id)));
+                                applyStoredConfig();
+                                reply(c.getSource(), "YouTube channel removed.");
+                                return 1;
+                            }))))
             );
 
             chattermodNode.then(ClientCommandManager.literal("twitch")
@@ -169,27 +499,126 @@ public class ChatterMod implements ClientModInitializer {
                         .then(ClientCommandManager.argument("name", StringArgumentType.string())
                             .executes(c -> {
                                 String name = StringArgumentType.getString(c, "name");
-                                String token = config.twitchAccounts.isEmpty() ? "" : config.twitchAccounts.get(0).oauthToken();
-                                config.twitchAccounts.clear();
-                                config.twitchAccounts.add(new ChatterModConfig.TwitchAccount(name, token));
-                                config.save();
-                                reply(c.getSource(), "Twitch channel name set. Use /chattermod reload to apply.");
+                                configStore.update(b -> {
+                                    String token = b.twitchAccounts.isEmpty() ? "" : b.twitchAccounts.get(0).oauthToken();
+                                    b.setPrimaryTwitchAccount(new ChatterModConfig.TwitchAccount(name, token));
+                                });
+                                applyStoredConfig();
+                                reply(c.getSource(), "Twitch channel name set.");
                                 return 1;
                             })))
                     .then(ClientCommandManager.literal("token")
                         .then(ClientCommandManager.argument("token", StringArgumentType.greedyString())
                             .executes(c -> {
                                 String token = StringArgumentType.getString(c, "token");
-                                String name = config.twitchAccounts.isEmpty() ? "" : config.twitchAccounts.get(0).channelName();
-                                config.twitchAccounts.clear();
-                                config.twitchAccounts.add(new ChatterModConfig.TwitchAccount(name, token));
-                                config.save();
-                                reply(c.getSource(), "Twitch OAuth token set. Use /chattermod reload to apply.");
-                                
+                                configStore.update(b -> {
+                                    String name = b.twitchAccounts.isEmpty() ? "" : b.twitchAccounts.get(0).channelName();
+                                    b.setPrimaryTwitchAccount(new ChatterModConfig.TwitchAccount(name, token));
+                                });
+                                applyStoredConfig();
+                                reply(c.getSource(), "Twitch OAuth token set.");
+                                return 1;
+                            })))
+                )
+                .then(ClientCommandManager.literal("add")
+                    .then(ClientCommandManager.literal("channel")
+                        .then(ClientCommandManager.argument("name", StringArgumentType.string())
+                            .executes(c -> {
+                                // Extra channels share the first account's connection and token.
+                                String name = StringArgumentType.getString(c, "name");
+                                configStore.update(b -> b.twitchAccounts.add(new ChatterModConfig.TwitchAccount(name, "")));
+                                applyStoredConfig();
+                                reply(c.getSource(), "Twitch channel added.");
+                                return 1;
+                            }))))
+                .then(ClientCommandManager.literal("remove")
+                    .then(ClientCommandManager.literal("channel")
+                        .then(ClientCommandManager.argument("name", StringArgumentType.string())
+                            .executes(c -> {
+                                String name = StringArgumentType.getString(c, "name");
+                                if (configStore.get().twitchAccounts.stream().noneMatch(a -> a.channelName().equalsIgnoreCase(name))) {
+                                    reply(c.getSource(), "No Twitch channel '" + name + "' is configured.");
+                                    return 0;
+                                }
+                                configStore.update(b -> b.twitchAccounts.removeIf(a -> a.channelName().equalsIgnoreCase(name)));
+                                applyStoredConfig();
+                                reply(c.getSource(), "Twitch channel removed.");
+                                return 1;
+                            }))))
+            );
+
+            chattermodNode.then(ClientCommandManager.literal("kick")
+                .then(ClientCommandManager.literal("add")
+                    .then(ClientCommandManager.literal("channel")
+                        .then(ClientCommandManager.argument("name", StringArgumentType.string())
+                            .executes(c -> {
+                                String name = StringArgumentType.getString(c, "name");
+                                configStore.update(b -> b.kickAccounts.add(new ChatterModConfig.KickAccount(name, 0)));
+                                applyStoredConfig();
+                                reply(c.getSource(), "Kick channel added.");
+                                return 1;
+                            }))))
+                .then(ClientCommandManager.literal("remove")
+                    .then(ClientCommandManager.literal("channel")
+                        .then(ClientCommandManager.argument("name", StringArgumentType.string())
+                            .executes(c -> {
+                                String name = StringArgumentType.getString(c, "name");
+                                if (configStore.get().kickAccounts.stream().noneMatch(a -> a.channelName().equalsIgnoreCase(name))) {
+                                    reply(c.getSource(), "No Kick channel '" + name + "' is configured.");
+                                    return 0;
+                                }
+                                configStore.update(b -> b.kickAccounts.removeIf(a -> a.channelName().equalsIgnoreCase(name)));
+                                applyStoredConfig();
+                                reply(c.getSource(), "Kick channel removed.");
+                                return 1;
+                            }))))
+            );
+
+            chattermodNode.then(ClientCommandManager.literal("history")
+                .then(ClientCommandManager.argument("query", StringArgumentType.greedyString())
+                    .executes(c -> {
+                        showHistory(c.getSource(), StringArgumentType.getString(c, "query"));
+                        return 1;
+                    }))
+            );
+
+            chattermodNode.then(ClientCommandManager.literal("replay")
+                .then(ClientCommandManager.argument("minutes", IntegerArgumentType.integer(1, 24 * 60))
+                    .executes(c -> {
+                        replay(c.getSource(), IntegerArgumentType.getInteger(c, "minutes"));
+                        return 1;
+                    }))
+            );
+
+            // /chattermod say [twitch|youtube] <message>
+            chattermodNode.then(ClientCommandManager.literal("say")
+                .then(ClientCommandManager.literal("twitch")
+                    .then(ClientCommandManager.argument("message", StringArgumentType.greedyString())
+                        .executes(c -> say(c.getSource(), List.of(ChatMessage.Platform.TWITCH), StringArgumentType.getString(c, "message")))))
+                .then(ClientCommandManager.literal("youtube")
+                    .then(ClientCommandManager.argument("message", StringArgumentType.greedyString())
+                        .executes(c -> say(c.getSource(), List.of(ChatMessage.Platform.YOUTUBE), StringArgumentType.getString(c, "message")))))
+                .then(ClientCommandManager.argument("message", StringArgumentType.greedyString())
+                    .executes(c -> say(c.getSource(), outbound.targets(), StringArgumentType.getString(c, "message"))))
+            );
+
+            chattermodNode.then(ClientCommandManager.literal("stats")
+                .executes(c -> {
+                    for (String line : METRICS.report()) {
+                        reply(c.getSource(), line);
+                    }
+                    return 1;
+                })
+            );
+
             chattermodNode.then(ClientCommandManager.literal("reload")
                 .executes(c -> {
-                    reply(c.getSource(), "Reloading ChatterMod configuration and reconnecting...");
-                    loadAndConnect();
+                    reply(c.getSource(), "Reloading ChatterMod configuration...");
+                    FabricClientCommandSource src = c.getSource();
+                    Thread.ofVirtual().name("ChatterMod-Reload").start(() -> {
+                        reload();
+                        MinecraftClient.getInstance().execute(() -> reply(src, "ChatterMod configuration reloaded."));
+                    });
                     return 1;
                 })
             );
@@ -198,6 +627,187 @@ public class ChatterMod implements ClientModInitializer {
         });
     }
 
+    /**
+     * {@code /chattermod filter add|remove <block|mask|highlight> [regex] <text>}, plus
+     * {@code list} and {@code test <message>}. Rules apply as soon as the command runs.
+     */
+    private LiteralArgumentBuilder<FabricClientCommandSource> filterCommand() {
+        LiteralArgumentBuilder<FabricClientCommandSource> add = ClientCommandManager.literal("add");
+        LiteralArgumentBuilder<FabricClientCommandSource> remove = ClientCommandManager.literal("remove");
+        for (ChatRules.Action action : ChatRules.Action.values()) {
+            String name = action.name().toLowerCase();
+            add.then(ClientCommandManager.literal(name)
+                .then(ClientCommandManager.literal("regex")
+                    .then(ClientCommandManager.argument("pattern", StringArgumentType.greedyString())
+                        .executes(c -> addFilterRule(c.getSource(), action, true, StringArgumentType.getString(c, "pattern")))))
+                .then(ClientCommandManager.argument("term", StringArgumentType.greedyString())
+                    .executes(c -> addFilterRule(c.getSource(), action, false, StringArgumentType.getString(c, "term")))));
+            remove.then(ClientCommandManager.literal(name)
+                .then(ClientCommandManager.literal("regex")
+                    .then(ClientCommandManager.argument("pattern", StringArgumentType.greedyString())
+                        .executes(c -> removeFilterRule(c.getSource(), action, true, StringArgumentType.getString(c, "pattern")))))
+                .then(ClientCommandManager.argument("term", StringArgumentType.greedyString())
+                    .executes(c -> removeFilterRule(c.getSource(), action, false, StringArgumentType.getString(c, "term")))));
+        }
+
+        return ClientCommandManager.literal("filter")
+            .then(add)
+            .then(remove)
+            .then(ClientCommandManager.literal("list")
+                .executes(c -> {
+                    List<ChatterModConfig.FilterRule> rules = configStore.get().filterRules;
+                    if (rules.isEmpty()) {
+                        reply(c.getSource(), "No filter rules are configured.");
+                        return 1;
+                    }
+                    for (ChatterModConfig.FilterRule rule : rules) {
+                        reply(c.getSource(), rule.action().name().toLowerCase() + (rule.regex() ? " regex " : " ") + rule.pattern());
+                    }
+                    return 1;
+                }))
+            .then(ClientCommandManager.literal("test")
+                .then(ClientCommandManager.argument("message", StringArgumentType.greedyString())
+                    .executes(c -> {
+                        String message = StringArgumentType.getString(c, "message");
+                        int verdict = chatRules.evaluate(message);
+                        if ((verdict & ChatRules.BLOCK) != 0) {
+                            reply(c.getSource(), "Blocked.");
+                        } else if (verdict == 0) {
+                            reply(c.getSource(), "No rule matches.");
+                        } else {
+                            String shown = (verdict & ChatRules.MASK) != 0 ? chatRules.mask(message) : message;
+                            reply(c.getSource(), ((verdict & ChatRules.HIGHLIGHT) != 0 ? "Highlighted: " : "Shown as: ") + shown);
+                        }
+                        return 1;
+                    })));
+    }
+
+    private int addFilterRule(FabricClientCommandSource src, ChatRules.Action action, boolean regex, String pattern) {
+        String error = regex ? ChatRules.validateRegex(pattern) : null;
+        if (error != null) {
+            reply(src, "Invalid regex: " + error);
+            return 0;
+        }
+        if (!regex && pattern.contains(",")) {
+            reply(src, "Terms cannot contain commas; add them one at a time.");
+            return 0;
+        }
+        ChatterModConfig.FilterRule rule = new ChatterModConfig.FilterRule(action, regex, pattern.strip());
+        if (configStore.get().filterRules.contains(rule)) {
+            reply(src, "That rule already exists.");
+            return 0;
+        }
+        configStore.update(b -> b.filterRules.add(rule));
+        applyStoredConfig();
+        reply(src, "Filter rule added.");
+        return 1;
+    }
+
+    private int removeFilterRule(FabricClientCommandSource src, ChatRules.Action action, boolean regex, String pattern) {
+        ChatterModConfig.FilterRule rule = new ChatterModConfig.FilterRule(action, regex, pattern.strip());
+        if (!configStore.get().filterRules.contains(rule)) {
+            reply(src, "No such filter rule.");
+            return 0;
+        }
+        configStore.update(b -> b.filterRules.remove(rule));
+        applyStoredConfig();
+        reply(src, "Filter rule removed.");
+        return 1;
+    }
+
+    private int say(FabricClientCommandSource src, List<ChatMessage.Platform> targets, String message) {
+        List<ChatMessage.Platform> queued = queueOutbound(targets, message);
+        if (queued.isEmpty()) {
+            reply(src, "Nothing to send to: no connected platform can post, or its send queue is full.");
+            return 0;
+        }
+        reply(src, "Sending to " + queued + ".");
+        return 1;
+    }
+
+    /** Chat starting with {@code outbound.chatPrefix} goes to the streams instead of the server. */
+    private boolean allowChat(String message) {
+        String prefix = config.outboundChatPrefix;
+        if (prefix.isEmpty() || !message.startsWith(prefix)) return true;
+        List<ChatMessage.Platform> queued = queueOutbound(outbound.targets(), message.substring(prefix.length()));
+        if (queued.isEmpty()) {
+            showNotice("Not sent: no connected platform can post, or its send queue is full.");
+        }
+        return false;
+    }
+
+    private List<ChatMessage.Platform> queueOutbound(List<ChatMessage.Platform> targets, String message) {
+        List<ChatMessage.Platform> queued = new ArrayList<>(targets.size());
+        for (ChatMessage.Platform target : targets) {
+            if (outbound.submit(target, message)) queued.add(target);
+        }
+        return queued;
+    }
+
+    /** Called on an outbound lane's thread. */
+    private void outboundFailed(ChatMessage.Platform target, String text, String reason) {
+        showNotice("Could not send to " + target + " (" + reason + "): " + text);
+    }
+
+    /** Goes through the moderator lane, so it is shown even when chat is flooded. */
+    private void showNotice(String message) {
+        delivery.submit(Text.literal(message).formatted(Formatting.RED), 0, 0, ChatMessage.Priority.MODERATOR);
+    }
+
+    /** Searches the journal off the render thread and prints the newest matches oldest first. */
+    private void showHistory(FabricClientCommandSource src, String query) {
+        ChatJournal currentJournal = journal;
+        if (currentJournal == null) {
+            reply(src, "The chat journal is disabled.");
+            return;
+        }
+        Thread.ofVirtual().name("ChatterMod-History").start(() -> {
+            List<ChatJournal.Entry> hits = currentJournal.search(query, HISTORY_RESULTS);
+            List<Text> lines = new ArrayList<>(hits.size());
+            synchronized (journalFormatter) {
+                for (int i = hits.size() - 1; i >= 0; i--) {
+                    lines.add(timestamped(hits.get(i)));
+                }
+            }
+            MinecraftClient.getInstance().execute(() -> {
+                if (lines.isEmpty()) {
+                    reply(src, "No messages matching '" + query + "'.");
+                    return;
+                }
+                for (Text line : lines) {
+                    src.sendFeedback(line);
+                }
+            });
+        });
+    }
+
+    /** Pushes the journal's last {@code minutes} back through the chat delivery. */
+    private void replay(FabricClientCommandSource src, int minutes) {
+        ChatJournal currentJournal = journal;
+        if (currentJournal == null) {
+            reply(src, "The chat journal is disabled.");
+            return;
+        }
+        Thread.ofVirtual().name("ChatterMod-Replay").start(() -> {
+            List<ChatJournal.Entry> entries = currentJournal.since(System.currentTimeMillis() - minutes * 60_000L, MAX_REPLAY_LINES);
+            synchronized (journalFormatter) {
+                delivery.submit(Text.literal("Replaying " + entries.size() + " messages from the last " + minutes + " min:")
+                        .formatted(Formatting.GRAY), 0, 0);
+                for (ChatJournal.Entry entry : entries) {
+                    // Replayed Super Chats and moderator lines keep their lane, amount and badges;
+                    // they are not new, so they stay out of the latency histogram.
+                    delivery.submit(timestamped(entry), 0, 0, entry.message().priority());
+                }
+            }
+        });
+    }
+
+    private Text timestamped(ChatJournal.Entry entry) {
+        MutableText line = Text.literal(TIMESTAMP.format(Instant.ofEpochMilli(entry.epochMillis())) + " ")
+                .formatted(Formatting.DARK_GRAY);
+        return line.append(journalFormatter.format(entry.message()));
+    }
+
     private static void reply(FabricClientCommandSource src, String message) {
         src.sendFeedback(Text.literal(message));
     }
@@ -1,95 +1,568 @@
 package com.wooldrum.chattermod;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.IOException;
+import com.wooldrum.chattermod.dev.SyntheticPlatform;
+import com.wooldrum.chattermod.pipeline.ChatRules;
+import com.wooldrum.chattermod.pipeline.IngestBuffer;
+import com.wooldrum.chattermod.platform.ChatMessage;
+
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
-public class ChatterModConfig {
+/**
+ * An immutable snapshot of chattermod.properties. Threads can read the public fields
+ * without locks; changes go through {@link #toBuilder()} and {@link ConfigStore}.
+ */
+public final class ChatterModConfig {
 
-    private static final File CONFIG_FILE = new File("config", "chattermod.properties");
+    private static final int MAX_ACCOUNTS = 32;
 
-    public boolean showPlatformLogo;
-    public boolean usePlatformColors;
-    public String youtubeColor;
-    public String twitchColor;
-    public List<YouTubeAccount> youtubeAccounts = new ArrayList<>();
-    public List<TwitchAccount> twitchAccounts = new ArrayList<>();
+    public final boolean showPlatformLogo;
+    public final boolean usePlatformColors;
+    public final String youtubeColor;
+    public final String twitchColor;
+    public final String kickColor;
+    public final int deliveryMaxMessagesPerTick;
+    public final int deliveryMaxMicrosPerTick;
+    public final int deliveryMaxPending;
+    public final int deliveryAgingMillis;
+    public final int ingestCapacity;
+    public final IngestBuffer.OverloadPolicy ingestOverloadPolicy;
+    public final int ingestSampleRate;
+    public final int youtubePollIntervalSeconds;
+    public final TwitchBackend twitchBackend;
+    public final String twitchEndpoint;
+    public final String kickPusherKey;
+    public final String kickPusherCluster;
+    public final String kickEndpoint;
+    public final String kickApiBaseUrl;
+    public final boolean spamEnabled;
+    public final int spamWindowSeconds;
+    public final int spamAuthorMaxMessages;
+    public final int spamAuthorWindowSeconds;
+    public final int metricsLogIntervalSeconds;
+    public final boolean journalEnabled;
+    public final int journalSegmentSizeMB;
+    public final int journalMaxSegments;
+    public final int journalRetentionDays;
+    public final boolean filterEnabled;
+    public final boolean filterWholeWords;
+    public final String filterHighlightColor;
+    public final List<FilterRule> filterRules;
+    public final String youtubeApiBaseUrl;
+    public final String youtubeAccessToken;
+    public final String outboundChatPrefix;
+    public final boolean outboundTwitchModerator;
+    public final int outboundYouTubeQuotaUnitsPerDay;
+    public final int outboundMaxQueued;
+    public final boolean syntheticEnabled;
+    public final int syntheticRatePerSecond;
+    public final SyntheticPlatform.Pattern syntheticPattern;
+    public final ChatMessage.Platform syntheticPlatform;
+    public final String syntheticReplayFile;
+    public final int syntheticDurationSeconds;
+    public final boolean mockYouTubeEnabled;
+    public final int mockYouTubePort;
+    public final int mockYouTubeMessagesPerSecond;
+    public final double mockYouTubeErrorRate;
+    public final int mockYouTubeChatDurationSeconds;
+    public final boolean mockKickEnabled;
+    public final int mockKickPort;
+    public final int mockKickMessagesPerSecond;
+    public final int mockKickReconnectSeconds;
+    public final List<YouTubeAccount> youtubeAccounts;
+    public final List<TwitchAccount> twitchAccounts;
+    public final List<KickAccount> kickAccounts;
 
-    public record YouTubeAccount(String channelId, String apiKey) {}
-    public record TwitchAccount(String channelName, String oauthToken) {}
+    /** Which Twitch client reads chat: the built-in IRC reader or the twitch4j library. */
+    public enum TwitchBackend {
+        BUILTIN,
+        TWITCH4J
+    }
 
-    private ChatterModConfig() {}
+    /** {@code liveChatId} is blank unless pinned in the config; it is then used without any lookup. */
+    public record YouTubeAccount(String channelId, String apiKey, String liveChatId) {
+        public YouTubeAccount(String channelId, String apiKey) {
+            this(channelId, apiKey, "");
+        }
+    }
+    public record TwitchAccount(String channelName, String oauthToken) {}
+    /** {@code chatroomId} 0 means look it up from the channel name. */
+    public record KickAccount(String channelName, long chatroomId) {}
+    /** A literal term, matched case-insensitively, or a regex when {@code regex} is set. */
+    public record FilterRule(ChatRules.Action action, boolean regex, String pattern) {}
 
-    public static ChatterModConfig load() {
-        ChatterModConfig config = new ChatterModConfig();
-        Properties props = new Properties();
+    private ChatterModConfig(Builder b) {
+        this.showPlatformLogo = b.showPlatformLogo;
+        this.usePlatformColors = b.usePlatformColors;
+        this.youtubeColor = b.youtubeColor;
+        this.twitchColor = b.twitchColor;
+        this.kickColor = b.kickColor;
+        this.deliveryMaxMessagesPerTick = b.deliveryMaxMessagesPerTick;
+        this.deliveryMaxMicrosPerTick = b.deliveryMaxMicrosPerTick;
+        this.deliveryMaxPending = b.deliveryMaxPending;
+        this.deliveryAgingMillis = b.deliveryAgingMillis;
+        this.ingestCapacity = b.ingestCapacity;
+        this.ingestOverloadPolicy = b.ingestOverloadPolicy;
+        this.ingestSampleRate = b.ingestSampleRate;
+        this.youtubePollIntervalSeconds = b.youtubePollIntervalSeconds;
+        this.twitchBackend = b.twitchBackend;
+        this.twitchEndpoint = b.twitchEndpoint;
+        this.kickPusherKey = b.kickPusherKey;
+        this.kickPusherCluster = b.kickPusherCluster;
+        this.kickEndpoint = b.kickEndpoint;
+        this.kickApiBaseUrl = b.kickApiBaseUrl;
+        this.spamEnabled = b.spamEnabled;
+        this.spamWindowSeconds = b.spamWindowSeconds;
+        this.spamAuthorMaxMessages = b.spamAuthorMaxMessages;
+        this.spamAuthorWindowSeconds = b.spamAuthorWindowSeconds;
+        this.metricsLogIntervalSeconds = b.metricsLogIntervalSeconds;
+        this.journalEnabled = b.journalEnabled;
+        this.journalSegmentSizeMB = b.journalSegmentSizeMB;
+        this.journalMaxSegments = b.journalMaxSegments;
+        this.journalRetentionDays = b.journalRetentionDays;
+        this.filterEnabled = b.filterEnabled;
+        this.filterWholeWords = b.filterWholeWords;
+        this.filterHighlightColor = b.filterHighlightColor;
+        this.filterRules = List.copyOf(b.filterRules);
+        this.youtubeApiBaseUrl = b.youtubeApiBaseUrl;
+        this.youtubeAccessToken = b.youtubeAccessToken;
+        this.outboundChatPrefix = b.outboundChatPrefix;
+        this.outboundTwitchModerator = b.outboundTwitchModerator;
+        this.outboundYouTubeQuotaUnitsPerDay = b.outboundYouTubeQuotaUnitsPerDay;
+        this.outboundMaxQueued = b.outboundMaxQueued;
+        this.syntheticEnabled = b.syntheticEnabled;
+        this.syntheticRatePerSecond = b.syntheticRatePerSecond;
+        this.syntheticPattern = b.syntheticPattern;
+        this.syntheticPlatform = b.syntheticPlatform;
+        this.syntheticReplayFile = b.syntheticReplayFile;
+        this.syntheticDurationSeconds = b.syntheticDurationSeconds;
+        this.mockYouTubeEnabled = b.mockYouTubeEnabled;
+        this.mockYouTubePort = b.mockYouTubePort;
+        this.mockYouTubeMessagesPerSecond = b.mockYouTubeMessagesPerSecond;
+        this.mockYouTubeErrorRate = b.mockYouTubeErrorRate;
+        this.mockYouTubeChatDurationSeconds = b.mockYouTubeChatDurationSeconds;
+        this.mockKickEnabled = b.mockKickEnabled;
+        this.mockKickPort = b.mockKickPort;
+        this.mockKickMessagesPerSecond = b.mockKickMessagesPerSecond;
+        this.mockKickReconnectSeconds = b.mockKickReconnectSeconds;
+        this.youtubeAccounts = List.copyOf(b.youtubeAccounts);
+        this.twitchAccounts = List.copyOf(b.twitchAccounts);
+        this.kickAccounts = List.copyOf(b.kickAccounts);
+    }
 
-        if (CONFIG_FILE.exists()) {
-            try (FileInputStream in = new FileInputStream(CONFIG_FILE)) {
-                props.load(in);
-            } catch (IOException e) {
-                ChatterMod.LOGGER.error("Failed to load chattermod.properties", e);
-            }
-        }
+    /** A mutable copy to derive a changed config from. */
+    public Builder toBuilder() {
+        Builder b = new Builder();
+        b.showPlatformLogo = this.showPlatformLogo;
+        b.usePlatformColors = this.usePlatformColors;
+        b.youtubeColor = this.youtubeColor;
+        b.twitchColor = this.twitchColor;
+        b.kickColor = this.kickColor;
+        b.deliveryMaxMessagesPerTick = this.deliveryMaxMessagesPerTick;
+        b.deliveryMaxMicrosPerTick = this.deliveryMaxMicrosPerTick;
+        b.deliveryMaxPending = this.deliveryMaxPending;
+        b.deliveryAgingMillis = this.deliveryAgingMillis;
+        b.ingestCapacity = this.ingestCapacity;
+        b.ingestOverloadPolicy = this.ingestOverloadPolicy;
+        b.ingestSampleRate = this.ingestSampleRate;
+        b.youtubePollIntervalSeconds = this.youtubePollIntervalSeconds;
+        b.twitchBackend = this.twitchBackend;
+        b.twitchEndpoint = this.twitchEndpoint;
+        b.kickPusherKey = this.kickPusherKey;
+        b.kickPusherCluster = this.kickPusherCluster;
+        b.kickEndpoint = this.kickEndpoint;
+        b.kickApiBaseUrl = this.kickApiBaseUrl;
+        b.spamEnabled = this.spamEnabled;
+        b.spamWindowSeconds = this.spamWindowSeconds;
+        b.spamAuthorMaxMessages = this.spamAuthorMaxMessages;
+        b.spamAuthorWindowSeconds = this.spamAuthorWindowSeconds;
+        b.metricsLogIntervalSeconds = this.metricsLogIntervalSeconds;
+        b.journalEnabled = this.journalEnabled;
+        b.journalSegmentSizeMB = this.journalSegmentSizeMB;
+        b.journalMaxSegments = this.journalMaxSegments;
+        b.journalRetentionDays = this.journalRetentionDays;
+        b.filterEnabled = this.filterEnabled;
+        b.filterWholeWords = this.filterWholeWords;
+        b.filterHighlightColor = this.filterHighlightColor;
+        b.filterRules = new ArrayList<>(this.filterRules);
+        b.youtubeApiBaseUrl = this.youtubeApiBaseUrl;
+        b.youtubeAccessToken = this.youtubeAccessToken;
+        b.outboundChatPrefix = this.outboundChatPrefix;
+        b.outboundTwitchModerator = this.outboundTwitchModerator;
+        b.outboundYouTubeQuotaUnitsPerDay = this.outboundYouTubeQuotaUnitsPerDay;
+        b.outboundMaxQueued = this.outboundMaxQueued;
+        b.syntheticEnabled = this.syntheticEnabled;
+        b.syntheticRatePerSecond = this.syntheticRatePerSecond;
+        b.syntheticPattern = this.syntheticPattern;
+        b.syntheticPlatform = this.syntheticPlatform;
+        b.syntheticReplayFile = this.syntheticReplayFile;
+        b.syntheticDurationSeconds = this.syntheticDurationSeconds;
+        b.mockYouTubeEnabled = this.mockYouTubeEnabled;
+        b.mockYouTubePort = this.mockYouTubePort;
+        b.mockYouTubeMessagesPerSecond = this.mockYouTubeMessagesPerSecond;
+        b.mockYouTubeErrorRate = this.mockYouTubeErrorRate;
+        b.mockYouTubeChatDurationSeconds = this.mockYouTubeChatDurationSeconds;
+        b.mockKickEnabled = this.mockKickEnabled;
+        b.mockKickPort = this.mockKickPort;
+        b.mockKickMessagesPerSecond = this.mockKickMessagesPerSecond;
+        b.mockKickReconnectSeconds = this.mockKickReconnectSeconds;
+        b.youtubeAccounts = new ArrayList<>(this.youtubeAccounts);
+        b.twitchAccounts = new ArrayList<>(this.twitchAccounts);
+        b.kickAccounts = new ArrayList<>(this.kickAccounts);
+        return b;
+    }
 
+    /** Builds a config from already-loaded properties, applying defaults for missing keys. */
+    public static ChatterModConfig fromProperties(Properties props) {
+        Builder config = new Builder();
         config.showPlatformLogo = Boolean.parseBoolean(props.getProperty("general.showPlatformLogo", "true"));
         config.usePlatformColors = Boolean.parseBoolean(props.getProperty("general.usePlatformColors", "true"));
         config.youtubeColor = props.getProperty("colors.youtube", "RED");
         config.twitchColor = props.getProperty("colors.twitch", "DARK_PURPLE");
+        config.kickColor = props.getProperty("colors.kick", "GREEN");
+        config.deliveryMaxMessagesPerTick = parseInt(props, "delivery.maxMessagesPerTick", 10);
+        config.deliveryMaxMicrosPerTick = parseInt(props, "delivery.maxMicrosPerTick", 1500);
+        config.deliveryMaxPending = parseInt(props, "delivery.maxPending", 2000);
+        config.deliveryAgingMillis = parseInt(props, "delivery.agingMillis", 3000);
+        config.ingestCapacity = parseInt(props, "ingest.capacity", 4096);
+        config.ingestOverloadPolicy = parseEnum(props, "ingest.overloadPolicy", IngestBuffer.OverloadPolicy.DROP_OLDEST);
+        config.ingestSampleRate = parseInt(props, "ingest.sampleRate", 4);
+        // Older configs used a bare "pollIntervalSeconds" key.
+        config.youtubePollIntervalSeconds = parseInt(props, "youtube.pollIntervalSeconds",
+                parseInt(props, "pollIntervalSeconds", 5));
+        // Data API root; blank for Google's, or e.g. a MockYouTubeServer URL.
+        config.youtubeApiBaseUrl = props.getProperty("youtube.apiBaseUrl", "");
+        // OAuth access token with the youtube.force-ssl scope; only needed to post to chat.
+        config.youtubeAccessToken = props.getProperty("youtube.accessToken", "").trim();
+        config.twitchBackend = parseEnum(props, "twitch.backend", TwitchBackend.TWITCH4J);
+        // Full WebSocket URL for the built-in backend, e.g. a local test server.
+        config.twitchEndpoint = props.getProperty("twitch.endpoint", "");
+        config.kickPusherKey = props.getProperty("kick.pusherKey", "32cbd69e4b950bf97679");
+        config.kickPusherCluster = props.getProperty("kick.pusherCluster", "us2");
+        // Full WebSocket URL; overrides key and cluster, e.g. to point at a local test server.
+        config.kickEndpoint = props.getProperty("kick.endpoint", "");
+        // Channel API root; blank for Kick's, or e.g. a MockKickServer URL.
+        config.kickApiBaseUrl = props.getProperty("kick.apiBaseUrl", "");
+        config.spamEnabled = Boolean.parseBoolean(props.getProperty("spam.enabled", "true"));
+        config.spamWindowSeconds = parseInt(props, "spam.windowSeconds", 10);
+        config.spamAuthorMaxMessages = parseInt(props, "spam.authorMaxMessages", 5);
+        config.spamAuthorWindowSeconds = parseInt(props, "spam.authorWindowSeconds", 10);
+        config.metricsLogIntervalSeconds = parseInt(props, "metrics.logIntervalSeconds", 0);
+        config.journalEnabled = Boolean.parseBoolean(props.getProperty("journal.enabled", "true"));
+        config.journalSegmentSizeMB = parseInt(props, "journal.segmentSizeMB", 4);
+        config.journalMaxSegments = parseInt(props, "journal.maxSegments", 16);
+        config.journalRetentionDays = parseInt(props, "journal.retentionDays", 7);
+        config.filterEnabled = Boolean.parseBoolean(props.getProperty("filter.enabled", "true"));
+        config.filterWholeWords = Boolean.parseBoolean(props.getProperty("filter.wholeWords", "true"));
+        config.filterHighlightColor = props.getProperty("filter.highlightColor", "GOLD");
+        // Chat typed with this prefix goes to the streams instead of the server; blank turns it off.
+        config.outboundChatPrefix = props.getProperty("outbound.chatPrefix", "").trim();
+        config.outboundTwitchModerator = Boolean.parseBoolean(props.getProperty("outbound.twitchModerator", "false"));
+        config.outboundYouTubeQuotaUnitsPerDay = parseInt(props, "outbound.youtubeQuotaUnitsPerDay", 2500);
+        config.outboundMaxQueued = parseInt(props, "outbound.maxQueued", 20);
+        // Soak-test tooling; both stay off unless asked for.
+        config.syntheticEnabled = Boolean.parseBoolean(props.getProperty("dev.synthetic.enabled", "false"));
+        config.syntheticRatePerSecond = parseInt(props, "dev.synthetic.ratePerSecond", 1000);
+        config.syntheticPattern = parseEnum(props, "dev.synthetic.pattern", SyntheticPlatform.Pattern.STEADY);
+        config.syntheticPlatform = parseEnum(props, "dev.synthetic.platform", ChatMessage.Platform.TWITCH);
+        config.syntheticReplayFile = props.getProperty("dev.synthetic.replayFile", "").trim();
+        config.syntheticDurationSeconds = parseInt(props, "dev.synthetic.durationSeconds", 0);
+        config.mockYouTubeEnabled = Boolean.parseBoolean(props.getProperty("dev.mockYouTube.enabled", "false"));
+        config.mockYouTubePort = parseInt(props, "dev.mockYouTube.port", 0);
+        config.mockYouTubeMessagesPerSecond = parseInt(props, "dev.mockYouTube.messagesPerSecond", 50);
+        config.mockYouTubeErrorRate = parseDouble(props, "dev.mockYouTube.errorRate", 0);
+        config.mockYouTubeChatDurationSeconds = parseInt(props, "dev.mockYouTube.chatDurationSeconds", 0);
+        config.mockKickEnabled = Boolean.parseBoolean(props.getProperty("dev.mockKick.enabled", "false"));
+        config.mockKickPort = parseInt(props, "dev.mockKick.port", 0);
+        config.mockKickMessagesPerSecond = parseInt(props, "dev.mockKick.messagesPerSecond", 50);
+        config.mockKickReconnectSeconds = parseInt(props, "dev.mockKick.reconnectSeconds", 120);
 
         loadAccounts(props, config);
+        loadFilterRules(props, config);
+        return config.build();
+    }
 
-        if (!CONFIG_FILE.exists()) {
-            config.save(); // Creates the file with defaults on first run
-        }
-        return config;
+    /** Whether both snapshots would save to the same file. */
+    public boolean sameSettings(ChatterModConfig other) {
+        return toProperties().equals(other.toProperties());
     }
 
-    public void save() {
+    public Properties toProperties() {
         Properties props = new Properties();
         props.setProperty("general.showPlatformLogo", String.valueOf(this.showPlatformLogo));
         props.setProperty("general.usePlatformColors", String.valueOf(this.usePlatformColors));
         props.setProperty("colors.youtube", this.youtubeColor);
         props.setProperty("colors.twitch", this.twitchColor);
+        props.setProperty("colors.kick", this.kickColor);
+        props.setProperty("delivery.maxMessagesPerTick", String.valueOf(this.deliveryMaxMessagesPerTick));
+        props.setProperty("delivery.maxMicrosPerTick", String.valueOf(this.deliveryMaxMicrosPerTick));
+        props.setProperty("delivery.maxPending", String.valueOf(this.deliveryMaxPending));
+        props.setProperty("delivery.agingMillis", String.valueOf(this.deliveryAgingMillis));
+        props.setProperty("ingest.capacity", String.valueOf(this.ingestCapacity));
+        props.setProperty("ingest.overloadPolicy", this.ingestOverloadPolicy.name());
+        props.setProperty("ingest.sampleRate", String.valueOf(this.ingestSampleRate));
+        props.setProperty("youtube.pollIntervalSeconds", String.valueOf(this.youtubePollIntervalSeconds));
+        props.setProperty("youtube.apiBaseUrl", this.youtubeApiBaseUrl);
+        props.setProperty("youtube.accessToken", this.youtubeAccessToken);
+        props.setProperty("twitch.backend", this.twitchBackend.name());
+        props.setProperty("twitch.endpoint", this.twitchEndpoint);
+        props.setProperty("kick.pusherKey", this.kickPusherKey);
+        props.setProperty("kick.pusherCluster", this.kickPusherCluster);
+        props.setProperty("kick.endpoint", this.kickEndpoint);
+        props.setProperty("kick.apiBaseUrl", this.kickApiBaseUrl);
+        props.setProperty("spam.enabled", String.valueOf(this.spamEnabled));
+        props.setProperty("spam.windowSeconds", String.valueOf(this.spamWindowSeconds));
+        props.setProperty("spam.authorMaxMessages", String.valueOf(this.spamAuthorMaxMessages));
+        props.setProperty("spam.authorWindowSeconds", String.valueOf(this.spamAuthorWindowSeconds));
+        props.setProperty("metrics.logIntervalSeconds", String.valueOf(this.metricsLogIntervalSeconds));
+        props.setProperty("journal.enabled", String.valueOf(this.journalEnabled));
+        props.setProperty("journal.segmentSizeMB", String.valueOf(this.journalSegmentSizeMB));
+        props.setProperty("journal.maxSegments", String.valueOf(this.journalMaxSegments));
+        props.setProperty("journal.retentionDays", String.valueOf(this.journalRetentionDays));
+        props.setProperty("filter.enabled", String.valueOf(this.filterEnabled));
+        props.setProperty("filter.wholeWords", String.valueOf(this.filterWholeWords));
+        props.setProperty("filter.highlightColor", this.filterHighlightColor);
+        props.setProperty("outbound.chatPrefix", this.outboundChatPrefix);
+        props.setProperty("outbound.twitchModerator", String.valueOf(this.outboundTwitchModerator));
+        props.setProperty("outbound.youtubeQuotaUnitsPerDay", String.valueOf(this.outboundYouTubeQuotaUnitsPerDay));
+        props.setProperty("outbound.maxQueued", String.valueOf(this.outboundMaxQueued));
+        props.setProperty("dev.synthetic.enabled", String.valueOf(this.syntheticEnabled));
+        props.setProperty("dev.synthetic.ratePerSecond", String.valueOf(this.syntheticRatePerSecond));
+        props.setProperty("dev.synthetic.pattern", this.syntheticPattern.name());
+        props.setProperty("dev.synthetic.platform", this.syntheticPlatform.name());
+        props.setProperty("dev.synthetic.replayFile", this.syntheticReplayFile);
+        props.setProperty("dev.synthetic.durationSeconds", String.valueOf(this.syntheticDurationSeconds));
+        props.setProperty("dev.mockYouTube.enabled", String.valueOf(this.mockYouTubeEnabled));
+        props.setProperty("dev.mockYouTube.port", String.valueOf(this.mockYouTubePort));
+        props.setProperty("dev.mockYouTube.messagesPerSecond", String.valueOf(this.mockYouTubeMessagesPerSecond));
+        props.setProperty("dev.mockYouTube.errorRate", String.valueOf(this.mockYouTubeErrorRate));
+        props.setProperty("dev.mockYouTube.chatDurationSeconds", String.valueOf(this.mockYouTubeChatDurationSeconds));
+        props.setProperty("dev.mockKick.enabled", String.valueOf(this.mockKickEnabled));
+        props.setProperty("dev.mockKick.port", String.valueOf(this.mockKickPort));
+        props.setProperty("dev.mockKick.messagesPerSecond", String.valueOf(this.mockKickMessagesPerSecond));
+        props.setProperty("dev.mockKick.reconnectSeconds", String.valueOf(this.mockKickReconnectSeconds));
+
+        for (int i = 0; i < youtubeAccounts.size(); i++) {
+            props.setProperty("youtube." + (i + 1) + ".channelId", youtubeAccounts.get(i).channelId());
+            props.setProperty("youtube." + (i + 1) + ".apiKey", youtubeAccounts.get(i).apiKey());
+            if (!youtubeAccounts.get(i).liveChatId().isBlank()) {
+                props.setProperty("youtube." + (i + 1) + ".liveChatId", youtubeAccounts.get(i).liveChatId());
+            }
+        }
+        for (int i = 0; i < twitchAccounts.size(); i++) {
+            props.setProperty("twitch." + (i + 1) + ".channelName", twitchAccounts.get(i).channelName());
+            props.setProperty("twitch." + (i + 1) + ".oauthToken", twitchAccounts.get(i).oauthToken());
+        }
+        for (int i = 0; i < kickAccounts.size(); i++) {
+            props.setProperty("kick." + (i + 1) + ".channelName", kickAccounts.get(i).channelName());
+            if (kickAccounts.get(i).chatroomId() > 0) {
+                props.setProperty("kick." + (i + 1) + ".chatroomId", String.valueOf(kickAccounts.get(i).chatroomId()));
+            }
+        }
 
-        if (!youtubeAccounts.isEmpty()) {
-            props.setProperty("youtube.1.channelId", youtubeAccounts.get(0).channelId());
-            props.setProperty("youtube.1.apiKey", youtubeAccounts.get(0).apiKey());
+        Map<ChatRules.Action, StringBuilder> terms = new EnumMap<>(ChatRules.Action.class);
+        int regexIndex = 0;
+        for (FilterRule rule : filterRules) {
+            if (rule.regex()) {
+                props.setProperty("filter.regex." + (++regexIndex), rule.action().name().toLowerCase() + " " + rule.pattern());
+            } else {
+                StringBuilder list = terms.computeIfAbsent(rule.action(), a -> new StringBuilder());
+                if (!list.isEmpty()) list.append(", ");
+                list.append(rule.pattern());
+            }
+        }
+        for (ChatRules.Action action : ChatRules.Action.values()) {
+            props.setProperty("filter." + action.name().toLowerCase(), terms.getOrDefault(action, new StringBuilder()).toString());
         }
-        if (!twitchAccounts.isEmpty()) {
-            props.setProperty("twitch.1.channelName", twitchAccounts.get(0).channelName());
-            props.setProperty("twitch.1.oauthToken", twitchAccounts.get(0).oauthToken());
+        return props;
+    }
+
+    private static int parseInt(Properties props, String key, int fallback) {
+        String value = props.getProperty(key);
+        if (value == null || value.isBlank()) return fallback;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            ChatterMod.LOGGER.warn("Invalid number for '{}' in chattermod.properties: {}", key, value);
+            return fallback;
         }
+    }
 
-        try (FileOutputStream out = new FileOutputStream(CONFIG_FILE)) {
-            props.store(out, "ChatterMod BETA Configuration");
-        } catch (IOException e) {
-            ChatterMod.LOGGER.error("Failed to save chattermod.properties", e);
+    private static double parseDouble(Properties props, String key, double fallback) {
+        String value = props.getProperty(key);
+        if (value == null || value.isBlank()) return fallback;
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            ChatterMod.LOGGER.warn("Invalid number for '{}' in chattermod.properties: {}", key, value);
+            return fallback;
         }
     }
 
-    private static void loadAccounts(Properties props, ChatterModConfig config) {
+    private static <E extends Enum<E>> E parseEnum(Properties props, String key, E fallback) {
+        String value = props.getProperty(key);
+        if (value == null || value.isBlank()) return fallback;
+        try {
+            return Enum.valueOf(fallback.getDeclaringClass(), value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            ChatterMod.LOGGER.warn("Unknown {} '{}', using {}.", key, value, fallback);
+            return fallback;
+        }
+    }
+
+    private static void loadAccounts(Properties props, Builder config) {
         config.youtubeAccounts.clear();
         config.twitchAccounts.clear();
+        config.kickAccounts.clear();
 
-        String ytApiKey = props.getProperty("youtube.1.apiKey");
-        if (ytApiKey != null && !ytApiKey.isBlank()) {
+        // Accounts are numbered from 1; a gap in the numbering ends the list.
+        // Additional YouTube channels may omit apiKey and reuse the first account's key.
+        String sharedApiKey = props.getProperty("youtube.1.apiKey", "");
+        for (int i = 1; i <= MAX_ACCOUNTS; i++) {
+            String ytChannelId = props.getProperty("youtube." + i + ".channelId");
+            String ytApiKey = props.getProperty("youtube." + i + ".apiKey");
+            if (ytChannelId == null && ytApiKey == null) break;
+            if (ytApiKey == null || ytApiKey.isBlank()) ytApiKey = sharedApiKey;
+            if (ytApiKey.isBlank()) continue;
+            String ytLiveChatId = props.getProperty("youtube." + i + ".liveChatId");
+            // Older configs had a single bare liveChatId key for the one stream they followed.
+            if (ytLiveChatId == null && i == 1) ytLiveChatId = props.getProperty("liveChatId");
             config.youtubeAccounts.add(new YouTubeAccount(
-                props.getProperty("youtube.1.channelId", ""),
-                ytApiKey
+                ytChannelId == null ? "" : ytChannelId,
+                ytApiKey,
+                ytLiveChatId == null ? "" : ytLiveChatId.trim()
             ));
         }
 
-        String twChannelName = props.getProperty("twitch.1.channelName");
-        if (twChannelName != null && !twChannelName.isBlank()) {
+        for (int i = 1; i <= MAX_ACCOUNTS; i++) {
+            String twChannelName = props.getProperty("twitch." + i + ".channelName");
+            if (twChannelName == null) break;
+            if (twChannelName.isBlank()) continue;
             config.twitchAccounts.add(new TwitchAccount(
                 twChannelName,
-                props.getProperty("twitch.1.oauthToken", "")
+                props.getProperty("twitch." + i + ".oauthToken", "")
+            ));
+        }
+
+        for (int i = 1; i <= MAX_ACCOUNTS; i++) {
+            String kickChannelName = props.getProperty("kick." + i + ".channelName");
+            if (kickChannelName == null) break;
+            if (kickChannelName.isBlank()) continue;
+            config.kickAccounts.add(new KickAccount(
+                kickChannelName.trim(),
+                parseInt(props, "kick." + i + ".chatroomId", 0)
             ));
         }
     }
+
+    /**
+     * Literal terms are comma-separated lists per action ({@code filter.block},
+     * {@code filter.mask}, {@code filter.highlight}); regex rules are numbered from 1 as
+     * {@code filter.regex.N=<action> <regex>}, and a gap in the numbering ends the list.
+     */
+    private static void loadFilterRules(Properties props, Builder config) {
+        config.filterRules.clear();
+        for (ChatRules.Action action : ChatRules.Action.values()) {
+            for (String term : props.getProperty("filter." + action.name().toLowerCase(), "").split(",")) {
+                if (!term.isBlank()) config.filterRules.add(new FilterRule(action, false, term.strip()));
+            }
+        }
+        for (int i = 1; ; i++) {
+            String value = props.getProperty("filter.regex." + i);
+            if (value == null) break;
+            String[] parts = value.strip().split("\\s+", 2);
+            ChatRules.Action action = parseAction(parts[0]);
+            if (action == null || parts.length < 2) {
+                ChatterMod.LOGGER.warn("Ignoring filter.regex.{}: expected '<block|mask|highlight> <regex>'.", i);
+                continue;
+            }
+            config.filterRules.add(new FilterRule(action, true, parts[1]));
+        }
+    }
+
+    /** The action named by {@code name}, case-insensitively, or null. */
+    public static ChatRules.Action parseAction(String name) {
+        try {
+            return ChatRules.Action.valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /** Mutable counterpart of {@link ChatterModConfig}; only ever touched by one thread at a time. */
+    public static final class Builder {
+        public boolean showPlatformLogo;
+        public boolean usePlatformColors;
+        public String youtubeColor;
+        public String twitchColor;
+        public String kickColor;
+        public int deliveryMaxMessagesPerTick;
+        public int deliveryMaxMicrosPerTick;
+        public int deliveryMaxPending;
+        public int deliveryAgingMillis;
+        public int ingestCapacity;
+        public IngestBuffer.OverloadPolicy ingestOverloadPolicy;
+        public int ingestSampleRate;
+        public int youtubePollIntervalSeconds;
+        public TwitchBackend twitchBackend;
+        public String twitchEndpoint;
+        public String kickPusherKey;
+        public String kickPusherCluster;
+        public String kickEndpoint;
+        public String kickApiBaseUrl;
+        public boolean spamEnabled;
+        public int spamWindowSeconds;
+        public int spamAuthorMaxMessages;
+        public int spamAuthorWindowSeconds;
+        public int metricsLogIntervalSeconds;
+        public boolean journalEnabled;
+        public int journalSegmentSizeMB;
+        public int journalMaxSegments;
+        public int journalRetentionDays;
+        public boolean filterEnabled;
+        public boolean filterWholeWords;
+        public String filterHighlightColor;
+        public List<FilterRule> filterRules = new ArrayList<>();
+        public String youtubeApiBaseUrl;
+        public String youtubeAccessToken;
+        public String outboundChatPrefix;
+        public boolean outboundTwitchModerator;
+        public int outboundYouTubeQuotaUnitsPerDay;
+        public int outboundMaxQueued;
+        public boolean syntheticEnabled;
+        public int syntheticRatePerSecond;
+        public SyntheticPlatform.Pattern syntheticPattern;
+        public ChatMessage.Platform syntheticPlatform;
+        public String syntheticReplayFile;
+        public int syntheticDurationSeconds;
+        public boolean mockYouTubeEnabled;
+        public int mockYouTubePort;
+        public int mockYouTubeMessagesPerSecond;
+        public double mockYouTubeErrorRate;
+        public int mockYouTubeChatDurationSeconds;
+        public boolean mockKickEnabled;
+        public int mockKickPort;
+        public int mockKickMessagesPerSecond;
+        public int mockKickReconnectSeconds;
+        public List<YouTubeAccount> youtubeAccounts = new ArrayList<>();
+        public List<TwitchAccount> twitchAccounts = new ArrayList<>();
+        public List<KickAccount> kickAccounts = new ArrayList<>();
+
+        public void setPrimaryYouTubeAccount(YouTubeAccount account) {
+            if (youtubeAccounts.isEmpty()) youtubeAccounts.add(account);
+            else youtubeAccounts.set(0, account);
+        }
+
+        public void setPrimaryTwitchAccount(TwitchAccount account) {
+            if (twitchAccounts.isEmpty()) twitchAccounts.add(account);
+            else twitchAccounts.set(0, account);
+        }
+
+        public ChatterModConfig build() {
+            return new ChatterModConfig(this);
+        }
+    }
 }
@@ -0,0 +1,125 @@
+package com.wooldrum.chattermod;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Holds the current {@link ChatterModConfig} snapshot and persists it. Readers call
+ * {@link #get()} and never lock. Changes are applied to the snapshot immediately and
+ * written shortly after on a background thread, so a burst of commands costs one write.
+ * Writes go to a temporary file that then replaces the config in one atomic move, so a
+ * crash mid-write leaves the previous file intact.
+ */
+public class ConfigStore {
+
+    private static final long WRITE_DELAY_MILLIS = 250;
+
+    private final Path file;
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofVirtual().name("ChatterMod-Config-Writer").factory());
+    private final Object writeLock = new Object();
+    private volatile ChatterModConfig current;
+    private boolean writePending;
+
+    public ConfigStore(Path file) {
+        this.file = file;
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public ChatterModConfig get() {
+        return current;
+    }
+
+    /**
+     * Reads the file into a new snapshot, creating it with defaults on first run. A write
+     * still waiting to happen is flushed first so it is not lost.
+     */
+    public synchronized ChatterModConfig load() {
+        flush();
+        Properties props = new Properties();
+        boolean exists = Files.exists(file);
+        if (exists) {
+            try (InputStream in = Files.newInputStream(file)) {
+                props.load(in);
+            } catch (IOException e) {
+                ChatterMod.LOGGER.error("Failed to load {}", file.getFileName(), e);
+            }
+        }
+        current = ChatterModConfig.fromProperties(props);
+        if (!exists) {
+            write();
+        }
+        return current;
+    }
+
+    /** Applies a change to a copy of the current snapshot, publishes it and schedules a write. */
+    public synchronized ChatterModConfig update(Consumer<ChatterModConfig.Builder> change) {
+        ChatterModConfig.Builder builder = current.toBuilder();
+        change.accept(builder);
+        current = builder.build();
+        if (!writePending) {
+            writePending = true;
+            writer.schedule(this::writeCurrent, WRITE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        return current;
+    }
+
+    /** Writes any pending change now. */
+    public synchronized void flush() {
+        if (writePending) {
+            writePending = false;
+            write();
+        }
+    }
+
+    public void close() {
+        flush();
+        writer.shutdown();
+    }
+
+    private void writeCurrent() {
+        synchronized (this) {
+            // Already flushed by load() or close().
+            if (!writePending) return;
+            writePending = false;
+        }
+        write();
+    }
+
+    /** Always writes the newest snapshot, so a slow write can never overwrite a newer one. */
+    private void write() {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        synchronized (writeLock) {
+            writeTo(temp, current);
+        }
+    }
+
+    private void writeTo(Path temp, ChatterModConfig config) {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                config.toProperties().store(out, "ChatterMod BETA Configuration");
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            ChatterMod.LOGGER.error("Failed to save {}", file.getFileName(), e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.wooldrum.chattermod;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calls back when the config file changes on disk. Editors tend to write a file in several
+ * steps, so events are debounced until the file has been quiet for a moment.
+ */
+public class ConfigWatcher {
+
+    private static final long DEBOUNCE_MILLIS = 500;
+
+    private final Path file;
+    private final Runnable onChange;
+    private WatchService watchService;
+    private Thread thread;
+
+    public ConfigWatcher(Path file, Runnable onChange) {
+        this.file = file.toAbsolutePath();
+        this.onChange = onChange;
+    }
+
+    public synchronized void start() {
+        if (thread != null) return;
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            file.getParent().register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            ChatterMod.LOGGER.warn("Cannot watch {} for changes; use /chattermod reload instead.", file.getFileName(), e);
+            return;
+        }
+        thread = Thread.ofVirtual().name("ChatterMod-Config-Watcher").start(this::run);
+    }
+
+    public synchronized void stop() {
+        if (thread == null) return;
+        thread.interrupt();
+        try {
+            watchService.close();
+        } catch (IOException ignored) {
+            // Closing is best effort.
+        }
+        thread = null;
+    }
+
+    private void run() {
+        WatchService service = watchService;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = service.take();
+                boolean changed = drain(key);
+                // Keep collecting until the writes stop.
+                while ((key = service.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= drain(key);
+                }
+                if (changed) {
+                    try {
+                        onChange.run();
+                    } catch (RuntimeException e) {
+                        ChatterMod.LOGGER.error("Reload after config change failed.", e);
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignored) {
+            // Stopped.
+        }
+    }
+
+    private boolean drain(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path name && name.equals(file.getFileName())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+}
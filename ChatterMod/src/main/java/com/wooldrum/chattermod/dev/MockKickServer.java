@@ -0,0 +1,527 @@
+package com.wooldrum.chattermod.dev;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A local stand-in for the two Kick services {@code KickPlatform} talks to: the channel API
+ * ({@code GET /api/v2/channels/<name>}) and the Pusher socket chat arrives on. Both share
+ * one port; plain requests get the channel JSON and WebSocket upgrades get a small RFC 6455
+ * server speaking Pusher, since the JDK has no WebSocket server of its own.
+ * <p>
+ * The socket treats a client the way the real one does: chat events at a fixed rate, some
+ * of them split over continuation frames that are flushed separately, a {@code pusher:ping}
+ * (and a WebSocket ping) that must be answered, and after a while a close with 4200,
+ * "reconnect now", or every other time a connection that just drops.
+ * <p>
+ * Runs inside the mod when {@code dev.mockKick.enabled} is set, or standalone:
+ * {@code MockKickServer [port] [messagesPerSecond] [reconnectSeconds]}.
+ */
+public class MockKickServer {
+
+    /**
+     * @param port             0 for any free port
+     * @param reconnectSeconds how long each socket lives before the server ends it; 0 for forever
+     */
+    public record Settings(int port, int messagesPerSecond, int reconnectSeconds) {}
+
+    private static final String WEBSOCKET_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+    private static final String CHANNELS_PATH = "/api/v2/channels/";
+    private static final int ACTIVITY_TIMEOUT_SECONDS = 30;
+    private static final long PING_INTERVAL_MILLIS = 20_000;
+    private static final long PONG_TIMEOUT_MILLIS = 30_000;
+    private static final long TICK_MILLIS = 10;
+    private static final int FRAGMENT_EVERY = 7;
+    private static final int EMOTE_EVERY = 13;
+    private static final int MODERATOR_EVERY = 50;
+    private static final int AUTHORS = 997;
+    private static final int MAX_HEADER_BYTES = 16 * 1024;
+    private static final int MAX_CLIENT_FRAME_BYTES = 64 * 1024;
+
+    private static final int OP_CONTINUATION = 0x0;
+    private static final int OP_TEXT = 0x1;
+    private static final int OP_CLOSE = 0x8;
+    private static final int OP_PING = 0x9;
+    private static final int OP_PONG = 0xA;
+
+    private final Settings settings;
+    private final Map<String, Long> chatroomsByChannel = new ConcurrentHashMap<>();
+    private final AtomicLong nextChatroomId = new AtomicLong(1000);
+    private final AtomicLong connections = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+    private ServerSocket server;
+    private ExecutorService executor;
+
+    public MockKickServer(Settings settings) {
+        this.settings = settings;
+    }
+
+    /** Starts listening on the loopback interface and returns the channel API base URL. */
+    public synchronized String start() throws IOException {
+        if (server == null) {
+            ServerSocket socket = new ServerSocket(settings.port(), 50, InetAddress.getLoopbackAddress());
+            executor = Executors.newVirtualThreadPerTaskExecutor();
+            server = socket;
+            executor.execute(() -> acceptLoop(socket));
+        }
+        return baseUrl();
+    }
+
+    /** The value for {@code kick.apiBaseUrl}. */
+    public synchronized String baseUrl() {
+        return "http://" + server.getInetAddress().getHostAddress() + ":" + server.getLocalPort() + "/api/v2";
+    }
+
+    /** The value for {@code kick.endpoint}. */
+    public synchronized String endpoint() {
+        return "ws://" + server.getInetAddress().getHostAddress() + ":" + server.getLocalPort() + "/app/mock?protocol=7";
+    }
+
+    public synchronized void stop() {
+        if (server != null) {
+            try {
+                server.close();
+            } catch (IOException ignored) {
+                // Closing anyway.
+            }
+            executor.shutdownNow();
+            server = null;
+            executor = null;
+        }
+    }
+
+    public long requests() {
+        return requests.get();
+    }
+
+    public long connections() {
+        return connections.get();
+    }
+
+    public Settings settings() {
+        return settings;
+    }
+
+    private void acceptLoop(ServerSocket socket) {
+        while (!socket.isClosed()) {
+            try {
+                Socket client = socket.accept();
+                executor.execute(() -> serve(client));
+            } catch (IOException e) {
+                return;
+            } catch (RuntimeException e) {
+                // The executor was shut down between accept and execute.
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            Map<String, String> headers = new HashMap<>();
+            String requestLine = readHead(in, headers);
+            if (requestLine == null) return;
+            requests.incrementAndGet();
+            String[] parts = requestLine.split(" ");
+            String path = parts.length > 1 ? parts[1] : "/";
+            if ("websocket".equalsIgnoreCase(headers.get("upgrade")) && headers.containsKey("sec-websocket-key")) {
+                new PusherSession(socket, new DataInputStream(in), out, connections.incrementAndGet())
+                        .run(headers.get("sec-websocket-key"));
+            } else {
+                serveChannel(out, path);
+            }
+        } catch (IOException e) {
+            // The client went away; nothing to clean up beyond the socket.
+        }
+    }
+
+    /** {@code GET /api/v2/channels/<name>}: every channel exists and keeps its chatroom ID. */
+    private void serveChannel(OutputStream out, String path) throws IOException {
+        int query = path.indexOf('?');
+        if (query >= 0) path = path.substring(0, query);
+        if (!path.startsWith(CHANNELS_PATH) || path.length() == CHANNELS_PATH.length()) {
+            writeResponse(out, 404, "{\"message\":\"Not found\"}");
+            return;
+        }
+        String slug = URLDecoder.decode(path.substring(CHANNELS_PATH.length()), StandardCharsets.UTF_8)
+                .toLowerCase(Locale.ROOT);
+        long chatroomId = chatroomsByChannel.computeIfAbsent(slug, s -> nextChatroomId.getAndIncrement());
+
+        JsonObject chatroom = new JsonObject();
+        chatroom.addProperty("id", chatroomId);
+        chatroom.addProperty("chatable_type", "App\\Models\\Channel");
+        JsonObject channel = new JsonObject();
+        channel.addProperty("id", chatroomId);
+        channel.addProperty("slug", slug);
+        channel.add("chatroom", chatroom);
+        writeResponse(out, 200, channel.toString());
+    }
+
+    private static void writeResponse(OutputStream out, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        String head = "HTTP/1.1 " + status + (status == 200 ? " OK" : " Not Found") + "\r\n"
+                + "Content-Type: application/json; charset=UTF-8\r\n"
+                + "Content-Length: " + bytes.length + "\r\n"
+                + "Connection: close\r\n\r\n";
+        out.write(head.getBytes(StandardCharsets.ISO_8859_1));
+        out.write(bytes);
+        out.flush();
+    }
+
+    /** Reads the request line and headers (names lower-cased); null if the client sent nothing. */
+    private static String readHead(InputStream in, Map<String, String> headers) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        String requestLine = null;
+        int total = 0;
+        int b;
+        while ((b = in.read()) >= 0) {
+            if (++total > MAX_HEADER_BYTES) throw new IOException("Request head too large");
+            if (b != '\n') {
+                if (b != '\r') line.write(b);
+                continue;
+            }
+            String text = line.toString(StandardCharsets.ISO_8859_1);
+            line.reset();
+            if (text.isEmpty()) return requestLine;
+            if (requestLine == null) {
+                requestLine = text;
+            } else {
+                int colon = text.indexOf(':');
+                if (colon > 0) {
+                    headers.put(text.substring(0, colon).trim().toLowerCase(Locale.ROOT), text.substring(colon + 1).trim());
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String acceptKey(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1")
+                    .digest((key + WEBSOCKET_GUID).getBytes(StandardCharsets.ISO_8859_1));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is required of every JDK", e);
+        }
+    }
+
+    /** One client socket: a reader thread for client frames, and this thread producing chat. */
+    private final class PusherSession {
+        private final Socket socket;
+        private final DataInputStream in;
+        private final OutputStream out;
+        private final long connection;
+        private final Set<Long> subscribed = ConcurrentHashMap.newKeySet();
+        private volatile boolean open = true;
+        private volatile long lastPongNanos = System.nanoTime();
+
+        PusherSession(Socket socket, DataInputStream in, OutputStream out, long connection) {
+            this.socket = socket;
+            this.in = in;
+            this.out = out;
+            this.connection = connection;
+        }
+
+        void run(String key) throws IOException {
+            String handshake = "HTTP/1.1 101 Switching Protocols\r\n"
+                    + "Upgrade: websocket\r\n"
+                    + "Connection: Upgrade\r\n"
+                    + "Sec-WebSocket-Accept: " + acceptKey(key) + "\r\n\r\n";
+            synchronized (out) {
+                out.write(handshake.getBytes(StandardCharsets.ISO_8859_1));
+                out.flush();
+            }
+
+            JsonObject established = new JsonObject();
+            established.addProperty("socket_id", connection + ".1");
+            established.addProperty("activity_timeout", ACTIVITY_TIMEOUT_SECONDS);
+            sendEvent("pusher:connection_established", null, established.toString());
+
+            Thread reader = Thread.ofVirtual().name("MockKick-Reader-" + connection).start(this::readLoop);
+            try {
+                produce();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                open = false;
+                reader.interrupt();
+            }
+        }
+
+        private void produce() throws IOException, InterruptedException {
+            long startedAt = System.nanoTime();
+            long lastPingAt = startedAt;
+            long pingSentAt = 0;
+            long seq = 0;
+            while (open) {
+                long now = System.nanoTime();
+                long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(now - startedAt);
+
+                if (settings.reconnectSeconds() > 0 && elapsedMillis >= settings.reconnectSeconds() * 1000L) {
+                    if (connection % 2 == 1) {
+                        close(4200, "Reconnect requested");
+                    } else {
+                        // No close frame at all, as when a network path dies.
+                        socket.close();
+                    }
+                    return;
+                }
+                if (pingSentAt != 0 && lastPongNanos - pingSentAt < 0
+                        && TimeUnit.NANOSECONDS.toMillis(now - pingSentAt) > PONG_TIMEOUT_MILLIS) {
+                    close(4201, "Pong reply not received");
+                    return;
+                }
+                if (TimeUnit.NANOSECONDS.toMillis(now - lastPingAt) >= PING_INTERVAL_MILLIS) {
+                    lastPingAt = now;
+                    pingSentAt = now;
+                    sendEvent("pusher:ping", null, "{}");
+                    writeFrame(OP_PING, true, new byte[] {'m', 'k'}, 0, 2);
+                }
+
+                if (!subscribed.isEmpty()) {
+                    long due = elapsedMillis * settings.messagesPerSecond() / 1000;
+                    for (; seq < due && open; seq++) {
+                        for (long chatroomId : subscribed) {
+                            sendChat(chatroomId, seq);
+                        }
+                    }
+                } else {
+                    // Nothing is produced for a chatroom until it is subscribed, as on Pusher.
+                    seq = elapsedMillis * settings.messagesPerSecond() / 1000;
+                }
+                Thread.sleep(TICK_MILLIS);
+            }
+        }
+
+        private void readLoop() {
+            ByteArrayOutputStream message = new ByteArrayOutputStream();
+            try {
+                while (open) {
+                    int b0 = in.readUnsignedByte();
+                    int b1 = in.readUnsignedByte();
+                    boolean fin = (b0 & 0x80) != 0;
+                    int opcode = b0 & 0x0F;
+                    long length = b1 & 0x7F;
+                    if (length == 126) length = in.readUnsignedShort();
+                    else if (length == 127) length = in.readLong();
+                    if (length < 0 || length > MAX_CLIENT_FRAME_BYTES) {
+                        close(1009, "Frame too large");
+                        return;
+                    }
+                    byte[] mask = new byte[4];
+                    if ((b1 & 0x80) != 0) in.readFully(mask);
+                    byte[] payload = new byte[(int) length];
+                    in.readFully(payload);
+                    for (int i = 0; i < payload.length; i++) {
+                        payload[i] ^= mask[i & 3];
+                    }
+
+                    switch (opcode) {
+                        case OP_TEXT, OP_CONTINUATION -> {
+                            message.write(payload);
+                            if (message.size() > MAX_CLIENT_FRAME_BYTES) {
+                                close(1009, "Message too large");
+                                return;
+                            }
+                            if (fin) {
+                                onClientEvent(message.toString(StandardCharsets.UTF_8));
+                                message.reset();
+                            }
+                        }
+                        case OP_PING -> writeFrame(OP_PONG, true, payload, 0, payload.length);
+                        case OP_PONG -> lastPongNanos = System.nanoTime();
+                        case OP_CLOSE -> {
+                            if (open) writeFrame(OP_CLOSE, true, payload, 0, payload.length);
+                            open = false;
+                            return;
+                        }
+                        default -> {
+                            close(1002, "Unknown opcode");
+                            return;
+                        }
+                    }
+                }
+            } catch (EOFException e) {
+                // The client hung up.
+            } catch (IOException | RuntimeException e) {
+                // Socket closed under us, or the client sent something unreadable.
+            } finally {
+                open = false;
+            }
+        }
+
+        private void onClientEvent(String text) throws IOException {
+            JsonObject root = JsonParser.parseString(text).getAsJsonObject();
+            String event = root.has("event") ? root.get("event").getAsString() : "";
+            switch (event) {
+                case "pusher:ping" -> sendEvent("pusher:pong", null, "{}");
+                case "pusher:pong" -> lastPongNanos = System.nanoTime();
+                case "pusher:subscribe" -> {
+                    JsonObject data = root.getAsJsonObject("data");
+                    String channel = data == null || !data.has("channel") ? "" : data.get("channel").getAsString();
+                    long chatroomId = chatroomOf(channel);
+                    if (chatroomId < 0) {
+                        sendEvent("pusher:error", null, "{\"code\":4009,\"message\":\"Unknown channel\"}");
+                        return;
+                    }
+                    subscribed.add(chatroomId);
+                    sendEvent("pusher_internal:subscription_succeeded", channel, "{}");
+                }
+                case "pusher:unsubscribe" -> {
+                    JsonObject data = root.getAsJsonObject("data");
+                    if (data != null && data.has("channel")) subscribed.remove(chatroomOf(data.get("channel").getAsString()));
+                }
+                default -> { }
+            }
+        }
+
+        /** {@code chatrooms.<id>.v2}, or -1. */
+        private static long chatroomOf(String channel) {
+            if (!channel.startsWith("chatrooms.") || !channel.endsWith(".v2")) return -1;
+            try {
+                return Long.parseLong(channel.substring("chatrooms.".length(), channel.length() - ".v2".length()));
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+
+        private void sendChat(long chatroomId, long seq) throws IOException {
+            long author = seq * 31 % AUTHORS;
+            JsonObject identity = new JsonObject();
+            identity.addProperty("color", "#75FD46");
+            JsonArray badges = new JsonArray();
+            if (seq % MODERATOR_EVERY == 0) {
+                JsonObject badge = new JsonObject();
+                badge.addProperty("type", "moderator");
+                badge.addProperty("text", "Moderator");
+                badges.add(badge);
+            }
+            identity.add("badges", badges);
+            JsonObject sender = new JsonObject();
+            sender.addProperty("id", author);
+            sender.addProperty("username", "viewer" + author);
+            sender.addProperty("slug", "viewer" + author);
+            sender.add("identity", identity);
+
+            JsonObject message = new JsonObject();
+            message.addProperty("id", connection + "-" + chatroomId + "-" + seq);
+            message.addProperty("chatroom_id", chatroomId);
+            String text = SampleChat.text(seq);
+            message.addProperty("content", seq % EMOTE_EVERY == 0 ? text + " [emote:37226:KEKW]" : text);
+            message.addProperty("type", "message");
+            message.addProperty("created_at", Instant.now().toString());
+            message.add("sender", sender);
+
+            String frame = envelope("App\\Events\\ChatMessageEvent", "chatrooms." + chatroomId + ".v2", message.toString());
+            if (seq % FRAGMENT_EVERY == FRAGMENT_EVERY - 1) {
+                sendFragmented(frame.getBytes(StandardCharsets.UTF_8));
+            } else {
+                byte[] bytes = frame.getBytes(StandardCharsets.UTF_8);
+                writeFrame(OP_TEXT, true, bytes, 0, bytes.length);
+            }
+        }
+
+        /**
+         * Splits one message over three frames, cut at arbitrary bytes (possibly mid character),
+         * and flushes each on its own so the client sees them arrive separately.
+         */
+        private void sendFragmented(byte[] bytes) throws IOException {
+            int first = bytes.length / 3;
+            int second = 2 * bytes.length / 3;
+            synchronized (out) {
+                writeFrame(OP_TEXT, false, bytes, 0, first);
+                writeFrame(OP_CONTINUATION, false, bytes, first, second - first);
+                writeFrame(OP_CONTINUATION, true, bytes, second, bytes.length - second);
+            }
+        }
+
+        private void sendEvent(String event, String channel, String data) throws IOException {
+            byte[] bytes = envelope(event, channel, data).getBytes(StandardCharsets.UTF_8);
+            writeFrame(OP_TEXT, true, bytes, 0, bytes.length);
+        }
+
+        /** Pusher sends {@code data} as a JSON string holding JSON, hence the second encoding. */
+        private static String envelope(String event, String channel, String data) {
+            JsonObject root = new JsonObject();
+            root.addProperty("event", event);
+            if (channel != null) root.addProperty("channel", channel);
+            root.addProperty("data", data);
+            return root.toString();
+        }
+
+        private void close(int code, String reason) throws IOException {
+            byte[] text = reason.getBytes(StandardCharsets.UTF_8);
+            byte[] payload = new byte[2 + text.length];
+            payload[0] = (byte) (code >>> 8);
+            payload[1] = (byte) code;
+            System.arraycopy(text, 0, payload, 2, text.length);
+            writeFrame(OP_CLOSE, true, payload, 0, payload.length);
+            open = false;
+        }
+
+        /** Server frames are never masked. */
+        private void writeFrame(int opcode, boolean fin, byte[] payload, int offset, int length) throws IOException {
+            synchronized (out) {
+                out.write((fin ? 0x80 : 0) | opcode);
+                if (length < 126) {
+                    out.write(length);
+                } else if (length < 65_536) {
+                    out.write(126);
+                    out.write(length >>> 8);
+                    out.write(length & 0xFF);
+                } else {
+                    out.write(127);
+                    for (int shift = 56; shift >= 0; shift -= 8) {
+                        out.write((int) ((long) length >>> shift) & 0xFF);
+                    }
+                }
+                out.write(payload, offset, length);
+                out.flush();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Settings settings = new Settings(
+                args.length > 0 ? Integer.parseInt(args[0]) : 8090,
+                args.length > 1 ? Integer.parseInt(args[1]) : 50,
+                args.length > 2 ? Integer.parseInt(args[2]) : 120);
+        MockKickServer server = new MockKickServer(settings);
+        System.out.println("Mock Kick channel API listening at " + server.start());
+        System.out.println("Set kick.apiBaseUrl to that URL and kick.endpoint to " + server.endpoint());
+        System.out.println("Any channel name will do.");
+        // Every thread the server runs on is virtual, so keep the JVM alive here.
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,375 @@
+package com.wooldrum.chattermod.dev;
+
+import com.google.gson.stream.JsonWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A local stand-in for the three YouTube Data API endpoints {@code YouTubePlatform} calls:
+ * {@code search}, {@code videos} and {@code liveChat/messages} (list and insert). Every
+ * channel is live on a made-up stream whose chat produces messages at a fixed rate, paged
+ * through {@code nextPageToken} exactly like the real API. It can also fail a share of chat
+ * polls, end every chat after a while and enforce a quota, so backoff and resolution paths
+ * can be soak-tested without network access.
+ * <p>
+ * Runs inside the mod when {@code dev.mockYouTube.enabled} is set, or standalone:
+ * {@code MockYouTubeServer [port] [messagesPerSecond] [errorRate] [chatDurationSeconds]}.
+ */
+public class MockYouTubeServer {
+
+    /**
+     * @param port                0 for any free port
+     * @param errorRate           share of chat polls, 0 to 1, answered with a retryable error
+     * @param chatDurationSeconds how long each chat stays live; 0 for forever
+     * @param quotaLimit          quota units before every call is refused; 0 for unlimited
+     */
+    public record Settings(int port, int messagesPerSecond, double errorRate, int chatDurationSeconds, int quotaLimit) {}
+
+    private static final int AUTHORS = 997;
+    private static final int SUPER_CHAT_EVERY = 250;
+    private static final int MAX_RESULTS = 2000;
+    private static final int POLLING_INTERVAL_MILLIS = 1000;
+    private static final int BACKLOG = 20;
+
+    private final Settings settings;
+    private final Map<String, Chat> chatsByChannel = new ConcurrentHashMap<>();
+    private final Map<String, Chat> chatsByVideo = new ConcurrentHashMap<>();
+    private final Map<String, Chat> chatsByLiveChat = new ConcurrentHashMap<>();
+    private final AtomicLong quotaUsed = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+    private HttpServer server;
+
+    public MockYouTubeServer(Settings settings) {
+        this.settings = settings;
+    }
+
+    /** Starts listening on the loopback interface and returns the API base URL to point clients at. */
+    public synchronized String start() throws IOException {
+        if (server == null) {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), settings.port()), 0);
+            server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            server.createContext("/youtube/v3/search", exchange -> handle(exchange, this::search));
+            server.createContext("/youtube/v3/videos", exchange -> handle(exchange, this::videos));
+            server.createContext("/youtube/v3/liveChat/messages", exchange ->
+                    handle(exchange, "POST".equals(exchange.getRequestMethod()) ? this::insert : this::messages));
+            server.start();
+        }
+        return baseUrl();
+    }
+
+    public synchronized String baseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/youtube/v3";
+    }
+
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    public long requests() {
+        return requests.get();
+    }
+
+    public Settings settings() {
+        return settings;
+    }
+
+    /** A response: status, optional error reason, and a body writer for 200s. */
+    private record Reply(int status, String reason, BodyWriter body) {
+        static Reply ok(BodyWriter body) {
+            return new Reply(200, null, body);
+        }
+
+        static Reply error(int status, String reason) {
+            return new Reply(status, reason, null);
+        }
+    }
+
+    @FunctionalInterface
+    private interface BodyWriter {
+        void write(JsonWriter json) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Endpoint {
+        Reply serve(Map<String, String> query);
+    }
+
+    private void handle(HttpExchange exchange, Endpoint endpoint) throws IOException {
+        requests.incrementAndGet();
+        Reply reply;
+        try {
+            reply = endpoint.serve(parseQuery(exchange.getRequestURI().getRawQuery()));
+        } catch (RuntimeException e) {
+            reply = Reply.error(500, "backendError");
+        }
+
+        boolean gzip = exchange.getRequestHeaders().getOrDefault("Accept-Encoding", List.of())
+                .stream().anyMatch(v -> v.contains("gzip"));
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        if (gzip) exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        if (reply.status() == 429 || reply.status() == 503) exchange.getResponseHeaders().set("Retry-After", "2");
+        exchange.sendResponseHeaders(reply.status(), 0);
+
+        try (OutputStream raw = exchange.getResponseBody();
+             OutputStream out = gzip ? new GZIPOutputStream(raw) : raw;
+             Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+             JsonWriter json = new JsonWriter(writer)) {
+            if (reply.body() != null) {
+                reply.body().write(json);
+            } else {
+                writeError(json, reply.status(), reply.reason());
+            }
+        }
+    }
+
+    private Reply search(Map<String, String> query) {
+        Reply refused = charge(100);
+        if (refused != null) return refused;
+        String channelId = query.getOrDefault("channelId", "");
+        if (channelId.isEmpty()) return Reply.error(400, "missingRequiredParameter");
+        Chat chat = currentChat(channelId);
+        return Reply.ok(json -> {
+            json.beginObject().name("kind").value("youtube#searchListResponse").name("items").beginArray()
+                    .beginObject()
+                        .name("id").beginObject().name("kind").value("youtube#video").name("videoId").value(chat.videoId).endObject()
+                        .name("snippet").beginObject().name("channelId").value(channelId)
+                        .name("liveBroadcastContent").value("live").endObject()
+                    .endObject()
+                    .endArray().endObject();
+        });
+    }
+
+    private Reply videos(Map<String, String> query) {
+        Reply refused = charge(1);
+        if (refused != null) return refused;
+        String videoId = query.getOrDefault("id", "");
+        Chat chat = chatsByVideo.get(videoId);
+        return Reply.ok(json -> {
+            json.beginObject().name("kind").value("youtube#videoListResponse").name("items").beginArray();
+            if (chat != null) {
+                json.beginObject().name("id").value(videoId).name("liveStreamingDetails").beginObject()
+                        .name("actualStartTime").value(Instant.ofEpochMilli(chat.startedAtMillis).toString());
+                if (chat.ended()) {
+                    json.name("actualEndTime").value(Instant.ofEpochMilli(chat.endsAtMillis()).toString());
+                } else {
+                    json.name("activeLiveChatId").value(chat.liveChatId);
+                }
+                json.endObject().endObject();
+            }
+            json.endArray().endObject();
+        });
+    }
+
+    private Reply messages(Map<String, String> query) {
+        Reply refused = charge(5);
+        if (refused != null) return refused;
+        String liveChatId = query.getOrDefault("liveChatId", "");
+        Chat chat = chatsByLiveChat.get(liveChatId);
+        if (chat == null) return Reply.error(404, "liveChatNotFound");
+        if (chat.ended()) return Reply.error(403, "liveChatEnded");
+        if (settings.errorRate() > 0 && ThreadLocalRandom.current().nextDouble() < settings.errorRate()) {
+            return switch (ThreadLocalRandom.current().nextInt(3)) {
+                case 0 -> Reply.error(500, "backendError");
+                case 1 -> Reply.error(503, "backendError");
+                default -> Reply.error(429, "rateLimitExceeded");
+            };
+        }
+
+        long produced = chat.produced();
+        long from;
+        String token = query.getOrDefault("pageToken", "");
+        if (token.isEmpty()) {
+            from = Math.max(0, produced - BACKLOG);
+        } else {
+            try {
+                from = Long.parseLong(token.substring(1));
+            } catch (RuntimeException e) {
+                return Reply.error(400, "pageTokenInvalid");
+            }
+            if (!token.startsWith("p") || from < 0 || from > produced) return Reply.error(400, "pageTokenInvalid");
+        }
+        int maxResults = Math.clamp(parseInt(query.get("maxResults"), 500), 1, MAX_RESULTS);
+        long to = Math.min(produced, from + maxResults);
+        // A full page means more is waiting; ask to be polled again right away.
+        int interval = to < produced ? 0 : POLLING_INTERVAL_MILLIS;
+
+        return Reply.ok(json -> {
+            json.beginObject()
+                    .name("kind").value("youtube#liveChatMessageListResponse")
+                    .name("nextPageToken").value("p" + to)
+                    .name("pollingIntervalMillis").value(interval)
+                    .name("pageInfo").beginObject().name("totalResults").value(to - from).name("resultsPerPage").value(maxResults).endObject()
+                    .name("items").beginArray();
+            for (long seq = from; seq < to; seq++) {
+                writeMessage(json, chat, seq);
+            }
+            json.endArray().endObject();
+        });
+    }
+
+    /** {@code liveChatMessages.insert}: accepted and charged, but not echoed into the chat. */
+    private Reply insert(Map<String, String> query) {
+        Reply refused = charge(50);
+        if (refused != null) return refused;
+        if (!query.getOrDefault("part", "").contains("snippet")) return Reply.error(400, "missingRequiredParameter");
+        long id = requests.get();
+        return Reply.ok(json -> json.beginObject()
+                .name("kind").value("youtube#liveChatMessage")
+                .name("id").value("inserted." + id)
+                .endObject());
+    }
+
+    /** The channel's live stream; once one ends the next search finds a new one, as after a real restart. */
+    private synchronized Chat currentChat(String channelId) {
+        Chat chat = chatsByChannel.get(channelId);
+        if (chat == null || chat.ended()) {
+            chat = new Chat(channelId, chat == null ? 1 : chat.generation + 1);
+            chatsByChannel.put(channelId, chat);
+            chatsByVideo.put(chat.videoId, chat);
+            chatsByLiveChat.put(chat.liveChatId, chat);
+        }
+        return chat;
+    }
+
+    private static void writeMessage(JsonWriter json, Chat chat, long seq) throws IOException {
+        String text = SampleChat.text(seq);
+        String author = "viewer" + (seq * 31 % AUTHORS);
+        // A Super Chat now and then, so priority delivery can be watched under load.
+        boolean superChat = seq % SUPER_CHAT_EVERY == SUPER_CHAT_EVERY - 1;
+        json.beginObject()
+                .name("kind").value("youtube#liveChatMessage")
+                .name("id").value(chat.liveChatId + "." + seq)
+                .name("snippet").beginObject()
+                    .name("type").value(superChat ? "superChatEvent" : "textMessageEvent")
+                    .name("liveChatId").value(chat.liveChatId)
+                    .name("authorChannelId").value("UCviewer" + (seq * 31 % AUTHORS))
+                    .name("publishedAt").value(Instant.ofEpochMilli(chat.publishedAtMillis(seq)).toString())
+                    .name("hasDisplayContent").value(true)
+                    .name("displayMessage").value(text);
+        if (superChat) {
+            json.name("superChatDetails").beginObject()
+                    .name("amountMicros").value("5000000")
+                    .name("currency").value("USD")
+                    .name("amountDisplayString").value("$5.00")
+                    .name("userComment").value(text)
+                    .name("tier").value(2)
+                    .endObject();
+        } else {
+            json.name("textMessageDetails").beginObject().name("messageText").value(text).endObject();
+        }
+        json.endObject()
+                .name("authorDetails").beginObject()
+                    .name("channelId").value("UCviewer" + (seq * 31 % AUTHORS))
+                    .name("displayName").value(author)
+                    .name("isVerified").value(false)
+                    .name("isChatOwner").value(false)
+                    .name("isChatSponsor").value(seq % 10 == 0)
+                    .name("isChatModerator").value(seq % 50 == 0)
+                .endObject()
+                .endObject();
+    }
+
+    /** Null if the call fits in the quota, otherwise the refusal YouTube sends. */
+    private Reply charge(int units) {
+        long used = quotaUsed.addAndGet(units);
+        if (settings.quotaLimit() > 0 && used > settings.quotaLimit()) return Reply.error(403, "quotaExceeded");
+        return null;
+    }
+
+    private static void writeError(JsonWriter json, int status, String reason) throws IOException {
+        json.beginObject().name("error").beginObject()
+                .name("code").value(status)
+                .name("message").value(reason)
+                .name("errors").beginArray().beginObject()
+                    .name("domain").value("youtube.liveChat")
+                    .name("reason").value(reason)
+                    .name("message").value(reason)
+                .endObject().endArray()
+                .endObject().endObject();
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) return query;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            query.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private static int parseInt(String value, int fallback) {
+        if (value == null) return fallback;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    /** One channel's stream; messages exist implicitly, one every {@code 1/rate} seconds since it started. */
+    private final class Chat {
+        final int generation;
+        final String videoId;
+        final String liveChatId;
+        final long startedAtMillis = System.currentTimeMillis();
+
+        Chat(String channelId, int generation) {
+            this.generation = generation;
+            this.videoId = "mockvid-" + channelId + "-" + generation;
+            this.liveChatId = "mockchat-" + channelId + "-" + generation;
+        }
+
+        long produced() {
+            long elapsed = Math.min(System.currentTimeMillis(), endsAtMillis()) - startedAtMillis;
+            return elapsed * settings.messagesPerSecond() / 1000;
+        }
+
+        long publishedAtMillis(long seq) {
+            return startedAtMillis + (settings.messagesPerSecond() == 0 ? 0 : seq * 1000 / settings.messagesPerSecond());
+        }
+
+        long endsAtMillis() {
+            return settings.chatDurationSeconds() > 0 ? startedAtMillis + settings.chatDurationSeconds() * 1000L : Long.MAX_VALUE;
+        }
+
+        boolean ended() {
+            return System.currentTimeMillis() >= endsAtMillis();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Settings settings = new Settings(
+                args.length > 0 ? Integer.parseInt(args[0]) : 8089,
+                args.length > 1 ? Integer.parseInt(args[1]) : 50,
+                args.length > 2 ? Double.parseDouble(args[2]) : 0,
+                args.length > 3 ? Integer.parseInt(args[3]) : 0,
+                0);
+        MockYouTubeServer server = new MockYouTubeServer(settings);
+        System.out.println("Mock YouTube API listening at " + server.start());
+        System.out.println("Set youtube.apiBaseUrl to that URL; any channel ID and API key will do.");
+    }
+}
@@ -0,0 +1,26 @@
+package com.wooldrum.chattermod.dev;
+
+/**
+ * Made-up chat lines for the dev platforms. Text is a pure function of a sequence number,
+ * so the synthetic platform and the mock servers produce the same traffic.
+ */
+final class SampleChat {
+
+    private static final String[] WORDS = {
+            "gg", "lol", "nice", "what", "was", "that", "clutch", "pog", "no", "way", "hello", "from",
+            "chat", "first", "time", "here", "love", "the", "stream", "build", "diamonds", "creeper", "run"
+    };
+
+    /** Two to nine words of chat; every 20th message is a "1" so the spam filter sees bursts. */
+    static String text(long seq) {
+        if (seq % 20 == 0) return "1";
+        StringBuilder sb = new StringBuilder();
+        long h = seq * 0x9E3779B97F4A7C15L;
+        int words = 2 + (int) ((h >>> 60) & 7);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(WORDS[(int) Long.remainderUnsigned(h >>> (i * 5), WORDS.length)]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,175 @@
+package com.wooldrum.chattermod.dev;
+
+import com.wooldrum.chattermod.ChatterMod;
+import com.wooldrum.chattermod.platform.ChatMessage;
+import com.wooldrum.chattermod.platform.ChatPlatform;
+import com.wooldrum.chattermod.platform.PlatformException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Feeds the pipeline generated or recorded chat at a fixed average rate, for soak tests
+ * without any network. Arrivals are scheduled on a nanosecond timeline and released in
+ * batches whenever the generator thread wakes, so rates well past 10k msg/s hold even
+ * though the thread only sleeps in millisecond steps. Message text and authors come from
+ * pools built at connect time, so the generator adds almost no garbage of its own.
+ */
+public class SyntheticPlatform implements ChatPlatform {
+
+    /** How arrivals are spread around the average rate. */
+    public enum Pattern {
+        /** Evenly spaced. */
+        STEADY,
+        /** Independent random arrivals. */
+        POISSON,
+        /** Random arrivals where 80% of the traffic lands in short bursts. */
+        BURSTY
+    }
+
+    public record Settings(int ratePerSecond, Pattern pattern, ChatMessage.Platform platform,
+                           String replayFile, int durationSeconds) {}
+
+    private static final String CHANNEL = "synthetic";
+    private static final int AUTHORS = 2000;
+    private static final int GENERATED_TEXTS = 512;
+    private static final long BURST_CYCLE_NANOS = TimeUnit.SECONDS.toNanos(1);
+    // A burst takes a fifth of each cycle and carries four fifths of the traffic.
+    private static final long BURST_NANOS = BURST_CYCLE_NANOS / 5;
+    private static final double BURST_RATE_FACTOR = 4.0;
+    private static final double QUIET_RATE_FACTOR = 0.25;
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Settings settings;
+    private Consumer<ChatMessage> messageConsumer;
+    private volatile boolean running;
+    private String[] authors;
+    private String[] texts;
+    // Recorded lines keep their own author; generated text gets a random one.
+    private boolean recorded;
+
+    public SyntheticPlatform(Settings settings) {
+        this.settings = settings;
+    }
+
+    @Override
+    public String name() {
+        return "Synthetic";
+    }
+
+    @Override
+    public void onMessage(Consumer<ChatMessage> consumer) {
+        this.messageConsumer = consumer;
+    }
+
+    @Override
+    public void connect() throws IOException {
+        if (settings.ratePerSecond() <= 0) {
+            throw new PlatformException(PlatformException.Kind.FATAL, "dev.synthetic.ratePerSecond must be above 0.");
+        }
+        recorded = !settings.replayFile().isBlank();
+        if (recorded) {
+            loadRecording(Path.of(settings.replayFile()));
+        } else {
+            generatePools();
+        }
+        running = true;
+        ChatterMod.LOGGER.info("[Synthetic] Generating {} msg/s ({}) as {} chat.",
+                settings.ratePerSecond(), settings.pattern(), settings.platform());
+    }
+
+    @Override
+    public void awaitDisconnect() throws InterruptedException {
+        SplittableRandom random = new SplittableRandom();
+        long start = System.nanoTime();
+        long end = settings.durationSeconds() > 0 ? start + TimeUnit.SECONDS.toNanos(settings.durationSeconds()) : Long.MAX_VALUE;
+        double meanGapNanos = 1e9 / settings.ratePerSecond();
+        long nextArrival = start;
+        long sent = 0;
+
+        while (running) {
+            long now = System.nanoTime();
+            if (now >= end) break;
+            while (nextArrival <= now) {
+                int i = (int) (sent % texts.length);
+                String author = recorded ? authors[i] : authors[random.nextInt(authors.length)];
+                messageConsumer.accept(new ChatMessage(author, texts[i], settings.platform(), CHANNEL, now));
+                sent++;
+                nextArrival += gapNanos(random, meanGapNanos, nextArrival - start);
+            }
+            LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, nextArrival - now));
+            if (Thread.interrupted()) throw new InterruptedException();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        ChatterMod.LOGGER.info("[Synthetic] Sent {} messages in {} s ({} msg/s).",
+                sent, String.format("%.1f", seconds), Math.round(sent / Math.max(seconds, 1e-9)));
+        // A finished run idles instead of ending the session, so the supervisor does not restart it.
+        while (running) {
+            Thread.sleep(1000);
+        }
+    }
+
+    private long gapNanos(SplittableRandom random, double meanGapNanos, long elapsed) {
+        return switch (settings.pattern()) {
+            case STEADY -> Math.max(1, Math.round(meanGapNanos));
+            case POISSON -> exponential(random, meanGapNanos);
+            case BURSTY -> {
+                boolean inBurst = elapsed % BURST_CYCLE_NANOS < BURST_NANOS;
+                yield exponential(random, meanGapNanos / (inBurst ? BURST_RATE_FACTOR : QUIET_RATE_FACTOR));
+            }
+        };
+    }
+
+    private static long exponential(SplittableRandom random, double meanNanos) {
+        return Math.max(1, Math.round(-Math.log(1.0 - random.nextDouble()) * meanNanos));
+    }
+
+    @Override
+    public void disconnect() {
+        running = false;
+    }
+
+    /** The same word salad the mock YouTube server sends, including its bursts of "1". */
+    private void generatePools() {
+        authors = new String[AUTHORS];
+        for (int i = 0; i < AUTHORS; i++) {
+            authors[i] = "viewer" + i;
+        }
+        texts = new String[GENERATED_TEXTS];
+        for (int i = 0; i < GENERATED_TEXTS; i++) {
+            texts[i] = SampleChat.text(i);
+        }
+    }
+
+    /**
+     * One message per line, either {@code author<TAB>message} or just the message. Replays
+     * loop over the file in order at the configured rate.
+     */
+    private void loadRecording(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            throw new PlatformException(PlatformException.Kind.FATAL, "dev.synthetic.replayFile " + file + " does not exist.");
+        }
+        List<String> recordedAuthors = new ArrayList<>();
+        List<String> recordedTexts = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) continue;
+            int tab = line.indexOf('\t');
+            recordedAuthors.add(tab > 0 ? line.substring(0, tab) : "viewer" + (recordedAuthors.size() % AUTHORS));
+            recordedTexts.add(tab > 0 ? line.substring(tab + 1) : line);
+        }
+        if (recordedTexts.isEmpty()) {
+            throw new PlatformException(PlatformException.Kind.FATAL, "dev.synthetic.replayFile " + file + " has no messages.");
+        }
+        authors = recordedAuthors.toArray(String[]::new);
+        texts = recordedTexts.toArray(String[]::new);
+    }
+}
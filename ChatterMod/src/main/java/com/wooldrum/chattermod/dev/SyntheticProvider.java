@@ -0,0 +1,27 @@
+package com.wooldrum.chattermod.dev;
+
+import com.wooldrum.chattermod.ChatterModConfig;
+import com.wooldrum.chattermod.platform.ChatPlatform;
+import com.wooldrum.chattermod.platform.ChatPlatformProvider;
+
+import java.net.http.HttpClient;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/** The soak-test {@link SyntheticPlatform}, when {@code dev.synthetic.enabled} is set. */
+public class SyntheticProvider implements ChatPlatformProvider {
+
+    @Override
+    public String id() {
+        return "synthetic";
+    }
+
+    @Override
+    public Map<List<Object>, Supplier<ChatPlatform>> platforms(ChatterModConfig config, HttpClient http) {
+        if (!config.syntheticEnabled) return Map.of();
+        SyntheticPlatform.Settings settings = new SyntheticPlatform.Settings(config.syntheticRatePerSecond,
+                config.syntheticPattern, config.syntheticPlatform, config.syntheticReplayFile, config.syntheticDurationSeconds);
+        return Map.of(List.of(id(), settings), () -> new SyntheticPlatform(settings));
+    }
+}
@@ -0,0 +1,214 @@
+package com.wooldrum.chattermod.journal;
+
+import com.wooldrum.chattermod.ChatterMod;
+import com.wooldrum.chattermod.platform.ChatMessage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Append-only on-disk history of every chat message, kept in rotating memory-mapped
+ * segments so nothing beyond the current page of results lives on the heap. Appends come
+ * from the message processor thread; {@link #search} and {@link #since} may run on any
+ * thread at the same time.
+ * <p>
+ * A segment is rotated when it is full. The oldest segments are deleted once there are
+ * more than the configured number or they have aged past the retention period; age is
+ * checked on every rotation and otherwise at most once a minute while messages arrive, so
+ * a slow chat that rarely fills a segment still has its old days dropped.
+ */
+public class ChatJournal {
+
+    private static final int MIN_SEGMENT_BYTES = 256 * 1024;
+    private static final long RETENTION_CHECK_MILLIS = 60_000;
+
+    public record Entry(long epochMillis, ChatMessage message) {}
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final long retentionMillis;
+
+    // Oldest first. Replaced on rotation so readers can iterate a stable snapshot.
+    private volatile List<JournalSegment> segments;
+    private JournalSegment active;
+    private final List<JournalSegment> undeleted = new ArrayList<>();
+    private boolean stopped;
+    private long lastRetentionCheck;
+
+    private ChatJournal(Path dir, List<JournalSegment> segments, int segmentSizeMB, int maxSegments, int retentionDays) {
+        this.dir = dir;
+        this.segmentBytes = Math.max(MIN_SEGMENT_BYTES, Math.max(1, segmentSizeMB) << 20);
+        this.maxSegments = Math.max(1, maxSegments);
+        this.retentionMillis = retentionDays <= 0 ? Long.MAX_VALUE : retentionDays * 86_400_000L;
+        this.segments = segments;
+        this.active = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+    }
+
+    /** Opens the journal in {@code dir}, recovering existing segments and resuming the newest. */
+    public static ChatJournal open(Path dir, int segmentSizeMB, int maxSegments, int retentionDays) throws IOException {
+        Files.createDirectories(dir);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(dir)) {
+            files = listing
+                    .filter(p -> p.getFileName().toString().endsWith(JournalSegment.DATA_SUFFIX))
+                    .filter(p -> JournalSegment.timestampOf(p) >= 0)
+                    .sorted(Comparator.comparingLong(JournalSegment::timestampOf))
+                    .toList();
+        }
+
+        List<JournalSegment> segments = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            try {
+                segments.add(JournalSegment.open(files.get(i), i == files.size() - 1));
+            } catch (IOException e) {
+                ChatterMod.LOGGER.warn("Skipping unreadable chat journal segment {}: {}", files.get(i).getFileName(), e.getMessage());
+            }
+        }
+
+        ChatJournal journal = new ChatJournal(dir, List.copyOf(segments), segmentSizeMB, maxSegments, retentionDays);
+        synchronized (journal) {
+            journal.enforceRetention();
+        }
+        return journal;
+    }
+
+    /** Called from the message processor thread. A disk error disables the journal until reload. */
+    public synchronized void append(ChatMessage msg) {
+        if (stopped) return;
+        try {
+            long now = System.currentTimeMillis();
+            if (active != null) {
+                // The time index needs non-decreasing timestamps; ride out clock steps backwards.
+                now = Math.max(now, active.lastTimestamp());
+                if (active.append(now, msg)) {
+                    if (now - lastRetentionCheck >= RETENTION_CHECK_MILLIS) enforceRetention();
+                    return;
+                }
+            }
+            rotate(now);
+            if (!active.append(now, msg)) {
+                ChatterMod.LOGGER.warn("Chat message too large for a journal segment; not recorded.");
+            }
+        } catch (IOException e) {
+            stopped = true;
+            ChatterMod.LOGGER.error("Chat journal write failed; journaling is off until the next reload.", e);
+        }
+    }
+
+    private void rotate(long now) throws IOException {
+        if (active != null) {
+            active.seal();
+        }
+        // Segment names are their first timestamp; keep them unique and increasing.
+        long first = active == null ? now : Math.max(now, active.lastTimestamp() + 1);
+        JournalSegment next = JournalSegment.create(dir, first, segmentBytes);
+        List<JournalSegment> updated = new ArrayList<>(segments);
+        updated.add(next);
+        segments = List.copyOf(updated);
+        active = next;
+        enforceRetention();
+    }
+
+    private void enforceRetention() {
+        List<JournalSegment> kept = new ArrayList<>(segments);
+        lastRetentionCheck = System.currentTimeMillis();
+        long cutoff = lastRetentionCheck - retentionMillis;
+        while (kept.size() > 1 && (kept.size() > maxSegments || kept.get(0).lastTimestamp() < cutoff)) {
+            undeleted.add(kept.remove(0));
+        }
+        if (kept.size() != segments.size()) {
+            segments = List.copyOf(kept);
+        }
+        undeleted.removeIf(segment -> {
+            try {
+                segment.delete();
+                return true;
+            } catch (IOException e) {
+                // Most likely Windows refusing to delete a file that is still mapped.
+                ChatterMod.LOGGER.debug("Could not delete journal segment {} yet: {}", segment.dataPath().getFileName(), e.getMessage());
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Up to {@code limit} messages whose author or text contains {@code query}, ignoring
+     * case, newest first. Blocks are scanned backwards from the end of the newest segment,
+     * so recent hits return without touching older data.
+     */
+    public List<Entry> search(String query, int limit) {
+        List<Entry> results = new ArrayList<>();
+        List<Entry> block = new ArrayList<>();
+        List<JournalSegment> snapshot = segments;
+        for (int s = snapshot.size() - 1; s >= 0 && results.size() < limit; s--) {
+            JournalSegment segment = snapshot.get(s);
+            int end = segment.end();
+            int blocks = segment.indexCount();
+            for (int b = blocks - 1; b >= 0 && results.size() < limit; b--) {
+                int to = b + 1 < blocks ? segment.blockStart(b + 1) : end;
+                block.clear();
+                segment.scan(segment.blockStart(b), to, (epochMillis, message) -> {
+                    if (containsIgnoreCase(message.message(), query) || containsIgnoreCase(message.author(), query)) {
+                        block.add(new Entry(epochMillis, message));
+                    }
+                    return true;
+                });
+                for (int i = block.size() - 1; i >= 0 && results.size() < limit; i--) {
+                    results.add(block.get(i));
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Messages recorded at or after {@code fromMillis}, oldest first. If there are more
+     * than {@code limit}, only the most recent {@code limit} are returned. The start is found
+     * through the time index instead of scanning from the beginning of a segment.
+     */
+    public List<Entry> since(long fromMillis, int limit) {
+        ArrayDeque<Entry> window = new ArrayDeque<>(Math.min(limit, 1024));
+        for (JournalSegment segment : segments) {
+            if (segment.lastTimestamp() < fromMillis) continue;
+            segment.scan(segment.floorOffset(fromMillis), segment.end(), (epochMillis, message) -> {
+                if (epochMillis >= fromMillis) {
+                    if (window.size() == limit) window.pollFirst();
+                    window.addLast(new Entry(epochMillis, message));
+                }
+                return true;
+            });
+        }
+        return new ArrayList<>(window);
+    }
+
+    /** False once closed or after a disk error. */
+    public synchronized boolean writable() {
+        return !stopped;
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    public synchronized void close() {
+        if (active != null) {
+            active.seal();
+        }
+        stopped = true;
+    }
+
+    private static boolean containsIgnoreCase(String text, String query) {
+        int max = text.length() - query.length();
+        for (int i = 0; i <= max; i++) {
+            if (text.regionMatches(true, i, query, 0, query.length())) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,396 @@
+package com.wooldrum.chattermod.journal;
+
+import com.wooldrum.chattermod.platform.ChatMessage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One memory-mapped journal file plus its sparse time index.
+ * <p>
+ * Data file: an 8-byte header ({@code CMJ1}, version) followed by records of
+ * {@code int length | long epochMillis | byte platform | byte priority | channel | author |
+ * message | byte metadataCount | (key | value)...}, each string as {@code short byteLength}
+ * + UTF-8. Version 1 segments have neither the priority nor the metadata; they are still
+ * read, as {@link ChatMessage.Priority#NORMAL} without metadata, but take no more appends.
+ * The file is preallocated and zero-filled, and a record's length is written after its
+ * body, so a zero length marks the end of the data even after a crash.
+ * <p>
+ * Index file: {@code long epochMillis | int offset} for the first record of roughly every
+ * {@link #INDEX_INTERVAL} bytes. It is only a hint; whatever follows the last entry is
+ * recovered by walking the records.
+ * <p>
+ * Appends come from one thread. Readers may run concurrently and only look at records
+ * below the published {@link #end()}.
+ */
+final class JournalSegment {
+
+    static final String DATA_SUFFIX = ".seg";
+    static final String INDEX_SUFFIX = ".idx";
+
+    private static final int MAGIC = 0x434d4a31; // "CMJ1"
+    private static final int VERSION = 2;
+    private static final int VERSION_WITHOUT_PRIORITY = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final int INDEX_INTERVAL = 4096;
+    private static final int INDEX_ENTRY_BYTES = 12;
+    // length + timestamp + platform + three string lengths; version 2 adds priority and metadata count
+    private static final int FIXED_RECORD_BYTES_V1 = 4 + 8 + 1 + 3 * 2;
+    private static final int FIXED_RECORD_BYTES = FIXED_RECORD_BYTES_V1 + 1 + 1;
+    private static final int MAX_FIELD_CHARS = 1024;
+    private static final int MAX_METADATA_ENTRIES = 255;
+    private static final ChatMessage.Platform[] PLATFORMS = ChatMessage.Platform.values();
+    private static final ChatMessage.Priority[] PRIORITIES = ChatMessage.Priority.values();
+
+    /** Receives records in file order; return false to stop the scan. */
+    interface Visitor {
+        boolean visit(long epochMillis, ChatMessage message);
+    }
+
+    private final Path dataPath;
+    private final Path indexPath;
+    private final int version;
+    private final long firstTimestamp;
+    private final MappedByteBuffer buffer;
+    private FileChannel indexChannel;
+    private final ByteBuffer indexEntry = ByteBuffer.allocate(INDEX_ENTRY_BYTES);
+
+    // Pairs of (epochMillis, offset). Replaced, never shrunk, before indexCount grows.
+    private long[] index = new long[64];
+    private volatile int indexCount;
+    private volatile int end = HEADER_BYTES;
+    private volatile long lastTimestamp;
+    private int lastIndexedOffset = -INDEX_INTERVAL;
+
+    private JournalSegment(Path dataPath, int version, long firstTimestamp, MappedByteBuffer buffer) {
+        this.dataPath = dataPath;
+        this.indexPath = indexPathFor(dataPath);
+        this.version = version;
+        this.firstTimestamp = firstTimestamp;
+        this.buffer = buffer;
+        this.lastTimestamp = firstTimestamp;
+    }
+
+    static JournalSegment create(Path dir, long firstTimestamp, int sizeBytes) throws IOException {
+        Path dataPath = dir.resolve(firstTimestamp + DATA_SUFFIX);
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(dataPath, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, sizeBytes);
+        }
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+
+        JournalSegment segment = new JournalSegment(dataPath, VERSION, firstTimestamp, buffer);
+        segment.indexChannel = FileChannel.open(segment.indexPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        return segment;
+    }
+
+    /**
+     * Maps an existing segment, loads its index and walks the records after the last
+     * indexed one to find the end. A writable segment can keep taking appends.
+     */
+    static JournalSegment open(Path dataPath, boolean writable) throws IOException {
+        long firstTimestamp = timestampOf(dataPath);
+        MappedByteBuffer buffer;
+        try (FileChannel channel = writable
+                ? FileChannel.open(dataPath, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(dataPath, StandardOpenOption.READ)) {
+            buffer = channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC
+                || (buffer.getInt(4) != VERSION && buffer.getInt(4) != VERSION_WITHOUT_PRIORITY)) {
+            throw new IOException("Not a ChatterMod journal segment: " + dataPath);
+        }
+
+        JournalSegment segment = new JournalSegment(dataPath, buffer.getInt(4), firstTimestamp, buffer);
+        segment.loadIndex();
+        segment.recoverEnd();
+        if (writable) {
+            segment.indexChannel = FileChannel.open(segment.indexPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            segment.rewriteIndex();
+        }
+        return segment;
+    }
+
+    static long timestampOf(Path dataPath) {
+        String name = dataPath.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(0, name.length() - DATA_SUFFIX.length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return -1;
+        }
+    }
+
+    private static Path indexPathFor(Path dataPath) {
+        String name = dataPath.getFileName().toString();
+        return dataPath.resolveSibling(name.substring(0, name.length() - DATA_SUFFIX.length()) + INDEX_SUFFIX);
+    }
+
+    /**
+     * Writes one record. Returns false, writing nothing, if the segment is full or was
+     * written by an older version.
+     */
+    boolean append(long epochMillis, ChatMessage msg) throws IOException {
+        if (version != VERSION) return false;
+        String channel = clip(msg.channel());
+        String author = clip(msg.author());
+        String message = clip(msg.message());
+        int metadataCount = Math.min(msg.metadata().size(), MAX_METADATA_ENTRIES);
+        int metadataChars = 0;
+        for (Map.Entry<String, String> entry : msg.metadata().entrySet()) {
+            metadataChars += clip(entry.getKey()).length() + clip(entry.getValue()).length();
+        }
+        int worstCase = FIXED_RECORD_BYTES + 3 * (channel.length() + author.length() + message.length())
+                + metadataCount * 2 * 2 + 3 * metadataChars;
+        int pos = end;
+        if (pos + worstCase > buffer.capacity()) return false;
+
+        int p = pos + 4;
+        buffer.putLong(p, epochMillis);
+        buffer.put(p + 8, (byte) msg.platform().ordinal());
+        buffer.put(p + 9, (byte) msg.priority().ordinal());
+        p += 10;
+        p = putString(p, channel);
+        p = putString(p, author);
+        p = putString(p, message);
+        buffer.put(p++, (byte) metadataCount);
+        int written = 0;
+        for (Map.Entry<String, String> entry : msg.metadata().entrySet()) {
+            if (written++ == metadataCount) break;
+            p = putString(p, clip(entry.getKey()));
+            p = putString(p, clip(entry.getValue()));
+        }
+        // Commit: a non-zero length makes the record visible to recovery.
+        buffer.putInt(pos, p - pos - 4);
+
+        if (pos - lastIndexedOffset >= INDEX_INTERVAL) {
+            addIndexEntry(epochMillis, pos);
+            writeIndexEntry(epochMillis, pos);
+        }
+        lastTimestamp = epochMillis;
+        end = p;
+        return true;
+    }
+
+    private int putString(int lengthPos, String s) {
+        int p = lengthPos + 2;
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                buffer.put(p++, (byte) c);
+            } else if (c < 0x800) {
+                buffer.put(p++, (byte) (0xc0 | c >> 6));
+                buffer.put(p++, (byte) (0x80 | c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                buffer.put(p++, (byte) (0xf0 | cp >> 18));
+                buffer.put(p++, (byte) (0x80 | cp >> 12 & 0x3f));
+                buffer.put(p++, (byte) (0x80 | cp >> 6 & 0x3f));
+                buffer.put(p++, (byte) (0x80 | cp & 0x3f));
+            } else {
+                if (Character.isSurrogate(c)) c = '?';
+                buffer.put(p++, (byte) (0xe0 | c >> 12));
+                buffer.put(p++, (byte) (0x80 | c >> 6 & 0x3f));
+                buffer.put(p++, (byte) (0x80 | c & 0x3f));
+            }
+        }
+        buffer.putShort(lengthPos, (short) (p - lengthPos - 2));
+        return p;
+    }
+
+    private static String clip(String s) {
+        if (s == null) return "";
+        return s.length() <= MAX_FIELD_CHARS ? s : s.substring(0, MAX_FIELD_CHARS);
+    }
+
+    /** Visits the records in {@code [from, to)}; offsets must be record boundaries. */
+    void scan(int from, int to, Visitor visitor) {
+        ByteBuffer view = buffer.duplicate();
+        byte[] scratch = new byte[256];
+        int limit = Math.min(to, end);
+        int pos = from;
+        while (pos < limit) {
+            int length = view.getInt(pos);
+            int p = pos + 4;
+            long epochMillis = view.getLong(p);
+            int ordinal = view.get(p + 8);
+            // Written by a newer build with more platforms; skip rather than guess.
+            ChatMessage.Platform platform = ordinal >= 0 && ordinal < PLATFORMS.length ? PLATFORMS[ordinal] : null;
+            p += 9;
+            ChatMessage.Priority priority = ChatMessage.Priority.NORMAL;
+            if (version != VERSION_WITHOUT_PRIORITY) {
+                int priorityOrdinal = view.get(p);
+                if (priorityOrdinal >= 0 && priorityOrdinal < PRIORITIES.length) priority = PRIORITIES[priorityOrdinal];
+                p++;
+            }
+            int channelLength = view.getShort(p) & 0xffff;
+            String channel = readString(view, p + 2, channelLength, scratch);
+            p += 2 + channelLength;
+            int authorLength = view.getShort(p) & 0xffff;
+            String author = readString(view, p + 2, authorLength, scratch);
+            p += 2 + authorLength;
+            int messageLength = view.getShort(p) & 0xffff;
+            String message = readString(view, p + 2, messageLength, scratch);
+            p += 2 + messageLength;
+            Map<String, String> metadata = Map.of();
+            if (version != VERSION_WITHOUT_PRIORITY) {
+                int metadataCount = view.get(p++) & 0xff;
+                if (metadataCount > 0) metadata = new HashMap<>(metadataCount * 2);
+                for (int i = 0; i < metadataCount; i++) {
+                    int keyLength = view.getShort(p) & 0xffff;
+                    String key = readString(view, p + 2, keyLength, scratch);
+                    p += 2 + keyLength;
+                    int valueLength = view.getShort(p) & 0xffff;
+                    metadata.put(key, readString(view, p + 2, valueLength, scratch));
+                    p += 2 + valueLength;
+                }
+            }
+
+            if (platform != null && !visitor.visit(epochMillis,
+                    new ChatMessage(author, message, platform, channel, 0, priority, metadata))) return;
+            pos += 4 + length;
+        }
+    }
+
+    private static String readString(ByteBuffer view, int pos, int length, byte[] scratch) {
+        byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+        view.get(pos, bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /** Offset of the last indexed record at or before {@code epochMillis}, or the first record. */
+    int floorOffset(long epochMillis) {
+        int count = indexCount;
+        long[] entries = index;
+        int lo = 0;
+        int hi = count - 1;
+        int found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (entries[mid * 2] <= epochMillis) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return found < 0 ? HEADER_BYTES : (int) entries[found * 2 + 1];
+    }
+
+    int indexCount() {
+        return indexCount;
+    }
+
+    /** Start of the i-th indexed block; blocks end where the next one starts, the last at {@link #end()}. */
+    int blockStart(int i) {
+        return (int) index[i * 2 + 1];
+    }
+
+    int end() {
+        return end;
+    }
+
+    long firstTimestamp() {
+        return firstTimestamp;
+    }
+
+    long lastTimestamp() {
+        return lastTimestamp;
+    }
+
+    /** Stops appends and releases the index file handle; the mapping stays readable. */
+    void seal() {
+        if (indexChannel == null) return;
+        try {
+            indexChannel.close();
+        } catch (IOException ignored) {
+            // Nothing left to flush.
+        }
+        indexChannel = null;
+    }
+
+    /** Deletes both files. Windows refuses while the mapping is alive; callers retry later. */
+    void delete() throws IOException {
+        seal();
+        Files.deleteIfExists(indexPath);
+        Files.deleteIfExists(dataPath);
+    }
+
+    Path dataPath() {
+        return dataPath;
+    }
+
+    private void addIndexEntry(long epochMillis, int offset) {
+        int count = indexCount;
+        if (count * 2 == index.length) {
+            index = Arrays.copyOf(index, index.length * 2);
+        }
+        index[count * 2] = epochMillis;
+        index[count * 2 + 1] = offset;
+        lastIndexedOffset = offset;
+        indexCount = count + 1;
+    }
+
+    private void writeIndexEntry(long epochMillis, int offset) throws IOException {
+        if (indexChannel == null) return;
+        indexEntry.clear();
+        indexEntry.putLong(epochMillis).putInt(offset).flip();
+        while (indexEntry.hasRemaining()) {
+            indexChannel.write(indexEntry);
+        }
+    }
+
+    private void loadIndex() throws IOException {
+        if (!Files.exists(indexPath)) return;
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(indexPath));
+        int previous = HEADER_BYTES - 1;
+        while (bytes.remaining() >= INDEX_ENTRY_BYTES) {
+            long epochMillis = bytes.getLong();
+            int offset = bytes.getInt();
+            // Stop at anything that does not look like a record boundary we could have written.
+            if (offset <= previous || offset >= buffer.capacity() - 4 || buffer.getInt(offset) <= 0) break;
+            addIndexEntry(epochMillis, offset);
+            previous = offset;
+        }
+    }
+
+    private void recoverEnd() {
+        int pos = indexCount == 0 ? HEADER_BYTES : blockStart(indexCount - 1);
+        int capacity = buffer.capacity();
+        long last = lastTimestamp;
+        int minRecordBytes = version == VERSION_WITHOUT_PRIORITY ? FIXED_RECORD_BYTES_V1 : FIXED_RECORD_BYTES;
+        while (pos + minRecordBytes <= capacity) {
+            int length = buffer.getInt(pos);
+            if (length < minRecordBytes - 4 || pos + 4 + length > capacity) break;
+            long epochMillis = buffer.getLong(pos + 4);
+            if (pos - lastIndexedOffset >= INDEX_INTERVAL) {
+                addIndexEntry(epochMillis, pos);
+            }
+            last = epochMillis;
+            pos += 4 + length;
+        }
+        lastTimestamp = last;
+        end = pos;
+    }
+
+    private void rewriteIndex() throws IOException {
+        indexChannel.truncate(0);
+        indexChannel.position(0);
+        for (int i = 0; i < indexCount; i++) {
+            writeIndexEntry(index[i * 2], (int) index[i * 2 + 1]);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.wooldrum.chattermod.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** A monotonically increasing count, striped so concurrent writers do not contend. */
+public final class Counter {
+
+    private final LongAdder count = new LongAdder();
+
+    public void increment() {
+        count.increment();
+    }
+
+    public void add(long amount) {
+        count.add(amount);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+}
@@ -0,0 +1,66 @@
+package com.wooldrum.chattermod.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free log-linear histogram of durations in microseconds. Values below 16 µs get
+ * exact buckets; above that each power of two is split into eight sub-buckets, so any
+ * reported percentile is within 12.5% of the true value.
+ */
+public final class Histogram {
+
+    private static final int LINEAR = 16;
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = LINEAR + (MAX_EXPONENT - 4 + 1) * SUB_BUCKETS;
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final Counter total = new Counter();
+
+    public void recordNanos(long nanos) {
+        recordMicros(nanos / 1_000);
+    }
+
+    public void recordMicros(long micros) {
+        counts.incrementAndGet(index(Math.max(0, Math.min(micros, MAX_VALUE))));
+        total.increment();
+    }
+
+    public long count() {
+        return total.count();
+    }
+
+    /** The value at the given percentile (0-100) in microseconds, or 0 when empty. */
+    public long percentileMicros(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            n += snapshot[i];
+        }
+        if (n == 0) return 0;
+        long rank = (long) Math.ceil(percentile / 100.0 * n);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) return upperBound(i);
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    private static int index(long micros) {
+        if (micros < LINEAR) return (int) micros;
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR + (exponent - 4) * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBound(int index) {
+        if (index < LINEAR) return index;
+        int exponent = (index - LINEAR) / SUB_BUCKETS + 4;
+        int sub = (index - LINEAR) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
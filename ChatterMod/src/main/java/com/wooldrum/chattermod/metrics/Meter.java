@@ -0,0 +1,53 @@
+package com.wooldrum.chattermod.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts events and reports their recent rate from a ring of one-second buckets. A bucket
+ * is recycled by the first writer to reach it in a new second; events racing with that
+ * reset may be lost, which is acceptable for a rate display.
+ */
+public final class Meter {
+
+    private static final int BUCKETS = 16;
+    private static final int RATE_WINDOW_SECONDS = 10;
+
+    private final LongAdder total = new LongAdder();
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final AtomicLongArray bucketSecond = new AtomicLongArray(BUCKETS);
+
+    public Meter() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void mark() {
+        total.increment();
+        long second = System.nanoTime() / 1_000_000_000L;
+        int index = (int) (second & (BUCKETS - 1));
+        long seen = bucketSecond.get(index);
+        if (seen != second && bucketSecond.compareAndSet(index, seen, second)) {
+            buckets[index].reset();
+        }
+        buckets[index].increment();
+    }
+
+    public long count() {
+        return total.sum();
+    }
+
+    /** Average events per second over the last completed ten seconds. */
+    public double rate() {
+        long now = System.nanoTime() / 1_000_000_000L;
+        long sum = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            long age = now - bucketSecond.get(i);
+            if (age >= 1 && age <= RATE_WINDOW_SECONDS) {
+                sum += buckets[i].sum();
+            }
+        }
+        return sum / (double) RATE_WINDOW_SECONDS;
+    }
+}
@@ -0,0 +1,57 @@
+package com.wooldrum.chattermod.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Named counters, meters, histograms and gauges. Lookups go through a map, so callers
+ * resolve their metrics once and keep the reference; the hot path never touches the map.
+ */
+public final class MetricsRegistry {
+
+    private final Map<String, Object> metrics = new ConcurrentSkipListMap<>();
+
+    public Counter counter(String name) {
+        return (Counter) metrics.computeIfAbsent(name, n -> new Counter());
+    }
+
+    public Meter meter(String name) {
+        return (Meter) metrics.computeIfAbsent(name, n -> new Meter());
+    }
+
+    public Histogram histogram(String name) {
+        return (Histogram) metrics.computeIfAbsent(name, n -> new Histogram());
+    }
+
+    /** Registers or replaces a sampled value, e.g. a queue depth. */
+    public void gauge(String name, LongSupplier value) {
+        metrics.put(name, value);
+    }
+
+    /** One human-readable line per metric, sorted by name. */
+    public List<String> report() {
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : metrics.entrySet()) {
+            String name = entry.getKey();
+            Object metric = entry.getValue();
+            if (metric instanceof Counter counter) {
+                lines.add(name + ": " + counter.count());
+            } else if (metric instanceof Meter meter) {
+                lines.add(String.format(Locale.ROOT, "%s: %.1f/s (%d total)", name, meter.rate(), meter.count()));
+            } else if (metric instanceof Histogram histogram) {
+                lines.add(String.format(Locale.ROOT, "%s: p50=%.1fms p90=%.1fms p99=%.1fms (n=%d)", name,
+                        histogram.percentileMicros(50) / 1000.0,
+                        histogram.percentileMicros(90) / 1000.0,
+                        histogram.percentileMicros(99) / 1000.0,
+                        histogram.count()));
+            } else if (metric instanceof LongSupplier gauge) {
+                lines.add(name + ": " + gauge.getAsLong());
+            }
+        }
+        return lines;
+    }
+}
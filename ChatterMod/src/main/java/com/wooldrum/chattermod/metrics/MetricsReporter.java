@@ -0,0 +1,54 @@
+package com.wooldrum.chattermod.metrics;
+
+import com.wooldrum.chattermod.ChatterMod;
+
+/**
+ * Optionally writes the registry to the log at a fixed interval. The interval can change
+ * on reload; 0 disables the dump without stopping the thread.
+ */
+public final class MetricsReporter {
+
+    private static final long IDLE_CHECK_MILLIS = 5_000;
+
+    private final MetricsRegistry registry;
+    private volatile long intervalMillis;
+    private Thread thread;
+
+    public MetricsReporter(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void setIntervalSeconds(int seconds) {
+        this.intervalMillis = Math.max(0, seconds) * 1000L;
+    }
+
+    public synchronized void start() {
+        if (thread != null) return;
+        thread = Thread.ofVirtual().name("ChatterMod-Metrics").start(this::run);
+    }
+
+    public synchronized void stop() {
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    private void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                long interval = intervalMillis;
+                if (interval <= 0) {
+                    Thread.sleep(IDLE_CHECK_MILLIS);
+                    continue;
+                }
+                Thread.sleep(interval);
+                for (String line : registry.report()) {
+                    ChatterMod.LOGGER.info("[Metrics] {}", line);
+                }
+            }
+        } catch (InterruptedException ignored) {
+            // Stopped.
+        }
+    }
+}
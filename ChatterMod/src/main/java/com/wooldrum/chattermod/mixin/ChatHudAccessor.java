@@ -0,0 +1,14 @@
+package com.wooldrum.chattermod.mixin;
+
+import net.minecraft.client.gui.hud.ChatHud;
+import net.minecraft.client.gui.hud.ChatHudLine;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+import java.util.List;
+
+@Mixin(ChatHud.class)
+public interface ChatHudAccessor {
+    @Accessor("messages")
+    List<ChatHudLine> chattermod$getMessages();
+}
@@ -0,0 +1,206 @@
+package com.wooldrum.chattermod.outbound;
+
+import com.wooldrum.chattermod.ChatterMod;
+import com.wooldrum.chattermod.ChatterModConfig;
+import com.wooldrum.chattermod.metrics.Counter;
+import com.wooldrum.chattermod.platform.ChatMessage;
+import com.wooldrum.chattermod.platform.ChatSender;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Posts messages typed in game to stream chat. {@link #submit} only queues, so it is safe
+ * on the client thread; each platform has its own virtual thread that waits for a token
+ * from that platform's {@link TokenBucket} and then sends. Whatever queued up while it
+ * waited is merged into as few messages as the platform's length limit allows, so a burst
+ * of typing costs one send instead of several.
+ * <p>
+ * Limits: Twitch allows 20 messages per 30 seconds, or 100 in channels where the account
+ * is a moderator or the broadcaster. Each YouTube {@code liveChatMessages.insert} costs 50
+ * quota units, and sends are spread over the units per day set aside for them.
+ */
+public class OutboundChat {
+
+    /** Told about messages that could not be posted; called on the lane's thread. */
+    @FunctionalInterface
+    public interface FailureListener {
+        void failed(ChatMessage.Platform target, String text, String reason);
+    }
+
+    private static final String SEPARATOR = " | ";
+    private static final Duration TWITCH_WINDOW = Duration.ofSeconds(30);
+    private static final int TWITCH_LIMIT = 20;
+    private static final int TWITCH_MODERATOR_LIMIT = 100;
+    private static final Duration YOUTUBE_WINDOW = Duration.ofDays(1);
+    private static final int YOUTUBE_INSERT_COST = 50;
+    private static final int YOUTUBE_BURST = 3;
+    private static final long SEND_TIMEOUT_MILLIS = 15_000;
+
+    private static final Counter SENT = ChatterMod.METRICS.counter("outbound.sent");
+    private static final Counter MERGED = ChatterMod.METRICS.counter("outbound.merged");
+    private static final Counter FAILED = ChatterMod.METRICS.counter("outbound.failed");
+
+    private final Function<ChatMessage.Platform, ChatSender> senders;
+    private final FailureListener failures;
+    private final Map<ChatMessage.Platform, Lane> lanes = new EnumMap<>(ChatMessage.Platform.class);
+    private volatile int maxQueued = 20;
+
+    /** @param senders the connected sender for a platform, or null when there is none */
+    public OutboundChat(Function<ChatMessage.Platform, ChatSender> senders, FailureListener failures) {
+        this.senders = senders;
+        this.failures = failures;
+        lanes.put(ChatMessage.Platform.TWITCH, new Lane(ChatMessage.Platform.TWITCH,
+                new TokenBucket(TWITCH_LIMIT, TWITCH_LIMIT / 4, TWITCH_WINDOW)));
+        lanes.put(ChatMessage.Platform.YOUTUBE, new Lane(ChatMessage.Platform.YOUTUBE,
+                new TokenBucket(2500 / YOUTUBE_INSERT_COST, YOUTUBE_BURST, YOUTUBE_WINDOW)));
+    }
+
+    public void configure(ChatterModConfig config) {
+        int twitchLimit = config.outboundTwitchModerator ? TWITCH_MODERATOR_LIMIT : TWITCH_LIMIT;
+        lanes.get(ChatMessage.Platform.TWITCH).bucket.setLimit(twitchLimit, twitchLimit / 4, TWITCH_WINDOW);
+        int youtubeInserts = Math.max(1, config.outboundYouTubeQuotaUnitsPerDay / YOUTUBE_INSERT_COST);
+        lanes.get(ChatMessage.Platform.YOUTUBE).bucket.setLimit(youtubeInserts, YOUTUBE_BURST, YOUTUBE_WINDOW);
+        maxQueued = Math.max(1, config.outboundMaxQueued);
+    }
+
+    /** The platforms that could take a message right now. */
+    public List<ChatMessage.Platform> targets() {
+        List<ChatMessage.Platform> targets = new ArrayList<>();
+        for (ChatMessage.Platform platform : lanes.keySet()) {
+            ChatSender sender = senders.apply(platform);
+            if (sender != null && sender.canSend()) targets.add(platform);
+        }
+        return targets;
+    }
+
+    /**
+     * Queues {@code text} for {@code target} without blocking. Returns false when the
+     * platform cannot post or its queue is full.
+     */
+    public boolean submit(ChatMessage.Platform target, String text) {
+        Lane lane = lanes.get(target);
+        ChatSender sender = senders.apply(target);
+        if (lane == null || sender == null || !sender.canSend()) return false;
+        String trimmed = text.strip();
+        if (trimmed.isEmpty()) return false;
+        if (lane.queue.size() >= maxQueued) return false;
+        lane.queue.offer(trimmed);
+        lane.start();
+        return true;
+    }
+
+    public int queued(ChatMessage.Platform target) {
+        Lane lane = lanes.get(target);
+        return lane == null ? 0 : lane.queue.size();
+    }
+
+    public void stop() {
+        for (Lane lane : lanes.values()) {
+            lane.stop();
+        }
+    }
+
+    private final class Lane {
+        private final ChatMessage.Platform platform;
+        private final TokenBucket bucket;
+        private final LinkedBlockingDeque<String> queue = new LinkedBlockingDeque<>();
+        private Thread worker;
+
+        Lane(ChatMessage.Platform platform, TokenBucket bucket) {
+            this.platform = platform;
+            this.bucket = bucket;
+        }
+
+        synchronized void start() {
+            if (worker == null) {
+                worker = Thread.ofVirtual().name("ChatterMod-Outbound-" + platform.name().toLowerCase()).start(this::run);
+            }
+        }
+
+        synchronized void stop() {
+            if (worker != null) {
+                worker.interrupt();
+                worker = null;
+            }
+        }
+
+        private void run() {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    String first = queue.take();
+                    bucket.acquire();
+                    ChatSender sender = senders.apply(platform);
+                    if (sender == null || !sender.canSend()) {
+                        fail(first, "not connected");
+                        fail(drainAll(), "not connected");
+                        continue;
+                    }
+                    send(sender, merge(first, sender.maxMessageLength()));
+                }
+            } catch (InterruptedException e) {
+                // Stopped with the mod; anything still queued is dropped.
+            }
+        }
+
+        /**
+         * Appends queued messages to {@code first} while they fit; repeats of the previous
+         * message are skipped, since Twitch rejects duplicates anyway. A message too long on
+         * its own is cut to the limit.
+         */
+        private String merge(String first, int maxLength) {
+            StringBuilder batch = new StringBuilder(truncate(first, maxLength));
+            String last = first;
+            String next;
+            while ((next = queue.peekFirst()) != null) {
+                if (next.equals(last)) {
+                    queue.pollFirst();
+                    MERGED.increment();
+                    continue;
+                }
+                if (batch.length() + SEPARATOR.length() + next.length() > maxLength) break;
+                queue.pollFirst();
+                batch.append(SEPARATOR).append(next);
+                last = next;
+                MERGED.increment();
+            }
+            return batch.toString();
+        }
+
+        private void send(ChatSender sender, String text) throws InterruptedException {
+            try {
+                sender.send(text).get(SEND_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                SENT.increment();
+            } catch (ExecutionException e) {
+                fail(text, e.getCause().getMessage());
+            } catch (TimeoutException e) {
+                fail(text, "no reply within " + TimeUnit.MILLISECONDS.toSeconds(SEND_TIMEOUT_MILLIS) + " s");
+            }
+        }
+
+        private String drainAll() {
+            List<String> rest = new ArrayList<>();
+            queue.drainTo(rest);
+            return String.join(SEPARATOR, rest);
+        }
+
+        private void fail(String text, String reason) {
+            if (text.isEmpty()) return;
+            FAILED.increment();
+            ChatterMod.LOGGER.warn("[{}] Could not send chat message: {}", platform, reason);
+            failures.failed(platform, text, reason);
+        }
+    }
+
+    private static String truncate(String text, int maxLength) {
+        return text.length() <= maxLength ? text : text.substring(0, maxLength);
+    }
+}
@@ -0,0 +1,60 @@
+package com.wooldrum.chattermod.outbound;
+
+import java.time.Duration;
+
+/**
+ * Sends allowed under a "at most {@code limit} per {@code window}" rule. A plain bucket
+ * holding {@code limit} tokens refilled over {@code window} would let up to twice the limit
+ * through in one window, so the bucket holds only {@code burst} tokens and refills the other
+ * {@code limit - burst} over the window: a full burst plus everything refilled still fits.
+ */
+public final class TokenBucket {
+
+    private double capacity;
+    private double tokensPerNano;
+    private double tokens;
+    private long refilledAt = System.nanoTime();
+
+    public TokenBucket(int limit, int burst, Duration window) {
+        setLimit(limit, burst, window);
+        this.tokens = capacity;
+    }
+
+    /** Changes the rule, keeping the tokens already earned up to the new burst size. */
+    public synchronized void setLimit(int limit, int burst, Duration window) {
+        refill(System.nanoTime());
+        int cappedBurst = Math.clamp(burst, 1, Math.max(1, limit));
+        this.capacity = cappedBurst;
+        this.tokensPerNano = Math.max(1, limit - cappedBurst) / (double) window.toNanos();
+        this.tokens = Math.min(tokens, capacity);
+    }
+
+    /** Takes a token, waiting for one if the bucket is empty. */
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        while ((waitNanos = tryAcquire()) > 0) {
+            Thread.sleep(Duration.ofNanos(waitNanos));
+        }
+    }
+
+    /** Takes a token and returns 0, or returns how long until one is available. */
+    public synchronized long tryAcquire() {
+        long now = System.nanoTime();
+        refill(now);
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return Math.max(1, (long) Math.ceil((1 - tokens) / tokensPerNano));
+    }
+
+    public synchronized double available() {
+        refill(System.nanoTime());
+        return tokens;
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+    }
+}
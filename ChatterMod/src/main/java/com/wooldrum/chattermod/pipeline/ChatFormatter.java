@@ -0,0 +1,173 @@
+package com.wooldrum.chattermod.pipeline;
+
+import com.wooldrum.chattermod.ChatterModConfig;
+import com.wooldrum.chattermod.platform.ChatMessage;
+import net.minecraft.text.MutableText;
+import net.minecraft.text.Style;
+import net.minecraft.text.Text;
+import net.minecraft.util.Formatting;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Turns {@link ChatMessage}s into chat lines using templates compiled from the config.
+ * Templates are rebuilt on reload or toggle and swapped in atomically; the styled author
+ * cache lives inside them so a swap also invalidates it. {@link #format} must only be
+ * called from the message processor thread.
+ */
+public class ChatFormatter {
+
+    private static final Text OPEN_BRACKET = Text.literal("<").formatted(Formatting.GRAY);
+    private static final Text CLOSE_BRACKET = Text.literal("> ").formatted(Formatting.GRAY);
+    private static final Style MESSAGE_STYLE = Style.EMPTY.withFormatting(Formatting.WHITE);
+    private static final Style BURST_COUNT_STYLE = Style.EMPTY.withFormatting(Formatting.GRAY);
+    private static final Style AMOUNT_STYLE = Style.EMPTY.withFormatting(Formatting.GOLD, Formatting.BOLD);
+
+    private final int authorCacheSize;
+    private volatile Templates templates;
+
+    public ChatFormatter(int authorCacheSize) {
+        this.authorCacheSize = authorCacheSize;
+    }
+
+    public void compile(ChatterModConfig config) {
+        this.templates = new Templates(config, authorCacheSize);
+    }
+
+    public Text format(ChatMessage msg) {
+        return format(msg, false);
+    }
+
+    /** @param highlighted whether a highlight rule matched; the message text then takes the highlight color */
+    public Text format(ChatMessage msg, boolean highlighted) {
+        Templates current = templates;
+        PlatformTemplate template = current.forPlatform(msg.platform());
+        MutableText line = Text.empty();
+        Text prefix = template.prefix(msg.channel());
+        if (prefix != null) {
+            line.append(prefix);
+        }
+        String amount = msg.meta(ChatMessage.AMOUNT);
+        if (amount != null) {
+            line.append(Text.literal(amount + " ").setStyle(AMOUNT_STYLE));
+        }
+        return line.append(OPEN_BRACKET)
+                .append(template.author(msg.author()))
+                .append(CLOSE_BRACKET)
+                .append(Text.literal(msg.message()).setStyle(highlighted ? current.highlightStyle : MESSAGE_STYLE));
+    }
+
+    /** A collapsed burst of identical messages, e.g. {@code [TW] "1" x47}. */
+    public Text formatBurst(ChatMessage msg, int count) {
+        PlatformTemplate template = templates.forPlatform(msg.platform());
+        MutableText line = Text.empty();
+        Text prefix = template.prefix(msg.channel());
+        if (prefix != null) {
+            line.append(prefix);
+        }
+        return line.append(Text.literal("\"" + msg.message() + "\"").setStyle(MESSAGE_STYLE))
+                .append(Text.literal(" x" + count).setStyle(BURST_COUNT_STYLE));
+    }
+
+    private static final class Templates {
+        private final Map<ChatMessage.Platform, PlatformTemplate> byPlatform = new EnumMap<>(ChatMessage.Platform.class);
+        private final Style highlightStyle;
+
+        Templates(ChatterModConfig config, int authorCacheSize) {
+            Formatting highlight = Formatting.byName(config.filterHighlightColor.toUpperCase());
+            this.highlightStyle = Style.EMPTY.withFormatting(highlight == null || !highlight.isColor() ? Formatting.GOLD : highlight);
+            for (ChatMessage.Platform platform : ChatMessage.Platform.values()) {
+                byPlatform.put(platform, PlatformTemplate.compile(platform, config, authorCacheSize));
+            }
+        }
+
+        PlatformTemplate forPlatform(ChatMessage.Platform platform) {
+            return byPlatform.get(platform);
+        }
+    }
+
+    /**
+     * When a platform has several channels configured the prefix names the channel,
+     * e.g. {@code [TW:somechannel]}; those prefixes are built once per channel.
+     */
+    private record PlatformTemplate(String tag, Formatting color, Text prefix, boolean perChannel,
+                                    Map<String, Text> channelPrefixes, Style authorStyle, AuthorCache authors) {
+
+        static PlatformTemplate compile(ChatMessage.Platform platform, ChatterModConfig config, int authorCacheSize) {
+            String tag;
+            String colorName;
+            int channels;
+            switch (platform) {
+                case YOUTUBE -> {
+                    tag = "YT";
+                    colorName = config.youtubeColor;
+                    channels = config.youtubeAccounts.size();
+                }
+                case TWITCH -> {
+                    tag = "TW";
+                    colorName = config.twitchColor;
+                    channels = config.twitchAccounts.size();
+                }
+                case KICK -> {
+                    tag = "KK";
+                    colorName = config.kickColor;
+                    channels = config.kickAccounts.size();
+                }
+                default -> {
+                    tag = "";
+                    colorName = null;
+                    channels = 0;
+                }
+            }
+            Formatting color = colorName == null ? null : Formatting.byName(colorName.toUpperCase());
+            if (color == null) color = Formatting.WHITE;
+
+            Text prefix = config.showPlatformLogo ? buildPrefix(tag, null, color) : null;
+            Style authorStyle = config.usePlatformColors ? Style.EMPTY.withFormatting(color) : Style.EMPTY;
+            return new PlatformTemplate(tag, color, prefix, channels > 1, new HashMap<>(),
+                    authorStyle, new AuthorCache(authorCacheSize));
+        }
+
+        private static Text buildPrefix(String tag, String channel, Formatting color) {
+            if (tag.isEmpty()) return Text.literal(" ").formatted(color);
+            String label = channel == null || channel.isEmpty() ? tag : tag + ":" + channel;
+            return Text.literal("[" + label + "] ").formatted(color);
+        }
+
+        Text prefix(String channel) {
+            if (prefix == null || !perChannel) return prefix;
+            Text cached = channelPrefixes.get(channel);
+            if (cached == null) {
+                cached = buildPrefix(tag, channel, color);
+                channelPrefixes.put(channel, cached);
+            }
+            return cached;
+        }
+
+        Text author(String name) {
+            Text cached = authors.get(name);
+            if (cached == null) {
+                cached = Text.literal(name).setStyle(authorStyle);
+                authors.put(name, cached);
+            }
+            return cached;
+        }
+    }
+
+    private static final class AuthorCache extends LinkedHashMap<String, Text> {
+        private final int maxSize;
+
+        AuthorCache(int maxSize) {
+            super(Math.min(maxSize, 256), 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Text> eldest) {
+            return size() > maxSize;
+        }
+    }
+}
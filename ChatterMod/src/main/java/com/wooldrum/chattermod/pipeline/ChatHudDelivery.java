@@ -0,0 +1,218 @@
+package com.wooldrum.chattermod.pipeline;
+
+import com.wooldrum.chattermod.ChatterMod;
+import com.wooldrum.chattermod.metrics.Histogram;
+import com.wooldrum.chattermod.mixin.ChatHudAccessor;
+import com.wooldrum.chattermod.platform.ChatMessage;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gui.hud.ChatHud;
+import net.minecraft.client.gui.hud.ChatHudLine;
+import net.minecraft.text.Text;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hands formatted chat lines to the {@link ChatHud} once per client tick instead of
+ * scheduling a render-thread task per message. Lines that do not fit in the per-tick
+ * budget are carried over to the next tick.
+ * <p>
+ * Pending lines wait in one {@link PriorityLanes} lane per {@link ChatMessage.Priority}.
+ * Paid and moderator lines go first in every tick, even after the time budget is spent;
+ * subscriber and ordinary lines share the rest, with ordinary lines aging upwards so they
+ * still get through. Past {@code maxPending} lines the oldest lines of the lowest non-empty
+ * lane are dropped, so paid and moderator lines only go once they alone fill the limit.
+ * <p>
+ * Lines submitted with a burst key can later be rewritten in place through
+ * {@link #update}; only the newest rewrite per key is applied each tick. Rewrites for new
+ * keys are dropped once {@code maxPending} of them are waiting.
+ */
+public class ChatHudDelivery {
+
+    // Only lines this close to the bottom of the chat are rewritten; older bursts start a new line.
+    private static final int REWRITE_SCAN_LIMIT = 20;
+    private static final int TRACKED_BURSTS = 64;
+
+    private static final Histogram END_TO_END = ChatterMod.METRICS.histogram("latency.endToEnd");
+
+    private record Line(Text text, long burstKey, long receivedAt) {}
+
+    // Paid and moderator lines are never deferred for time, and dropped last.
+    private static final int GUARANTEED_LANES = ChatMessage.Priority.MODERATOR.ordinal() + 1;
+
+    private final PriorityLanes<Line> pending;
+    private final Map<Long, Text> pendingUpdates = new ConcurrentHashMap<>();
+    private final AtomicLong deliveredTotal = new AtomicLong();
+    private final AtomicLong deferredTotal = new AtomicLong();
+    private final LongAdder droppedUpdates = new LongAdder();
+
+    // Render thread only: burst key -> the Text currently shown for it.
+    private final Map<Long, Text> shownBursts = new LinkedHashMap<>(TRACKED_BURSTS * 2, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Text> eldest) {
+            return size() > TRACKED_BURSTS;
+        }
+    };
+
+    private volatile int maxMessagesPerTick;
+    private volatile long maxNanosPerTick;
+    private volatile int maxPending;
+    private volatile int lastDeferred;
+
+    public ChatHudDelivery(int maxMessagesPerTick, int maxMicrosPerTick, int maxPending, int agingMillis) {
+        this.pending = new PriorityLanes<>(ChatMessage.Priority.values().length, GUARANTEED_LANES,
+                maxPending, TimeUnit.MILLISECONDS.toNanos(agingMillis));
+        this.maxPending = Math.max(1, maxPending);
+        setBudget(maxMessagesPerTick, maxMicrosPerTick);
+    }
+
+    public void register() {
+        ClientTickEvents.END_CLIENT_TICK.register(this::onEndTick);
+    }
+
+    public void setBudget(int maxMessagesPerTick, int maxMicrosPerTick) {
+        this.maxMessagesPerTick = Math.max(1, maxMessagesPerTick);
+        this.maxNanosPerTick = Math.max(1, maxMicrosPerTick) * 1_000L;
+    }
+
+    public void setLanes(int maxPending, int agingMillis) {
+        pending.setLimits(maxPending, TimeUnit.MILLISECONDS.toNanos(agingMillis));
+        this.maxPending = Math.max(1, maxPending);
+    }
+
+    /**
+     * Called from the message processor thread. {@code receivedAt} is the ingest timestamp
+     * used for the end-to-end latency histogram, or 0 for lines that were not just received
+     * (replays, notices), which are left out of it. Later {@link #update} calls with the same
+     * non-zero burst key may rewrite the line.
+     */
+    public void submit(Text line, long burstKey, long receivedAt, ChatMessage.Priority priority) {
+        pending.offer(new Line(line, burstKey, receivedAt), priority.ordinal(), System.nanoTime());
+    }
+
+    /** Submits a line in the {@link ChatMessage.Priority#NORMAL} lane. */
+    public void submit(Text line, long burstKey, long receivedAt) {
+        submit(line, burstKey, receivedAt, ChatMessage.Priority.NORMAL);
+    }
+
+    /** Replaces the line shown for {@code burstKey}, or adds it if it is no longer near the bottom. */
+    public void update(long burstKey, Text line) {
+        // Rewrites wait for the lines queue to empty, so under sustained load they pile up.
+        if (pendingUpdates.size() >= maxPending && !pendingUpdates.containsKey(burstKey)) {
+            droppedUpdates.increment();
+            return;
+        }
+        pendingUpdates.put(burstKey, line);
+    }
+
+    private void onEndTick(MinecraftClient client) {
+        if (pending.size() == 0 && pendingUpdates.isEmpty()) return;
+        // No HUD yet (loading screen, world join): keep everything for a later tick.
+        if (client.inGameHud == null) return;
+
+        ChatHud chatHud = client.inGameHud.getChatHud();
+        int budget = maxMessagesPerTick;
+        long deadline = System.nanoTime() + maxNanosPerTick;
+        int delivered = 0;
+        boolean outOfTime = false;
+
+        Line line;
+        while (delivered < budget && (line = pending.poll(System.nanoTime(), outOfTime)) != null) {
+            chatHud.addMessage(line.text());
+            long now = System.nanoTime();
+            if (line.receivedAt() != 0) {
+                END_TO_END.recordNanos(now - line.receivedAt());
+            }
+            if (line.burstKey() != 0) {
+                shownBursts.put(line.burstKey(), line.text());
+            }
+            delivered++;
+            outOfTime = now - deadline >= 0;
+        }
+
+        // Rewrites wait until the lines they refer to have been shown.
+        if (delivered < budget && pending.size() == 0 && !pendingUpdates.isEmpty()) {
+            delivered += applyUpdates(client, chatHud, budget - delivered);
+        }
+
+        deliveredTotal.addAndGet(delivered);
+        int deferred = pending.size() + pendingUpdates.size();
+        lastDeferred = deferred;
+        if (deferred > 0) {
+            deferredTotal.addAndGet(deferred);
+            ChatterMod.LOGGER.debug("Delivered {} chat lines this tick, deferred {} to the next.", delivered, deferred);
+        }
+    }
+
+    private int applyUpdates(MinecraftClient client, ChatHud chatHud, int budget) {
+        List<ChatHudLine> lines = ((ChatHudAccessor) chatHud).chattermod$getMessages();
+        int applied = 0;
+        boolean rewritten = false;
+
+        Iterator<Map.Entry<Long, Text>> it = pendingUpdates.entrySet().iterator();
+        while (applied < budget && it.hasNext()) {
+            Map.Entry<Long, Text> update = it.next();
+            it.remove();
+            Text shown = shownBursts.get(update.getKey());
+            if (shown != null && rewrite(lines, shown, update.getValue(), client.inGameHud.getTicks())) {
+                rewritten = true;
+            } else {
+                chatHud.addMessage(update.getValue());
+            }
+            shownBursts.put(update.getKey(), update.getValue());
+            applied++;
+        }
+        if (rewritten) {
+            // Re-wraps the visible lines from the message list; once per tick, not per update.
+            chatHud.refresh();
+        }
+        return applied;
+    }
+
+    private static boolean rewrite(List<ChatHudLine> lines, Text shown, Text replacement, int tick) {
+        int limit = Math.min(lines.size(), REWRITE_SCAN_LIMIT);
+        for (int i = 0; i < limit; i++) {
+            ChatHudLine existing = lines.get(i);
+            if (existing.content() == shown) {
+                lines.set(i, new ChatHudLine(tick, replacement, existing.signature(), existing.indicator()));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Lines still waiting for a tick with spare budget. */
+    public int pending() {
+        return pending.size();
+    }
+
+    public int pending(ChatMessage.Priority priority) {
+        return pending.size(priority.ordinal());
+    }
+
+    /** Lines and rewrites dropped because {@code maxPending} of them were already waiting. */
+    public long dropped() {
+        return pending.dropped() + droppedUpdates.sum();
+    }
+
+    /** Lines carried over at the end of the most recent delivery tick. */
+    public int lastDeferred() {
+        return lastDeferred;
+    }
+
+    /** Sum of carried-over lines across all ticks; a line deferred twice counts twice. */
+    public long deferredTotal() {
+        return deferredTotal.get();
+    }
+
+    public long deliveredTotal() {
+        return deliveredTotal.get();
+    }
+}
@@ -0,0 +1,209 @@
+package com.wooldrum.chattermod.pipeline;
+
+import com.wooldrum.chattermod.ChatterMod;
+import com.wooldrum.chattermod.ChatterModConfig;
+import com.wooldrum.chattermod.metrics.Counter;
+import com.wooldrum.chattermod.platform.ChatMessage;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Blocks, masks and highlights messages by keyword and regex rules. All literal terms are
+ * compiled into one {@link TermAutomaton}, so a message is scanned once however long the
+ * lists get. Regex rules are batched per action into a single alternation, so each action
+ * costs at most one regex pass. Rules with numbered back-references, which would break when
+ * renumbered inside the alternation, and rules reusing a group name already in the batch,
+ * which the alternation could not declare twice, run on their own.
+ * <p>
+ * Rules are rebuilt on reload and swapped in atomically. {@link #apply} must only be called
+ * from the message processor thread; {@link #compile}, {@link #evaluate} and {@link #mask}
+ * are safe anywhere.
+ */
+public class ChatRules {
+
+    public enum Action {
+        BLOCK,
+        MASK,
+        HIGHLIGHT;
+
+        public int bit() {
+            return 1 << ordinal();
+        }
+    }
+
+    public static final int BLOCK = Action.BLOCK.bit();
+    public static final int MASK = Action.MASK.bit();
+    public static final int HIGHLIGHT = Action.HIGHLIGHT.bit();
+
+    private static final char MASK_CHAR = '*';
+    private static final Pattern BACK_REFERENCE = Pattern.compile("\\\\[1-9]");
+    private static final Pattern NAMED_GROUP = Pattern.compile("\\(\\?<([a-zA-Z][a-zA-Z0-9]*)>");
+    private static final int REGEX_FLAGS = Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+
+    private static final Counter BLOCKED = ChatterMod.METRICS.counter("rules.blocked");
+    private static final Counter MASKED = ChatterMod.METRICS.counter("rules.masked");
+    private static final Counter HIGHLIGHTED = ChatterMod.METRICS.counter("rules.highlighted");
+
+    private volatile Compiled compiled = Compiled.EMPTY;
+    private boolean lastHighlighted;
+
+    /** Builds the rules from {@code config}; large rule lists take a while, so not on the client thread. */
+    public synchronized void compile(ChatterModConfig config) {
+        this.compiled = config.filterEnabled ? Compiled.of(config.filterRules, config.filterWholeWords) : Compiled.EMPTY;
+    }
+
+    /**
+     * Returns null if the message is blocked, otherwise the message with any masked terms
+     * starred out. {@link #lastHighlighted()} then tells whether it should stand out.
+     */
+    public ChatMessage apply(ChatMessage msg) {
+        lastHighlighted = false;
+        Compiled rules = compiled;
+        if (rules.isEmpty()) return msg;
+
+        int verdict = rules.evaluate(msg.message());
+        if ((verdict & BLOCK) != 0) {
+            BLOCKED.increment();
+            return null;
+        }
+        if ((verdict & MASK) != 0) {
+            MASKED.increment();
+            msg = msg.withMessage(rules.mask(msg.message()));
+        }
+        if ((verdict & HIGHLIGHT) != 0) {
+            HIGHLIGHTED.increment();
+            lastHighlighted = true;
+        }
+        return msg;
+    }
+
+    public boolean lastHighlighted() {
+        return lastHighlighted;
+    }
+
+    /** The action bits that apply to {@code text}; a block stops the scan early. */
+    public int evaluate(String text) {
+        return compiled.evaluate(text);
+    }
+
+    public String mask(String text) {
+        return compiled.mask(text);
+    }
+
+    /** Checks a regex the way it will be compiled, returning the error or null if it is valid. */
+    public static String validateRegex(String regex) {
+        try {
+            Pattern.compile(regex, REGEX_FLAGS);
+            return null;
+        } catch (PatternSyntaxException e) {
+            return e.getDescription();
+        }
+    }
+
+    private record Compiled(TermAutomaton terms, Map<Action, List<Pattern>> regexes) {
+
+        static final Compiled EMPTY = new Compiled(TermAutomaton.build(Map.of(), false), Map.of());
+
+        static Compiled of(List<ChatterModConfig.FilterRule> rules, boolean wholeWords) {
+            Map<String, Integer> terms = new HashMap<>();
+            Map<Action, List<String>> batched = new EnumMap<>(Action.class);
+            Map<Action, Set<String>> batchedGroups = new EnumMap<>(Action.class);
+            Map<Action, List<Pattern>> regexes = new EnumMap<>(Action.class);
+            for (ChatterModConfig.FilterRule rule : rules) {
+                if (!rule.regex()) {
+                    terms.merge(rule.pattern(), rule.action().bit(), (a, b) -> a | b);
+                    continue;
+                }
+                String error = validateRegex(rule.pattern());
+                if (error != null) {
+                    ChatterMod.LOGGER.warn("Skipping invalid filter regex '{}': {}", rule.pattern(), error);
+                } else if (BACK_REFERENCE.matcher(rule.pattern()).find()
+                        || !claimGroupNames(rule.pattern(), batchedGroups.computeIfAbsent(rule.action(), a -> new HashSet<>()))) {
+                    regexes.computeIfAbsent(rule.action(), a -> new ArrayList<>()).add(Pattern.compile(rule.pattern(), REGEX_FLAGS));
+                } else {
+                    batched.computeIfAbsent(rule.action(), a -> new ArrayList<>()).add(rule.pattern());
+                }
+            }
+            for (Map.Entry<Action, List<String>> entry : batched.entrySet()) {
+                StringBuilder alternation = new StringBuilder();
+                for (String regex : entry.getValue()) {
+                    if (!alternation.isEmpty()) alternation.append('|');
+                    // Inline flags such as (?-i) stay scoped to their own group.
+                    alternation.append("(?:").append(regex).append(')');
+                }
+                regexes.computeIfAbsent(entry.getKey(), a -> new ArrayList<>())
+                        .add(0, Pattern.compile(alternation.toString(), REGEX_FLAGS));
+            }
+            return new Compiled(TermAutomaton.build(terms, wholeWords), regexes);
+        }
+
+        /**
+         * Adds the named groups {@code regex} declares to {@code taken}, or returns false and
+         * leaves {@code taken} alone if one of the names is already there.
+         */
+        private static boolean claimGroupNames(String regex, Set<String> taken) {
+            List<String> names = new ArrayList<>();
+            Matcher m = NAMED_GROUP.matcher(regex);
+            while (m.find()) {
+                if (taken.contains(m.group(1))) return false;
+                names.add(m.group(1));
+            }
+            taken.addAll(names);
+            return true;
+        }
+
+        boolean isEmpty() {
+            return terms.isEmpty() && regexes.isEmpty();
+        }
+
+        int evaluate(String text) {
+            int verdict = terms.scan(text, BLOCK);
+            if ((verdict & BLOCK) != 0) return verdict;
+            // Regex passes only run for actions the terms have not already settled.
+            for (Action action : Action.values()) {
+                if ((verdict & action.bit()) != 0) continue;
+                List<Pattern> patterns = regexes.get(action);
+                if (patterns == null) continue;
+                for (Pattern pattern : patterns) {
+                    if (pattern.matcher(text).find()) {
+                        verdict |= action.bit();
+                        if (action == Action.BLOCK) return verdict;
+                        break;
+                    }
+                }
+            }
+            return verdict;
+        }
+
+        String mask(String text) {
+            String result = terms.mask(text, MASK, MASK_CHAR);
+            List<Pattern> patterns = regexes.get(Action.MASK);
+            if (patterns == null) return result;
+            for (Pattern pattern : patterns) {
+                Matcher m = pattern.matcher(result);
+                if (!m.find()) continue;
+                StringBuilder sb = new StringBuilder(result.length());
+                int from = 0;
+                do {
+                    sb.append(result, from, m.start());
+                    for (int i = m.start(); i < m.end(); i++) {
+                        char c = result.charAt(i);
+                        sb.append(Character.isWhitespace(c) ? c : MASK_CHAR);
+                    }
+                    from = m.end();
+                } while (m.find());
+                result = sb.append(result, from, result.length()).toString();
+            }
+            return result;
+        }
+    }
+}
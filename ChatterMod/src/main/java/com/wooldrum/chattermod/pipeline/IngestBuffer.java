@@ -0,0 +1,182 @@
+package com.wooldrum.chattermod.pipeline;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded lock-free ring buffer between the platform callbacks and the message processor.
+ * Slots carry sequence numbers (Vyukov style) so any number of producers can publish
+ * without locks; {@link #offer} never blocks and resolves a full buffer according to the
+ * current {@link OverloadPolicy}. Only one thread may call {@link #take}.
+ */
+public class IngestBuffer<T> {
+
+    public enum OverloadPolicy {
+        /** Evict the oldest buffered item to make room for the new one. */
+        DROP_OLDEST,
+        /** Reject the incoming item. */
+        DROP_NEWEST,
+        /** Once half full, admit only one in every N items; reject when full. */
+        SAMPLE
+    }
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong sampleTicket = new AtomicLong();
+
+    private final LongAdder droppedOldest = new LongAdder();
+    private final LongAdder droppedNewest = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+
+    private volatile OverloadPolicy policy;
+    private volatile int sampleRate;
+    private volatile Thread waitingConsumer;
+
+    public IngestBuffer(int requestedCapacity, OverloadPolicy policy, int sampleRate) {
+        int cap = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.capacity = cap;
+        this.mask = cap - 1;
+        this.slots = new AtomicReferenceArray<>(cap);
+        this.sequences = new AtomicLongArray(cap);
+        for (int i = 0; i < cap; i++) {
+            sequences.set(i, i);
+        }
+        setOverloadPolicy(policy, sampleRate);
+    }
+
+    public void setOverloadPolicy(OverloadPolicy policy, int sampleRate) {
+        this.policy = policy;
+        this.sampleRate = Math.max(1, sampleRate);
+    }
+
+    /**
+     * Publishes an item without blocking. Returns false if the item itself was dropped;
+     * under {@link OverloadPolicy#DROP_OLDEST} the item is always admitted.
+     */
+    public boolean offer(T item) {
+        return offer(item, false);
+    }
+
+    /**
+     * Like {@link #offer(Object)}, but with {@code keep} set the item is never sampled out or
+     * rejected: a full buffer evicts its oldest item whatever the policy.
+     */
+    public boolean offer(T item, boolean keep) {
+        OverloadPolicy current = keep ? OverloadPolicy.DROP_OLDEST : policy;
+        if (current == OverloadPolicy.SAMPLE && size() >= capacity >> 1
+                && sampleTicket.getAndIncrement() % sampleRate != 0) {
+            sampledOut.increment();
+            return false;
+        }
+        while (!tryEnqueue(item)) {
+            if (current != OverloadPolicy.DROP_OLDEST) {
+                droppedNewest.increment();
+                return false;
+            }
+            if (poll() != null) {
+                droppedOldest.increment();
+            }
+        }
+        Thread waiter = waitingConsumer;
+        if (waiter != null) {
+            LockSupport.unpark(waiter);
+        }
+        return true;
+    }
+
+    public T poll() {
+        long pos = head.get();
+        for (;;) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    T item = slots.get(index);
+                    slots.lazySet(index, null);
+                    sequences.set(index, pos + capacity);
+                    return item;
+                }
+                pos = head.get();
+            } else if (diff < 0) {
+                return null;
+            } else {
+                pos = head.get();
+            }
+        }
+    }
+
+    /** Waits for the next item. Must only be called from the single consumer thread. */
+    public T take() throws InterruptedException {
+        T item;
+        while ((item = poll()) == null) {
+            waitingConsumer = Thread.currentThread();
+            item = poll();
+            if (item != null) {
+                waitingConsumer = null;
+                return item;
+            }
+            LockSupport.park(this);
+            waitingConsumer = null;
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+        return item;
+    }
+
+    private boolean tryEnqueue(T item) {
+        long pos = tail.get();
+        for (;;) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots.set(index, item);
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(capacity, size));
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public OverloadPolicy overloadPolicy() {
+        return policy;
+    }
+
+    public long droppedOldest() {
+        return droppedOldest.sum();
+    }
+
+    public long droppedNewest() {
+        return droppedNewest.sum();
+    }
+
+    public long sampledOut() {
+        return sampledOut.sum();
+    }
+
+    public long droppedTotal() {
+        return droppedOldest.sum() + droppedNewest.sum() + sampledOut.sum();
+    }
+}
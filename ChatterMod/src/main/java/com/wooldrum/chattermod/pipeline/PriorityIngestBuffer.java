@@ -0,0 +1,108 @@
+package com.wooldrum.chattermod.pipeline;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * One {@link IngestBuffer} per priority lane, lane 0 highest, so a flood in a low lane can
+ * only ever evict items from that same lane. The lowest lane follows the configured
+ * {@link IngestBuffer.OverloadPolicy}; the lanes above it are never sampled out or rejected
+ * and, when full, only evict their own oldest items. {@link #take} serves the highest
+ * non-empty lane first. Any number of threads may {@link #offer}; only one may {@link #take}.
+ */
+public class PriorityIngestBuffer<T> {
+
+    private final IngestBuffer<T>[] lanes;
+    private volatile Thread waitingConsumer;
+
+    /** @param capacity the capacity of each lane */
+    @SuppressWarnings("unchecked")
+    public PriorityIngestBuffer(int laneCount, int capacity, IngestBuffer.OverloadPolicy policy, int sampleRate) {
+        this.lanes = new IngestBuffer[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new IngestBuffer<>(capacity, policy, sampleRate);
+        }
+    }
+
+    /** Applies to the lowest lane; the others always keep their newest items. */
+    public void setOverloadPolicy(IngestBuffer.OverloadPolicy policy, int sampleRate) {
+        lanes[lanes.length - 1].setOverloadPolicy(policy, sampleRate);
+    }
+
+    /** Publishes {@code item} on {@code lane} without blocking; returns false if it was dropped. */
+    public boolean offer(T item, int lane) {
+        boolean admitted = lanes[lane].offer(item, lane < lanes.length - 1);
+        Thread waiter = waitingConsumer;
+        if (admitted && waiter != null) {
+            LockSupport.unpark(waiter);
+        }
+        return admitted;
+    }
+
+    public T poll() {
+        for (IngestBuffer<T> lane : lanes) {
+            T item = lane.poll();
+            if (item != null) return item;
+        }
+        return null;
+    }
+
+    /** Waits for the next item. Must only be called from the single consumer thread. */
+    public T take() throws InterruptedException {
+        T item;
+        while ((item = poll()) == null) {
+            waitingConsumer = Thread.currentThread();
+            item = poll();
+            if (item != null) {
+                waitingConsumer = null;
+                return item;
+            }
+            LockSupport.park(this);
+            waitingConsumer = null;
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+        return item;
+    }
+
+    public int size() {
+        int size = 0;
+        for (IngestBuffer<T> lane : lanes) {
+            size += lane.size();
+        }
+        return size;
+    }
+
+    public int size(int lane) {
+        return lanes[lane].size();
+    }
+
+    public long droppedOldest() {
+        long dropped = 0;
+        for (IngestBuffer<T> lane : lanes) {
+            dropped += lane.droppedOldest();
+        }
+        return dropped;
+    }
+
+    public long droppedNewest() {
+        long dropped = 0;
+        for (IngestBuffer<T> lane : lanes) {
+            dropped += lane.droppedNewest();
+        }
+        return dropped;
+    }
+
+    public long sampledOut() {
+        long dropped = 0;
+        for (IngestBuffer<T> lane : lanes) {
+            dropped += lane.sampledOut();
+        }
+        return dropped;
+    }
+
+    /** Items dropped from {@code lane}, whatever the reason. */
+    public long dropped(int lane) {
+        return lanes[lane].droppedTotal();
+    }
+}
@@ -0,0 +1,115 @@
+package com.wooldrum.chattermod.pipeline;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One FIFO per priority lane, lane 0 highest. The first {@code guaranteedLanes} lanes are
+ * strict: they are always served before anything else. Below them, a lane's head is
+ * promoted one lane for every {@code agingNanos} it has waited, so busy subscriber traffic
+ * cannot starve ordinary chat forever. When more than {@code capacity} items are queued,
+ * the oldest items of the lowest non-empty lane are dropped, so strict lanes only lose
+ * items once they alone fill the capacity.
+ * <p>
+ * Any number of threads may {@link #offer}; only one may {@link #poll}.
+ */
+public class PriorityLanes<T> {
+
+    private record Entry<T>(T item, long enqueuedAt) {}
+
+    private final Queue<Entry<T>>[] lanes;
+    private final AtomicInteger[] sizes;
+    private final AtomicInteger total = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+    private final int guaranteedLanes;
+
+    private volatile int capacity;
+    private volatile long agingNanos;
+
+    @SuppressWarnings("unchecked")
+    public PriorityLanes(int laneCount, int guaranteedLanes, int capacity, long agingNanos) {
+        this.lanes = new Queue[laneCount];
+        this.sizes = new AtomicInteger[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new ConcurrentLinkedQueue<>();
+            sizes[i] = new AtomicInteger();
+        }
+        this.guaranteedLanes = Math.min(guaranteedLanes, laneCount - 1);
+        setLimits(capacity, agingNanos);
+    }
+
+    public void setLimits(int capacity, long agingNanos) {
+        this.capacity = Math.max(1, capacity);
+        this.agingNanos = Math.max(1, agingNanos);
+    }
+
+    /** Queues {@code item} on {@code lane}, then trims from the lowest lanes up while over capacity. */
+    public void offer(T item, int lane, long nowNanos) {
+        lanes[lane].add(new Entry<>(item, nowNanos));
+        sizes[lane].incrementAndGet();
+        total.incrementAndGet();
+
+        int victim = lanes.length - 1;
+        while (total.get() > capacity && victim >= 0) {
+            if (lanes[victim].poll() == null) {
+                victim--;
+                continue;
+            }
+            sizes[victim].decrementAndGet();
+            total.decrementAndGet();
+            dropped.increment();
+        }
+    }
+
+    /**
+     * The next item to deliver, or null. With {@code guaranteedOnly} only the strict lanes
+     * are considered, e.g. once a tick's time budget is spent.
+     */
+    public T poll(long nowNanos, boolean guaranteedOnly) {
+        for (int i = 0; i < guaranteedLanes; i++) {
+            T item = pollLane(i);
+            if (item != null) return item;
+        }
+        if (guaranteedOnly) return null;
+
+        int best = -1;
+        long bestRank = Long.MAX_VALUE;
+        long bestEnqueuedAt = Long.MAX_VALUE;
+        long aging = agingNanos;
+        for (int i = guaranteedLanes; i < lanes.length; i++) {
+            Entry<T> head = lanes[i].peek();
+            if (head == null) continue;
+            long rank = Math.max(guaranteedLanes, i - (nowNanos - head.enqueuedAt()) / aging);
+            // Equal ranks go to whichever head has waited longer.
+            if (rank < bestRank || (rank == bestRank && head.enqueuedAt() - bestEnqueuedAt < 0)) {
+                best = i;
+                bestRank = rank;
+                bestEnqueuedAt = head.enqueuedAt();
+            }
+        }
+        return best < 0 ? null : pollLane(best);
+    }
+
+    private T pollLane(int lane) {
+        Entry<T> entry = lanes[lane].poll();
+        if (entry == null) return null;
+        sizes[lane].decrementAndGet();
+        total.decrementAndGet();
+        return entry.item();
+    }
+
+    public int size() {
+        return total.get();
+    }
+
+    public int size(int lane) {
+        return sizes[lane].get();
+    }
+
+    /** Items dropped because the lanes were full. */
+    public long dropped() {
+        return dropped.sum();
+    }
+}
@@ -0,0 +1,201 @@
+package com.wooldrum.chattermod.pipeline;
+
+import com.wooldrum.chattermod.ChatterModConfig;
+import com.wooldrum.chattermod.platform.ChatMessage;
+
+/**
+ * Collapses bursts of identical messages in one channel and rate-limits chatty authors.
+ * The same text in two channels is two bursts, since each is shown with its own tag. A
+ * repeat of a burst only bumps the count on a line already shown, so it is counted even
+ * when its author is over the limit; the limit applies to messages that would add a line.
+ * Both
+ * use fixed-size open-addressing tables of primitive arrays keyed by 64-bit hashes, so the
+ * per-message path allocates nothing. Slots expire by time instead of being deleted, and
+ * probing is bounded; when a neighbourhood is full of live entries the message is simply
+ * treated as unique. Must only be used from the message processor thread.
+ */
+public class SpamFilter {
+
+    /** Returned by {@link #process} when the author is over the rate limit. */
+    public static final int RATE_LIMITED = 0;
+
+    private static final int TABLE_SIZE = 4096;
+    private static final int MAX_PROBE = 16;
+
+    private final long[] burstKeys = new long[TABLE_SIZE];
+    private final long[] burstLastSeen = new long[TABLE_SIZE];
+    private final int[] burstCounts = new int[TABLE_SIZE];
+
+    private final long[] authorKeys = new long[TABLE_SIZE];
+    private final long[] authorWindowStart = new long[TABLE_SIZE];
+    private final int[] authorCounts = new int[TABLE_SIZE];
+
+    private volatile boolean enabled;
+    private volatile long burstWindowNanos;
+    private volatile int authorMaxMessages;
+    private volatile long authorWindowNanos;
+
+    private long lastKey;
+    // Slot countBurst last started a new burst in, or -1.
+    private int newBurstSlot = -1;
+    private volatile long rateLimited;
+    private volatile long coalesced;
+
+    public void configure(ChatterModConfig config) {
+        this.enabled = config.spamEnabled;
+        this.burstWindowNanos = config.spamWindowSeconds * 1_000_000_000L;
+        this.authorMaxMessages = config.spamAuthorMaxMessages;
+        this.authorWindowNanos = config.spamAuthorWindowSeconds * 1_000_000_000L;
+    }
+
+    /**
+     * Returns {@link #RATE_LIMITED}, 1 for a message not seen in the current window, or how
+     * many times it has now been seen. {@link #lastKey()} then identifies its burst.
+     */
+    public int process(ChatMessage msg) {
+        lastKey = 0;
+        if (!enabled) return 1;
+        long now = System.nanoTime();
+
+        long key = messageHash(msg);
+        int count = countBurst(key, now);
+        if (count > 1) {
+            lastKey = key;
+            coalesced++;
+            return count;
+        }
+
+        if (authorMaxMessages > 0 && !admitAuthor(authorHash(msg), now)) {
+            // Nothing was shown, so the next copy from someone else starts the burst afresh.
+            if (newBurstSlot >= 0) burstLastSeen[newBurstSlot] = expired(now);
+            rateLimited++;
+            return RATE_LIMITED;
+        }
+        lastKey = key;
+        return 1;
+    }
+
+    /** Non-zero identifier of the burst the last processed message belongs to; 0 when disabled. */
+    public long lastKey() {
+        return lastKey;
+    }
+
+    public long rateLimited() {
+        return rateLimited;
+    }
+
+    public long coalesced() {
+        return coalesced;
+    }
+
+    private int countBurst(long key, long now) {
+        long window = burstWindowNanos;
+        int start = slot(key);
+        int free = -1;
+        newBurstSlot = -1;
+        for (int i = 0; i < MAX_PROBE; i++) {
+            int s = (start + i) & (TABLE_SIZE - 1);
+            long lastSeen = burstLastSeen[s];
+            boolean live = lastSeen != 0 && now - lastSeen <= window;
+            if (live && burstKeys[s] == key) {
+                burstLastSeen[s] = now;
+                return ++burstCounts[s];
+            }
+            if (!live) {
+                if (free < 0) free = s;
+                if (lastSeen == 0) break;
+            }
+        }
+        if (free >= 0) {
+            burstKeys[free] = key;
+            burstLastSeen[free] = now;
+            burstCounts[free] = 1;
+            newBurstSlot = free;
+        }
+        return 1;
+    }
+
+    /** A last-seen time outside the window that is still non-zero, so probing continues past the slot. */
+    private long expired(long now) {
+        long stale = now - burstWindowNanos - 1;
+        return stale == 0 ? -1 : stale;
+    }
+
+    private boolean admitAuthor(long key, long now) {
+        long window = authorWindowNanos;
+        int start = slot(key);
+        int free = -1;
+        for (int i = 0; i < MAX_PROBE; i++) {
+            int s = (start + i) & (TABLE_SIZE - 1);
+            long windowStart = authorWindowStart[s];
+            boolean live = windowStart != 0 && now - windowStart <= window;
+            if (live && authorKeys[s] == key) {
+                return ++authorCounts[s] <= authorMaxMessages;
+            }
+            if (!live) {
+                if (free < 0) free = s;
+                if (windowStart == 0) break;
+            }
+        }
+        if (free >= 0) {
+            authorKeys[free] = key;
+            authorWindowStart[free] = now;
+            authorCounts[free] = 1;
+        }
+        return true;
+    }
+
+    private static int slot(long key) {
+        return (int) (key ^ (key >>> 32)) & (TABLE_SIZE - 1);
+    }
+
+    /**
+     * FNV-1a over the platform, the channel and the trimmed, case-folded text with whitespace
+     * runs collapsed.
+     */
+    static long messageHash(ChatMessage msg) {
+        long h = 0xcbf29ce484222325L ^ msg.platform().ordinal();
+        String channel = msg.channel();
+        if (channel != null) {
+            for (int i = 0, n = channel.length(); i < n; i++) {
+                h = (h ^ channel.charAt(i)) * 0x100000001b3L;
+            }
+        }
+        // Keeps channel "ab" with text "c" apart from channel "a" with text "bc".
+        h = (h ^ '\n') * 0x100000001b3L;
+
+        String text = msg.message();
+        boolean pendingSpace = false;
+        boolean started = false;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = started;
+                continue;
+            }
+            if (pendingSpace) {
+                h = (h ^ ' ') * 0x100000001b3L;
+                pendingSpace = false;
+            }
+            h = (h ^ Character.toLowerCase(c)) * 0x100000001b3L;
+            started = true;
+        }
+        return mix(h) | 1;
+    }
+
+    private static long authorHash(ChatMessage msg) {
+        long h = 0xcbf29ce484222325L ^ msg.platform().ordinal();
+        String author = msg.author();
+        for (int i = 0, n = author.length(); i < n; i++) {
+            h = (h ^ author.charAt(i)) * 0x100000001b3L;
+        }
+        return mix(h) | 1;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
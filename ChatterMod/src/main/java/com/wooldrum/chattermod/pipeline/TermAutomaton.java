@@ -0,0 +1,199 @@
+package com.wooldrum.chattermod.pipeline;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Aho-Corasick automaton over case-folded literal terms: one pass over a message finds
+ * every term in it, however many terms there are. Each term carries a set of action bits.
+ * Edges are stored in flat sorted arrays per state and searched by binary search, so a
+ * scan allocates nothing. Immutable once built and safe to share between threads.
+ */
+final class TermAutomaton {
+
+    private final int[] edgeStart;
+    private final char[] edgeChars;
+    private final int[] edgeTargets;
+    private final int[] fail;
+    // Nearest state on the failure chain (including itself) that ends a term, or -1.
+    private final int[] output;
+    private final int[] depth;
+    private final int[] actions;
+    private final boolean wholeWords;
+
+    private TermAutomaton(int[] edgeStart, char[] edgeChars, int[] edgeTargets, int[] fail,
+                          int[] output, int[] depth, int[] actions, boolean wholeWords) {
+        this.edgeStart = edgeStart;
+        this.edgeChars = edgeChars;
+        this.edgeTargets = edgeTargets;
+        this.fail = fail;
+        this.output = output;
+        this.depth = depth;
+        this.actions = actions;
+        this.wholeWords = wholeWords;
+    }
+
+    /**
+     * @param terms      term to action bits; blank terms are ignored
+     * @param wholeWords only match terms not embedded in a longer word
+     */
+    static TermAutomaton build(Map<String, Integer> terms, boolean wholeWords) {
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<Integer> termActions = new ArrayList<>();
+        List<Integer> depths = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        termActions.add(0);
+        depths.add(0);
+
+        for (Map.Entry<String, Integer> term : terms.entrySet()) {
+            String text = term.getKey().strip();
+            if (text.isEmpty()) continue;
+            int state = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = fold(text.charAt(i));
+                Integer next = trie.get(state).get(c);
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new TreeMap<>());
+                    termActions.add(0);
+                    depths.add(depths.get(state) + 1);
+                    trie.get(state).put(c, next);
+                }
+                state = next;
+            }
+            termActions.set(state, termActions.get(state) | term.getValue());
+        }
+
+        int states = trie.size();
+        int[] edgeStart = new int[states + 1];
+        int edgeCount = 0;
+        for (int s = 0; s < states; s++) {
+            edgeStart[s] = edgeCount;
+            edgeCount += trie.get(s).size();
+        }
+        edgeStart[states] = edgeCount;
+        char[] edgeChars = new char[edgeCount];
+        int[] edgeTargets = new int[edgeCount];
+        for (int s = 0, e = 0; s < states; s++) {
+            for (Map.Entry<Character, Integer> edge : trie.get(s).entrySet()) {
+                edgeChars[e] = edge.getKey();
+                edgeTargets[e] = edge.getValue();
+                e++;
+            }
+        }
+
+        int[] actions = new int[states];
+        int[] depth = new int[states];
+        for (int s = 0; s < states; s++) {
+            actions[s] = termActions.get(s);
+            depth[s] = depths.get(s);
+        }
+
+        // Breadth-first, so every failure target is finished before it is needed.
+        int[] fail = new int[states];
+        int[] output = new int[states];
+        output[0] = -1;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int e = edgeStart[0]; e < edgeStart[1]; e++) {
+            int child = edgeTargets[e];
+            fail[child] = 0;
+            output[child] = actions[child] != 0 ? child : -1;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int s = queue.poll();
+            for (int e = edgeStart[s]; e < edgeStart[s + 1]; e++) {
+                int child = edgeTargets[e];
+                char c = edgeChars[e];
+                int f = fail[s];
+                int target;
+                while ((target = step(edgeStart, edgeChars, edgeTargets, f, c)) < 0 && f != 0) {
+                    f = fail[f];
+                }
+                fail[child] = target < 0 ? 0 : target;
+                output[child] = actions[child] != 0 ? child : output[fail[child]];
+                queue.add(child);
+            }
+        }
+        return new TermAutomaton(edgeStart, edgeChars, edgeTargets, fail, output, depth, actions, wholeWords);
+    }
+
+    boolean isEmpty() {
+        return edgeChars.length == 0;
+    }
+
+    /**
+     * Returns the union of the action bits of every term found in {@code text}, stopping
+     * early once all of {@code stopBits} have been seen.
+     */
+    int scan(CharSequence text, int stopBits) {
+        if (isEmpty()) return 0;
+        int found = 0;
+        int state = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            state = next(state, fold(text.charAt(i)));
+            for (int t = output[state]; t >= 0; t = output[fail[t]]) {
+                if (matches(text, i + 1 - depth[t], i + 1)) {
+                    found |= actions[t];
+                    if (stopBits != 0 && (found & stopBits) == stopBits) return found;
+                }
+            }
+        }
+        return found;
+    }
+
+    /** Replaces every character of every term carrying {@code action} with {@code mask}. */
+    String mask(String text, int action, char mask) {
+        if (isEmpty()) return text;
+        char[] chars = null;
+        int state = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            state = next(state, fold(text.charAt(i)));
+            for (int t = output[state]; t >= 0; t = output[fail[t]]) {
+                int start = i + 1 - depth[t];
+                if ((actions[t] & action) != 0 && matches(text, start, i + 1)) {
+                    if (chars == null) chars = text.toCharArray();
+                    for (int j = start; j <= i; j++) {
+                        if (!Character.isWhitespace(chars[j])) chars[j] = mask;
+                    }
+                }
+            }
+        }
+        return chars == null ? text : new String(chars);
+    }
+
+    private boolean matches(CharSequence text, int start, int end) {
+        if (!wholeWords) return true;
+        return (start == 0 || !Character.isLetterOrDigit(text.charAt(start - 1)))
+                && (end == text.length() || !Character.isLetterOrDigit(text.charAt(end)));
+    }
+
+    private int next(int state, char c) {
+        while (true) {
+            int target = step(edgeStart, edgeChars, edgeTargets, state, c);
+            if (target >= 0) return target;
+            if (state == 0) return 0;
+            state = fail[state];
+        }
+    }
+
+    private static int step(int[] edgeStart, char[] edgeChars, int[] edgeTargets, int state, char c) {
+        int lo = edgeStart[state];
+        int hi = edgeStart[state + 1] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            char m = edgeChars[mid];
+            if (m < c) lo = mid + 1;
+            else if (m > c) hi = mid - 1;
+            else return edgeTargets[mid];
+        }
+        return -1;
+    }
+
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+}
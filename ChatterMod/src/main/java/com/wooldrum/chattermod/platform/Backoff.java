@@ -0,0 +1,31 @@
+package com.wooldrum.chattermod.platform;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with equal jitter: each delay is picked from the upper half of the
+ * current window so many reconnecting clients spread out without ever retrying instantly.
+ */
+final class Backoff {
+
+    private final long baseMillis;
+    private final long maxMillis;
+    private int attempt;
+
+    Backoff(Duration base, Duration max) {
+        this.baseMillis = base.toMillis();
+        this.maxMillis = max.toMillis();
+    }
+
+    long nextDelayMillis() {
+        long window = Math.min(maxMillis, baseMillis << Math.min(attempt, 20));
+        attempt++;
+        long half = window / 2;
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+
+    void reset() {
+        attempt = 0;
+    }
+}
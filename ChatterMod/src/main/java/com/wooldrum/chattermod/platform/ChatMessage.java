@@ -1,9 +1,100 @@
 package com.wooldrum.chattermod.platform;
 
-public record ChatMessage(String author, String message, Platform platform) {
+import java.util.Map;
+
+/**
+ * @param channel    the source the message came from: a Twitch channel name or a YouTube channel ID
+ * @param receivedAt {@link System#nanoTime()} when the message entered the mod, for latency metrics
+ * @param priority   which delivery lane the message takes when chat is busier than the HUD can show
+ * @param metadata   extra facts about the message, keyed by the constants below; usually empty
+ */
+public record ChatMessage(String author, String message, Platform platform, String channel, long receivedAt,
+                          Priority priority, Map<String, String> metadata) {
     public enum Platform {
         YOUTUBE,
         TWITCH,
         KICK
     }
+
+    /** Highest first. Under overload the delivery lanes drop from the lowest priority up. */
+    public enum Priority {
+        /** Super Chats, Super Stickers and cheers. */
+        PAID,
+        /** Channel owners and moderators. */
+        MODERATOR,
+        /** Subscribers, members and VIPs. */
+        SUBSCRIBER,
+        NORMAL;
+
+        private static final String[] MODERATOR_BADGES = {"broadcaster", "owner", "moderator"};
+        private static final String[] SUBSCRIBER_BADGES = {"subscriber", "founder", "member", "vip", "og"};
+
+        /** The lane a comma-separated badge list earns, using the badge names all platforms share. */
+        public static Priority forBadges(String badges) {
+            return badges == null ? NORMAL : forBadges(badges, 0, badges.length());
+        }
+
+        /**
+         * Like {@link #forBadges(String)} for the list in {@code badges[from, to)}, read in place.
+         * A {@code /version} suffix on a badge, as in Twitch's {@code badges} tag, is ignored.
+         */
+        public static Priority forBadges(CharSequence badges, int from, int to) {
+            Priority best = NORMAL;
+            int i = from;
+            while (i < to) {
+                int nameEnd = i;
+                while (nameEnd < to && badges.charAt(nameEnd) != ',' && badges.charAt(nameEnd) != '/') nameEnd++;
+                if (isAny(badges, i, nameEnd, MODERATOR_BADGES)) return MODERATOR;
+                if (isAny(badges, i, nameEnd, SUBSCRIBER_BADGES)) best = SUBSCRIBER;
+                i = nameEnd;
+                while (i < to && badges.charAt(i) != ',') i++;
+                i++;
+            }
+            return best;
+        }
+
+        private static boolean isAny(CharSequence s, int from, int to, String[] names) {
+            for (String name : names) {
+                if (to - from != name.length()) continue;
+                int i = 0;
+                while (i < name.length() && s.charAt(from + i) == name.charAt(i)) i++;
+                if (i == name.length()) return true;
+            }
+            return false;
+        }
+    }
+
+    /** The paid amount as the platform displays it, e.g. {@code $5.00} or {@code 100 bits}. */
+    public static final String AMOUNT = "amount";
+    /** Comma-separated badge names, e.g. {@code moderator,subscriber}. */
+    public static final String BADGES = "badges";
+    /** Alt text of a Super Sticker. */
+    public static final String STICKER = "sticker";
+
+    public ChatMessage {
+        metadata = Map.copyOf(metadata);
+    }
+
+    public ChatMessage(String author, String message, Platform platform, String channel, long receivedAt) {
+        this(author, message, platform, channel, receivedAt, Priority.NORMAL, Map.of());
+    }
+
+    public ChatMessage(String author, String message, Platform platform, String channel) {
+        this(author, message, platform, channel, System.nanoTime());
+    }
+
+    public ChatMessage(String author, String message, Platform platform, String channel,
+                       Priority priority, Map<String, String> metadata) {
+        this(author, message, platform, channel, System.nanoTime(), priority, metadata);
+    }
+
+    /** The same message with different text, e.g. after masking. */
+    public ChatMessage withMessage(String message) {
+        return new ChatMessage(author, message, platform, channel, receivedAt, priority, metadata);
+    }
+
+    /** A metadata value, or null. */
+    public String meta(String key) {
+        return metadata.get(key);
+    }
 }
@@ -2,8 +2,25 @@ package com.wooldrum.chattermod.platform;
 
 import java.util.function.Consumer;
 
+/**
+ * A chat source run by the {@link PlatformSupervisor}. Each connect/awaitDisconnect pair is
+ * one session; the supervisor decides when to start the next one.
+ */
 public interface ChatPlatform {
-    void connect();
-    void disconnect();
+    /** Used for log lines and thread names, e.g. {@code Twitch} or {@code YouTube/UC...}. */
+    String name();
+
     void onMessage(Consumer<ChatMessage> messageConsumer);
+
+    /** Opens a session, throwing if it cannot be established. */
+    void connect() throws Exception;
+
+    /**
+     * Blocks until the session ends. Returns normally once {@link #disconnect} was called and
+     * throws if the session failed.
+     */
+    void awaitDisconnect() throws Exception;
+
+    /** Closes the current session, if any. Safe to call repeatedly and from any thread. */
+    void disconnect();
 }
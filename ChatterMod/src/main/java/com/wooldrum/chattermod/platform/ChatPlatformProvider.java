@@ -0,0 +1,31 @@
+package com.wooldrum.chattermod.platform;
+
+import com.wooldrum.chattermod.ChatterModConfig;
+
+import java.net.http.HttpClient;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Declares the platforms one chat service wants for a given config. Providers are found
+ * through {@link java.util.ServiceLoader} and listed in
+ * {@code META-INF/services/com.wooldrum.chattermod.platform.ChatPlatformProvider}.
+ * <p>
+ * A provider must stay cheap to load: it may only mention its platform class inside the
+ * returned suppliers, so a service with no configured account never loads its client code.
+ */
+public interface ChatPlatformProvider {
+
+    /** Short lower-case id, e.g. {@code youtube}; also the first element of every key. */
+    String id();
+
+    /**
+     * One entry per platform instance this config calls for, keyed by every setting the
+     * instance is built from; an unchanged key on reload leaves the running platform alone.
+     * Returns an empty map when the service is not configured.
+     *
+     * @param http shared client for services that speak HTTP or WebSocket
+     */
+    Map<List<Object>, Supplier<ChatPlatform>> platforms(ChatterModConfig config, HttpClient http);
+}
@@ -0,0 +1,21 @@
+package com.wooldrum.chattermod.platform;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A platform that can also post to its chat. Sends go to the platform's primary channel
+ * and never block; rate limiting is the caller's job.
+ */
+public interface ChatSender {
+
+    ChatMessage.Platform platform();
+
+    /** The longest message the platform accepts, in characters. */
+    int maxMessageLength();
+
+    /** False while disconnected, or when the configured credentials cannot post. */
+    boolean canSend();
+
+    /** Completes once the platform accepted the message, or exceptionally with the reason it did not. */
+    CompletableFuture<Void> send(String text);
+}
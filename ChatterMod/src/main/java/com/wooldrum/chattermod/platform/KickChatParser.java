@@ -0,0 +1,210 @@
+package com.wooldrum.chattermod.platform;
+
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Map;
+import java.util.function.LongFunction;
+
+/**
+ * Reads Pusher frames from Kick's chat socket. {@link #parse} takes the envelope apart;
+ * for chat events {@link #chatMessage} then decodes the JSON string in {@code data}.
+ * Frames are read straight from the {@link CharSequence} they were assembled in, so a
+ * fragmented frame is never copied into a String first. Not thread-safe.
+ */
+public final class KickChatParser {
+
+    public static final String CONNECTION_ESTABLISHED = "pusher:connection_established";
+    public static final String PING = "pusher:ping";
+    public static final String ERROR = "pusher:error";
+    public static final String SUBSCRIPTION_SUCCEEDED = "pusher_internal:subscription_succeeded";
+    public static final String CHAT_MESSAGE = "App\\Events\\ChatMessageEvent";
+
+    private final CharSequenceReader frameReader = new CharSequenceReader();
+    private String event;
+    private String channel;
+    private String data;
+    private final StringBuilder senderBadges = new StringBuilder();
+
+    public void parse(CharSequence frame) throws IOException {
+        event = null;
+        channel = null;
+        data = null;
+        frameReader.reset(frame);
+
+        JsonReader reader = new JsonReader(frameReader);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "event" -> event = nextStringOrNull(reader);
+                case "channel" -> channel = nextStringOrNull(reader);
+                // Pusher double-encodes event payloads as strings; a few system events inline an object.
+                case "data" -> data = reader.peek() == JsonToken.STRING
+                        ? reader.nextString()
+                        : JsonParser.parseReader(reader).toString();
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    public String event() {
+        return event;
+    }
+
+    public String channel() {
+        return channel;
+    }
+
+    public String data() {
+        return data;
+    }
+
+    /**
+     * Decodes the current {@link #CHAT_MESSAGE} payload, naming the source through
+     * {@code channelForChatroom}. Returns null for non-text messages or unknown chatrooms.
+     */
+    public ChatMessage chatMessage(LongFunction<String> channelForChatroom) throws IOException {
+        if (data == null) return null;
+        long chatroomId = -1;
+        String type = null;
+        String content = null;
+        String username = null;
+        senderBadges.setLength(0);
+
+        JsonReader reader = new JsonReader(new StringReader(data));
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "chatroom_id" -> chatroomId = reader.nextLong();
+                case "type" -> type = nextStringOrNull(reader);
+                case "content" -> content = nextStringOrNull(reader);
+                case "sender" -> username = readSender(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (content == null || username == null) return null;
+        if (type != null && !type.equals("message") && !type.equals("reply")) return null;
+        String source = channelForChatroom.apply(chatroomId);
+        if (source == null) return null;
+        String text = stripEmotes(content);
+        if (senderBadges.isEmpty()) {
+            return new ChatMessage(username, text, ChatMessage.Platform.KICK, source);
+        }
+        String badges = senderBadges.toString();
+        return new ChatMessage(username, text, ChatMessage.Platform.KICK, source,
+                ChatMessage.Priority.forBadges(badges), Map.of(ChatMessage.BADGES, badges));
+    }
+
+    private String readSender(JsonReader reader) throws IOException {
+        String username = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "username" -> username = nextStringOrNull(reader);
+                case "identity" -> readIdentity(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return username;
+    }
+
+    /** {@code "identity": {"badges": [{"type": "moderator", ...}, ...]}} */
+    private void readIdentity(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return;
+        }
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (!reader.nextName().equals("badges") || reader.peek() != JsonToken.BEGIN_ARRAY) {
+                reader.skipValue();
+                continue;
+            }
+            reader.beginArray();
+            while (reader.hasNext()) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if (!reader.nextName().equals("type")) {
+                        reader.skipValue();
+                        continue;
+                    }
+                    String type = nextStringOrNull(reader);
+                    if (type != null) {
+                        if (!senderBadges.isEmpty()) senderBadges.append(',');
+                        senderBadges.append(type);
+                    }
+                }
+                reader.endObject();
+            }
+            reader.endArray();
+        }
+        reader.endObject();
+    }
+
+    /** Kick inlines emotes as {@code [emote:123:Name]}; chat shows just the name. */
+    static String stripEmotes(String content) {
+        int start = content.indexOf("[emote:");
+        if (start < 0) return content;
+
+        StringBuilder sb = new StringBuilder(content.length());
+        int from = 0;
+        while (start >= 0) {
+            int close = content.indexOf(']', start);
+            int nameStart = close < 0 ? -1 : content.lastIndexOf(':', close) + 1;
+            if (close < 0 || nameStart <= start + 7) break;
+            sb.append(content, from, start).append(content, nameStart, close);
+            from = close + 1;
+            start = content.indexOf("[emote:", from);
+        }
+        return sb.append(content, from, content.length()).toString();
+    }
+
+    private static String nextStringOrNull(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+
+    /** A resettable Reader over a CharSequence such as the StringBuilder frames are assembled in. */
+    private static final class CharSequenceReader extends Reader {
+        private CharSequence text = "";
+        private int pos;
+
+        void reset(CharSequence text) {
+            this.text = text;
+            this.pos = 0;
+        }
+
+        @Override
+        public int read(char[] buf, int off, int len) {
+            int n = Math.min(len, text.length() - pos);
+            if (n <= 0) return -1;
+            if (text instanceof String s) {
+                s.getChars(pos, pos + n, buf, off);
+            } else if (text instanceof StringBuilder sb) {
+                sb.getChars(pos, pos + n, buf, off);
+            } else {
+                for (int i = 0; i < n; i++) {
+                    buf[off + i] = text.charAt(pos + i);
+                }
+            }
+            pos += n;
+            return n;
+        }
+
+        @Override
+        public void close() {
+            text = "";
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.wooldrum.chattermod.platform;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.wooldrum.chattermod.ChatterMod;
+import com.wooldrum.chattermod.ChatterModConfig;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Follows Kick chatrooms over Pusher, the WebSocket service Kick's own web client uses.
+ * All configured channels share one {@link WebSocketSession}.
+ * <p>
+ * Pusher pings the client and expects a pong; when the socket goes quiet for longer than
+ * the server's activity timeout we ping it ourselves and give up if nothing comes back.
+ * Reconnects are left to the supervisor, guided by Pusher's close code ranges.
+ */
+public class KickPlatform implements ChatPlatform {
+
+    private static final String PUSHER_URL = "wss://ws-%s.pusher.com/app/%s?protocol=7&client=js&version=8.4.0&flash=false";
+    private static final String DEFAULT_API_BASE = "https://kick.com/api/v2";
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final long DEFAULT_ACTIVITY_TIMEOUT_MILLIS = 120_000;
+    private static final long PONG_TIMEOUT_MILLIS = 30_000;
+
+    private final List<ChatterModConfig.KickAccount> accounts;
+    private final HttpClient http;
+    private final String apiBase;
+    private final Map<Long, String> channelsByChatroom = new ConcurrentHashMap<>();
+    private final WebSocketSession session;
+    // Listener callbacks only; they run one at a time.
+    private final KickChatParser parser = new KickChatParser();
+    private Consumer<ChatMessage> messageConsumer;
+
+    /**
+     * @param endpoint full WebSocket URL to use instead of Pusher's, e.g. a local test server;
+     *                 blank for the real service
+     * @param apiBase  channel API root to call instead of Kick's, e.g. a local test server;
+     *                 blank for the real service
+     */
+    public KickPlatform(List<ChatterModConfig.KickAccount> accounts, HttpClient http,
+                        String pusherKey, String pusherCluster, String endpoint, String apiBase) {
+        this.accounts = List.copyOf(accounts);
+        this.http = http;
+        this.apiBase = apiBase == null || apiBase.isBlank() ? DEFAULT_API_BASE : apiBase.replaceAll("/+$", "");
+        URI uri = URI.create(endpoint == null || endpoint.isBlank()
+                ? String.format(PUSHER_URL, pusherCluster, pusherKey)
+                : endpoint);
+        this.session = new WebSocketSession(http, uri, "{\"event\":\"pusher:ping\",\"data\":{}}",
+                DEFAULT_ACTIVITY_TIMEOUT_MILLIS, PONG_TIMEOUT_MILLIS, new WebSocketSession.Handler() {
+                    @Override
+                    public void onFrame(WebSocket ws, CharSequence frame) {
+                        handleFrame(ws, frame);
+                    }
+
+                    @Override
+                    public PlatformException closeError(int code, String reason) {
+                        return KickPlatform.closeError(code, reason);
+                    }
+                });
+    }
+
+    @Override
+    public String name() {
+        return "Kick";
+    }
+
+    @Override
+    public void onMessage(Consumer<ChatMessage> consumer) {
+        this.messageConsumer = consumer;
+    }
+
+    @Override
+    public void connect() throws IOException, InterruptedException {
+        resolveChatrooms();
+        session.setIdlePingMillis(DEFAULT_ACTIVITY_TIMEOUT_MILLIS);
+        session.open();
+        ChatterMod.LOGGER.info("[Kick] Connected, joining chatrooms for: {}", channelNames());
+    }
+
+    @Override
+    public void awaitDisconnect() throws IOException, InterruptedException {
+        session.awaitClose();
+    }
+
+    @Override
+    public void disconnect() {
+        if (session.close()) {
+            ChatterMod.LOGGER.info("[Kick] Disconnected from channels: {}", channelNames());
+        }
+    }
+
+    private void handleFrame(WebSocket ws, CharSequence frame) {
+        try {
+            parser.parse(frame);
+            String event = parser.event();
+            if (event == null) return;
+            switch (event) {
+                case KickChatParser.CHAT_MESSAGE -> {
+                    ChatMessage msg = parser.chatMessage(channelsByChatroom::get);
+                    if (msg != null) messageConsumer.accept(msg);
+                }
+                case KickChatParser.PING -> session.send(ws, "{\"event\":\"pusher:pong\",\"data\":{}}");
+                case KickChatParser.CONNECTION_ESTABLISHED -> {
+                    readActivityTimeout(parser.data());
+                    for (Long chatroomId : channelsByChatroom.keySet()) {
+                        session.send(ws, "{\"event\":\"pusher:subscribe\",\"data\":{\"auth\":\"\",\"channel\":\"chatrooms." + chatroomId + ".v2\"}}");
+                    }
+                }
+                case KickChatParser.SUBSCRIPTION_SUCCEEDED -> ChatterMod.LOGGER.debug("[Kick] Subscribed to {}.", parser.channel());
+                case KickChatParser.ERROR -> ChatterMod.LOGGER.warn("[Kick] Pusher error: {}", parser.data());
+                default -> { }
+            }
+        } catch (IOException | RuntimeException e) {
+            ChatterMod.LOGGER.debug("[Kick] Skipping unreadable frame.", e);
+        }
+    }
+
+    private void readActivityTimeout(String data) {
+        if (data == null) return;
+        JsonObject root = JsonParser.parseString(data).getAsJsonObject();
+        if (root.has("activity_timeout")) {
+            session.setIdlePingMillis(Math.max(10, root.get("activity_timeout").getAsLong()) * 1000L);
+        }
+    }
+
+    /**
+     * Pusher close codes: 4000-4099 mean "do not reconnect" (bad app key, over capacity),
+     * 4100-4199 "reconnect after a pause", 4200-4299 "reconnect right away".
+     */
+    private static PlatformException closeError(int code, String reason) {
+        String detail = "Chat socket closed (" + code + (reason.isEmpty() ? "" : ": " + reason) + ").";
+        if (code >= 4000 && code < 4100) {
+            return new PlatformException(PlatformException.Kind.FATAL, detail + " Check kick.pusherKey and kick.pusherCluster.");
+        }
+        if (code >= 4100 && code < 4200) {
+            return new PlatformException(PlatformException.Kind.TRANSIENT, detail, Duration.ofSeconds(10));
+        }
+        return new PlatformException(PlatformException.Kind.TRANSIENT, detail);
+    }
+
+    /** Looks up chatroom IDs that were not configured explicitly; remembered across sessions. */
+    private void resolveChatrooms() throws IOException, InterruptedException {
+        for (ChatterModConfig.KickAccount account : accounts) {
+            if (channelsByChatroom.containsValue(account.channelName())) continue;
+            long chatroomId = account.chatroomId() > 0 ? account.chatroomId() : lookUpChatroomId(account.channelName());
+            channelsByChatroom.put(chatroomId, account.channelName());
+        }
+    }
+
+    private long lookUpChatroomId(String channelName) throws IOException, InterruptedException {
+        HttpRequest req = HttpRequest.newBuilder()
+                .uri(URI.create(apiBase + "/channels/" + URLEncoder.encode(channelName, StandardCharsets.UTF_8)))
+                .timeout(CONNECT_TIMEOUT)
+                .header("Accept", "application/json")
+                .GET().build();
+        HttpResponse<String> res = http.send(req, HttpResponse.BodyHandlers.ofString());
+        if (res.statusCode() == 404) {
+            throw new PlatformException(PlatformException.Kind.FATAL, "Kick channel '" + channelName + "' does not exist.");
+        }
+        if (res.statusCode() == 403) {
+            // Kick's API sits behind bot protection that sometimes refuses non-browser clients.
+            throw new PlatformException(PlatformException.Kind.FATAL, "Kick refused the chatroom lookup for '" + channelName
+                    + "'. Set kick.N.chatroomId in chattermod.properties instead.");
+        }
+        if (res.statusCode() != 200) {
+            throw new PlatformException(PlatformException.Kind.TRANSIENT, "Kick API error: HTTP " + res.statusCode() + ".");
+        }
+
+        JsonObject root = JsonParser.parseString(res.body()).getAsJsonObject();
+        JsonObject chatroom = root.has("chatroom") && root.get("chatroom").isJsonObject() ? root.getAsJsonObject("chatroom") : null;
+        if (chatroom == null || !chatroom.has("id")) {
+            throw new PlatformException(PlatformException.Kind.TRANSIENT, "Kick channel '" + channelName + "' has no chatroom.");
+        }
+        return chatroom.get("id").getAsLong();
+    }
+
+    private List<String> channelNames() {
+        return accounts.stream().map(ChatterModConfig.KickAccount::channelName).toList();
+    }
+}
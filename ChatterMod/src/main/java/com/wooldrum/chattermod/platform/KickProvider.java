@@ -0,0 +1,29 @@
+package com.wooldrum.chattermod.platform;
+
+import com.wooldrum.chattermod.ChatterModConfig;
+
+import java.net.http.HttpClient;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/** One {@link KickPlatform} socket for all configured Kick channels. */
+public class KickProvider implements ChatPlatformProvider {
+
+    @Override
+    public String id() {
+        return "kick";
+    }
+
+    @Override
+    public Map<List<Object>, Supplier<ChatPlatform>> platforms(ChatterModConfig config, HttpClient http) {
+        if (config.kickAccounts.isEmpty()) return Map.of();
+        List<ChatterModConfig.KickAccount> accounts = config.kickAccounts;
+        String key = config.kickPusherKey;
+        String cluster = config.kickPusherCluster;
+        String endpoint = config.kickEndpoint;
+        String apiBase = config.kickApiBaseUrl;
+        return Map.of(List.of(id(), accounts, key, cluster, endpoint, apiBase),
+                () -> new KickPlatform(accounts, http, key, cluster, endpoint, apiBase));
+    }
+}
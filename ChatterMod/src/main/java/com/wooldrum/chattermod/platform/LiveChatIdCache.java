@@ -0,0 +1,108 @@
+package com.wooldrum.chattermod.platform;
+
+import com.wooldrum.chattermod.ChatterMod;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Remembers which live video and chat each YouTube channel resolved to, across reloads and
+ * restarts. Finding a stream through {@code search.list} costs 100 quota units and a few
+ * seconds; re-checking a known video through {@code videos.list} costs 1. Entries older
+ * than the TTL are dropped so a long-forgotten stream is never revalidated forever.
+ * <p>
+ * Shared by all YouTube platforms; every change is written through to disk.
+ */
+public class LiveChatIdCache {
+
+    public record Entry(String videoId, String liveChatId, long resolvedAtMillis) {}
+
+    private final Path file;
+    private final long ttlMillis;
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    public LiveChatIdCache(Path file, Duration ttl) {
+        this.file = file;
+        this.ttlMillis = ttl.toMillis();
+        load();
+    }
+
+    /** The cached resolution for a channel, or null if there is none or it has expired. */
+    public synchronized Entry get(String channelId) {
+        Entry entry = entries.get(channelId);
+        if (entry == null) return null;
+        if (System.currentTimeMillis() - entry.resolvedAtMillis() > ttlMillis) {
+            entries.remove(channelId);
+            save();
+            return null;
+        }
+        return entry;
+    }
+
+    public synchronized void put(String channelId, String videoId, String liveChatId) {
+        Entry previous = entries.get(channelId);
+        // Revalidating an unchanged stream keeps its original timestamp so the TTL still bites.
+        if (previous != null && previous.videoId().equals(videoId) && previous.liveChatId().equals(liveChatId)) return;
+        entries.put(channelId, new Entry(videoId, liveChatId, System.currentTimeMillis()));
+        save();
+    }
+
+    /** Called when the cached stream turned out to be over. */
+    public synchronized void invalidate(String channelId) {
+        if (entries.remove(channelId) != null) {
+            save();
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(file)) return;
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            props.load(in);
+        } catch (IOException e) {
+            ChatterMod.LOGGER.warn("Could not read {}; live chats will be looked up again.", file.getFileName(), e);
+            return;
+        }
+        for (String channelId : props.stringPropertyNames()) {
+            // videoId liveChatId resolvedAtMillis
+            String[] parts = props.getProperty(channelId).trim().split("\\s+");
+            if (parts.length != 3) continue;
+            try {
+                entries.put(channelId, new Entry(parts[0], parts[1], Long.parseLong(parts[2])));
+            } catch (NumberFormatException ignored) {
+                // Skip the damaged line; the channel is simply resolved again.
+            }
+        }
+    }
+
+    private void save() {
+        Properties props = new Properties();
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            Entry entry = e.getValue();
+            props.setProperty(e.getKey(), entry.videoId() + " " + entry.liveChatId() + " " + entry.resolvedAtMillis());
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                props.store(out, "ChatterMod resolved YouTube live chats: channelId=videoId liveChatId resolvedAtMillis");
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            ChatterMod.LOGGER.warn("Could not write {}.", file.getFileName(), e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.wooldrum.chattermod.platform;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * A session failure classified for the {@link PlatformSupervisor}.
+ */
+public class PlatformException extends IOException {
+
+    public enum Kind {
+        /** Network hiccups, server errors, ended streams: retry with backoff. */
+        TRANSIENT,
+        /** The platform refused us for quota or rate reasons (HTTP 403/429): wait it out. */
+        QUOTA,
+        /** Misconfiguration such as a missing or rejected key: retrying cannot help. */
+        FATAL
+    }
+
+    private final Kind kind;
+    private final Duration retryAfter;
+
+    public PlatformException(Kind kind, String message) {
+        this(kind, message, null);
+    }
+
+    public PlatformException(Kind kind, String message, Duration retryAfter) {
+        super(message);
+        this.kind = kind;
+        this.retryAfter = retryAfter;
+    }
+
+    public Kind kind() {
+        return kind;
+    }
+
+    /** The earliest time the platform wants us back, or null to use the supervisor's backoff. */
+    public Duration retryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,134 @@
+package com.wooldrum.chattermod.platform;
+
+import com.wooldrum.chattermod.ChatterMod;
+import com.wooldrum.chattermod.metrics.Counter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Owns the lifecycle of every {@link ChatPlatform}. Each platform runs on its own virtual
+ * thread that connects, waits for the session to end and reconnects with jittered
+ * exponential backoff. Quota refusals wait out the platform's retry hint instead, and fatal
+ * errors stop the platform until the next reload.
+ */
+public class PlatformSupervisor {
+
+    private static final Duration BACKOFF_BASE = Duration.ofSeconds(1);
+    private static final Duration BACKOFF_MAX = Duration.ofMinutes(5);
+    private static final Duration QUOTA_BACKOFF = Duration.ofMinutes(15);
+    private static final long STABLE_SESSION_NANOS = TimeUnit.SECONDS.toNanos(60);
+    private static final long STOP_TIMEOUT_MILLIS = 3_000;
+
+    private final Map<ChatPlatform, Thread> supervised = new ConcurrentHashMap<>();
+
+    public void start(ChatPlatform platform) {
+        Thread thread = Thread.ofVirtual()
+                .name("ChatterMod-" + platform.name())
+                .unstarted(() -> supervise(platform));
+        if (supervised.putIfAbsent(platform, thread) == null) {
+            thread.start();
+        }
+    }
+
+    public void stop(ChatPlatform platform) {
+        Thread thread = supervised.remove(platform);
+        if (thread == null) return;
+        thread.interrupt();
+        platform.disconnect();
+        join(thread, STOP_TIMEOUT_MILLIS);
+    }
+
+    /** Stops the given platforms in parallel and waits for their threads to finish. */
+    public void stop(Collection<ChatPlatform> platforms) {
+        List<Thread> stopping = new ArrayList<>();
+        for (ChatPlatform platform : platforms) {
+            Thread thread = supervised.remove(platform);
+            if (thread == null) continue;
+            thread.interrupt();
+            platform.disconnect();
+            stopping.add(thread);
+        }
+        long deadline = System.currentTimeMillis() + STOP_TIMEOUT_MILLIS;
+        for (Thread thread : stopping) {
+            join(thread, Math.max(1, deadline - System.currentTimeMillis()));
+        }
+    }
+
+    public void stopAll() {
+        stop(List.copyOf(supervised.keySet()));
+    }
+
+    private void supervise(ChatPlatform platform) {
+        Backoff backoff = new Backoff(BACKOFF_BASE, BACKOFF_MAX);
+        String name = platform.name();
+        Counter reconnects = ChatterMod.METRICS.counter("reconnects." + name.toLowerCase());
+        boolean firstSession = true;
+
+        while (!Thread.currentThread().isInterrupted()) {
+            long startedAt = System.nanoTime();
+            long delayMillis;
+            if (!firstSession) reconnects.increment();
+            firstSession = false;
+            try {
+                platform.connect();
+                ChatterMod.LOGGER.info("[{}] Connected in {} ms.", name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+                platform.awaitDisconnect();
+                if (Thread.currentThread().isInterrupted()) break;
+                ChatterMod.LOGGER.info("[{}] Session ended.", name);
+                delayMillis = nextDelay(backoff, startedAt);
+            } catch (InterruptedException e) {
+                break;
+            } catch (PlatformException e) {
+                if (e.kind() == PlatformException.Kind.FATAL) {
+                    ChatterMod.LOGGER.error("[{}] {} Not retrying until the next reload.", name, e.getMessage());
+                    break;
+                }
+                delayMillis = nextDelay(backoff, startedAt);
+                if (e.kind() == PlatformException.Kind.QUOTA) {
+                    delayMillis = (e.retryAfter() != null ? e.retryAfter() : QUOTA_BACKOFF).toMillis();
+                }
+                if (e.retryAfter() != null) {
+                    delayMillis = Math.max(delayMillis, e.retryAfter().toMillis());
+                }
+                ChatterMod.LOGGER.warn("[{}] {}", name, e.getMessage());
+            } catch (Exception e) {
+                ChatterMod.LOGGER.warn("[{}] Session failed.", name, e);
+                delayMillis = nextDelay(backoff, startedAt);
+            } finally {
+                platform.disconnect();
+            }
+
+            ChatterMod.LOGGER.info("[{}] Reconnecting in {} s.", name, TimeUnit.MILLISECONDS.toSeconds(delayMillis));
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+        supervised.remove(platform, Thread.currentThread());
+    }
+
+    private static long nextDelay(Backoff backoff, long sessionStartedAt) {
+        // A session that stayed up for a while was healthy; start the backoff over.
+        if (System.nanoTime() - sessionStartedAt > STABLE_SESSION_NANOS) {
+            backoff.reset();
+        }
+        return backoff.nextDelayMillis();
+    }
+
+    private static void join(Thread thread, long timeoutMillis) {
+        try {
+            if (!thread.join(Duration.ofMillis(timeoutMillis))) {
+                ChatterMod.LOGGER.warn("{} did not stop within {} ms.", thread.getName(), timeoutMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
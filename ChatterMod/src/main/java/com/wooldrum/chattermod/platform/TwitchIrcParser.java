@@ -0,0 +1,238 @@
+package com.wooldrum.chattermod.platform;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads IRCv3 lines from Twitch chat in place. {@link #parse} only records where the tags,
+ * prefix, command, first parameter and trailing text start and end inside the frame
+ * buffer; Strings are created just for the fields a caller asks for, so a PING or a line
+ * for another command costs no allocation at all. Badges and cheers are classified in
+ * place too, so only prioritized messages pay for their metadata. Not thread-safe.
+ *
+ * <pre>[@tags ][:prefix ]COMMAND[ param...][ :trailing]</pre>
+ */
+public final class TwitchIrcParser {
+
+    private final String[] channels;
+
+    private CharSequence line = "";
+    private int tagsStart;
+    private int tagsEnd;
+    private int prefixStart;
+    private int prefixEnd;
+    private int commandStart;
+    private int commandEnd;
+    private int paramStart;
+    private int paramEnd;
+    private int trailingStart;
+    private int end;
+
+    /** @param channels the joined channel names in lower case, without {@code #} */
+    public TwitchIrcParser(String[] channels) {
+        this.channels = channels.clone();
+    }
+
+    /** Parses the line in {@code buf[start, end)}; returns false for a blank line. */
+    public boolean parse(CharSequence buf, int start, int end) {
+        while (end > start && (buf.charAt(end - 1) == '\r' || buf.charAt(end - 1) == '\n')) end--;
+        this.line = buf;
+        this.end = end;
+        tagsStart = tagsEnd = prefixStart = prefixEnd = paramStart = paramEnd = -1;
+        commandStart = commandEnd = trailingStart = -1;
+        int i = start;
+        if (i >= end) return false;
+
+        if (buf.charAt(i) == '@') {
+            tagsStart = i + 1;
+            tagsEnd = indexOf(' ', tagsStart);
+            i = skipSpaces(tagsEnd);
+        }
+        if (i < end && buf.charAt(i) == ':') {
+            prefixStart = i + 1;
+            prefixEnd = indexOf(' ', prefixStart);
+            i = skipSpaces(prefixEnd);
+        }
+        commandStart = i;
+        commandEnd = indexOf(' ', i);
+        i = skipSpaces(commandEnd);
+        if (i < end && buf.charAt(i) != ':') {
+            paramStart = i;
+            paramEnd = indexOf(' ', i);
+            i = skipSpaces(paramEnd);
+            // Any further middle parameters are not needed by anything we handle.
+            while (i < end && buf.charAt(i) != ':') {
+                i = skipSpaces(indexOf(' ', i));
+            }
+        }
+        if (i < end && buf.charAt(i) == ':') {
+            trailingStart = i + 1;
+        }
+        return commandEnd > commandStart;
+    }
+
+    public boolean commandIs(String command) {
+        return regionEquals(commandStart, commandEnd, command);
+    }
+
+    /** The trailing parameter, e.g. the PING token or the NOTICE text; empty if there is none. */
+    public String trailing() {
+        return trailingStart < 0 ? "" : line.subSequence(trailingStart, end).toString();
+    }
+
+    /**
+     * The configured channel the current line's first parameter names, as the same String
+     * instance the parser was built with, or null.
+     */
+    public String channel() {
+        if (paramStart < 0 || line.charAt(paramStart) != '#') return null;
+        for (String channel : channels) {
+            if (regionEqualsIgnoreCase(paramStart + 1, paramEnd, channel)) return channel;
+        }
+        return null;
+    }
+
+    /** A tag's unescaped value, or null when the line does not carry it. */
+    public String tag(String key) {
+        int from = tagValueStart(key);
+        return from < 0 ? null : unescape(from, tagValueEnd(from));
+    }
+
+    /** Where a tag's raw value starts in the line, or -1 when the line does not carry it. */
+    private int tagValueStart(String key) {
+        if (tagsStart < 0) return -1;
+        int i = tagsStart;
+        while (i < tagsEnd) {
+            int next = indexOf(';', i, tagsEnd);
+            int eq = indexOf('=', i, next);
+            if (regionEquals(i, eq, key)) {
+                return Math.min(eq + 1, next);
+            }
+            i = next + 1;
+        }
+        return -1;
+    }
+
+    private int tagValueEnd(int valueStart) {
+        return indexOf(';', valueStart, tagsEnd);
+    }
+
+    /** The nick in {@code nick!user@host}. */
+    public String nick() {
+        if (prefixStart < 0) return null;
+        int bang = indexOf('!', prefixStart, prefixEnd);
+        return line.subSequence(prefixStart, bang).toString();
+    }
+
+    /**
+     * Converts the current line into a {@link ChatMessage} if it is a PRIVMSG for a joined
+     * channel. {@code /me} actions are shown as plain text; badges and cheers set the priority.
+     */
+    public ChatMessage chatMessage() {
+        if (!commandIs("PRIVMSG") || trailingStart < 0) return null;
+        String channel = channel();
+        if (channel == null) return null;
+        String author = tag("display-name");
+        if (author == null || author.isEmpty()) author = nick();
+        if (author == null) return null;
+
+        int textStart = trailingStart;
+        int textEnd = end;
+        if (regionStartsWith(textStart, "\u0001ACTION ")) {
+            textStart += 8;
+            if (textEnd > textStart && line.charAt(textEnd - 1) == '\u0001') textEnd--;
+        }
+        String text = line.subSequence(textStart, textEnd).toString();
+
+        int badgesFrom = tagValueStart("badges");
+        int badgesTo = badgesFrom < 0 ? -1 : tagValueEnd(badgesFrom);
+        int bitsFrom = tagValueStart("bits");
+        int bitsTo = bitsFrom < 0 ? -1 : tagValueEnd(bitsFrom);
+        ChatMessage.Priority priority = cheered(line, bitsFrom, bitsTo) ? ChatMessage.Priority.PAID
+                : badgesFrom < 0 ? ChatMessage.Priority.NORMAL
+                : ChatMessage.Priority.forBadges(line, badgesFrom, badgesTo);
+        if (priority == ChatMessage.Priority.NORMAL) {
+            return new ChatMessage(author, text, ChatMessage.Platform.TWITCH, channel);
+        }
+        Map<String, String> metadata = new HashMap<>(4);
+        if (badgesTo > badgesFrom) metadata.put(ChatMessage.BADGES, badgeNames(line, badgesFrom, badgesTo));
+        if (cheered(line, bitsFrom, bitsTo)) metadata.put(ChatMessage.AMOUNT, line.subSequence(bitsFrom, bitsTo) + " bits");
+        return new ChatMessage(author, text, ChatMessage.Platform.TWITCH, channel, priority, metadata);
+    }
+
+    /** Whether the bits value in {@code bits[from, to)} is a real cheer. Shared with the twitch4j backend. */
+    static boolean cheered(CharSequence bits, int from, int to) {
+        return to > from && !(to - from == 1 && bits.charAt(from) == '0');
+    }
+
+    /** {@code moderator/1,subscriber/12} in {@code tag[from, to)} becomes {@code moderator,subscriber}. */
+    static String badgeNames(CharSequence tag, int from, int to) {
+        StringBuilder sb = new StringBuilder(to - from);
+        boolean inVersion = false;
+        for (int i = from; i < to; i++) {
+            char c = tag.charAt(i);
+            if (c == ',') inVersion = false;
+            else if (c == '/') inVersion = true;
+            if (!inVersion) sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /** IRCv3 escapes: {@code \s} space, {@code \:} semicolon, {@code \\}, {@code \r}, {@code \n}. */
+    private String unescape(int from, int to) {
+        if (indexOf('\\', from, to) >= to) return line.subSequence(from, to).toString();
+        StringBuilder sb = new StringBuilder(to - from);
+        for (int i = from; i < to; i++) {
+            char c = line.charAt(i);
+            if (c != '\\' || i + 1 >= to) {
+                if (c != '\\') sb.append(c);
+                continue;
+            }
+            char e = line.charAt(++i);
+            sb.append(switch (e) {
+                case 's' -> ' ';
+                case ':' -> ';';
+                case 'r' -> '\r';
+                case 'n' -> '\n';
+                default -> e;
+            });
+        }
+        return sb.toString();
+    }
+
+    private int indexOf(char c, int from) {
+        return indexOf(c, from, end);
+    }
+
+    private int indexOf(char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (line.charAt(i) == c) return i;
+        }
+        return to;
+    }
+
+    private int skipSpaces(int i) {
+        while (i < end && line.charAt(i) == ' ') i++;
+        return i;
+    }
+
+    private boolean regionEquals(int from, int to, String s) {
+        if (from < 0 || to - from != s.length()) return false;
+        for (int i = 0; i < s.length(); i++) {
+            if (line.charAt(from + i) != s.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private boolean regionEqualsIgnoreCase(int from, int to, String s) {
+        if (from < 0 || to - from != s.length()) return false;
+        for (int i = 0; i < s.length(); i++) {
+            if (Character.toLowerCase(line.charAt(from + i)) != s.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private boolean regionStartsWith(int from, String s) {
+        return end - from >= s.length() && regionEquals(from, from + s.length(), s);
+    }
+}
@@ -0,0 +1,212 @@
+package com.wooldrum.chattermod.platform;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.wooldrum.chattermod.ChatterMod;
+import com.wooldrum.chattermod.ChatterModConfig;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Reads Twitch chat over Twitch's IRC WebSocket without twitch4j. All configured channels
+ * share one socket. Frames are parsed in place by {@link TwitchIrcParser}; the only Strings
+ * made per message are the author and text the {@link ChatMessage} needs.
+ * <p>
+ * The socket itself is a {@link WebSocketSession}, so there are no thread pools of our own.
+ * Twitch pings every few minutes and expects a PONG; if the socket goes quiet we ping it
+ * ourselves and give up when nothing comes back. A RECONNECT from the server or a dead
+ * socket ends the session and the supervisor reconnects.
+ * <p>
+ * With an OAuth token the same socket also sends to the first configured channel;
+ * anonymous sessions are read-only. IRC wants the login the token belongs to as the nick,
+ * so the token is checked once against Twitch's validate endpoint to find it.
+ */
+public class TwitchIrcPlatform implements ChatPlatform, ChatSender {
+
+    private static final URI ENDPOINT = URI.create("wss://irc-ws.chat.twitch.tv:443");
+    private static final URI VALIDATE_ENDPOINT = URI.create("https://id.twitch.tv/oauth2/validate");
+    private static final Duration VALIDATE_TIMEOUT = Duration.ofSeconds(10);
+    private static final long IDLE_PING_MILLIS = 360_000;
+    private static final long PONG_TIMEOUT_MILLIS = 15_000;
+    private static final int MAX_MESSAGE_CHARS = 500;
+
+    private final List<ChatterModConfig.TwitchAccount> accounts;
+    private final HttpClient http;
+    private final boolean customEndpoint;
+    private final WebSocketSession session;
+    // Listener callbacks only; they run one at a time.
+    private final TwitchIrcParser parser;
+    private Consumer<ChatMessage> messageConsumer;
+
+    private volatile boolean authenticated;
+    // The login the token was last validated for; kept across reconnects.
+    private String login;
+    private String loginToken;
+
+    /**
+     * @param endpoint WebSocket URL to use instead of Twitch's, e.g. a local test server;
+     *                 blank for the real service. A test server gets the token unvalidated
+     *                 and the first channel name as the nick.
+     */
+    public TwitchIrcPlatform(List<ChatterModConfig.TwitchAccount> accounts, HttpClient http, String endpoint) {
+        this.accounts = List.copyOf(accounts);
+        this.http = http;
+        this.customEndpoint = endpoint != null && !endpoint.isBlank();
+        this.parser = new TwitchIrcParser(channelNames().toArray(String[]::new));
+        this.session = new WebSocketSession(http, endpoint == null || endpoint.isBlank() ? ENDPOINT : URI.create(endpoint),
+                "PING :chattermod\r\n", IDLE_PING_MILLIS, PONG_TIMEOUT_MILLIS, this::handleFrame);
+    }
+
+    @Override
+    public String name() {
+        return "Twitch";
+    }
+
+    @Override
+    public void onMessage(Consumer<ChatMessage> consumer) {
+        this.messageConsumer = consumer;
+    }
+
+    @Override
+    public void connect() throws IOException, InterruptedException {
+        String token = accounts.stream()
+                .map(ChatterModConfig.TwitchAccount::oauthToken)
+                .filter(t -> !t.isBlank() && !t.equals("YOUR_OAUTH_TOKEN_HERE"))
+                .map(t -> t.startsWith("oauth:") ? t.substring("oauth:".length()) : t)
+                .findFirst()
+                .orElse(null);
+        String nick = token == null ? null : loginFor(token);
+        authenticated = token != null;
+
+        WebSocket ws = session.open();
+        send(ws, "CAP REQ :twitch.tv/tags twitch.tv/commands");
+        if (token != null) {
+            send(ws, "PASS oauth:" + token);
+            send(ws, "NICK " + nick);
+        } else {
+            // Reading chat needs no account; justinfan logins are Twitch's anonymous readers.
+            send(ws, "NICK justinfan" + ThreadLocalRandom.current().nextInt(10_000, 100_000));
+        }
+        send(ws, "JOIN " + String.join(",", channelNames().stream().map(c -> "#" + c).toList()));
+        ChatterMod.LOGGER.info("[Twitch] Connected{}, joining channels: {}", token == null ? " anonymously" : "", channelNames());
+    }
+
+    /** The login {@code token} belongs to; only asks Twitch again when the token changes. */
+    private String loginFor(String token) throws IOException, InterruptedException {
+        if (token.equals(loginToken)) return login;
+        String resolved = customEndpoint ? channelNames().getFirst() : validate(token);
+        login = resolved;
+        loginToken = token;
+        return resolved;
+    }
+
+    private String validate(String token) throws IOException, InterruptedException {
+        HttpRequest req = HttpRequest.newBuilder(VALIDATE_ENDPOINT)
+                .timeout(VALIDATE_TIMEOUT)
+                .header("Authorization", "OAuth " + token)
+                .GET().build();
+        HttpResponse<String> res = http.send(req, HttpResponse.BodyHandlers.ofString());
+        if (res.statusCode() == 401) {
+            throw new PlatformException(PlatformException.Kind.FATAL, "Twitch rejected the OAuth token; it is invalid or expired.");
+        }
+        if (res.statusCode() != 200) {
+            throw new PlatformException(PlatformException.Kind.TRANSIENT, "Twitch token check failed: HTTP " + res.statusCode() + ".");
+        }
+        JsonObject root = JsonParser.parseString(res.body()).getAsJsonObject();
+        if (!root.has("login") || root.get("login").getAsString().isBlank()) {
+            throw new PlatformException(PlatformException.Kind.FATAL, "The Twitch OAuth token is not tied to a user login.");
+        }
+        return root.get("login").getAsString();
+    }
+
+    @Override
+    public void awaitDisconnect() throws PlatformException, InterruptedException {
+        session.awaitClose();
+    }
+
+    @Override
+    public void disconnect() {
+        if (session.close()) {
+            ChatterMod.LOGGER.info("[Twitch] Disconnected from channels: {}", channelNames());
+        }
+    }
+
+    @Override
+    public ChatMessage.Platform platform() {
+        return ChatMessage.Platform.TWITCH;
+    }
+
+    @Override
+    public int maxMessageLength() {
+        return MAX_MESSAGE_CHARS;
+    }
+
+    @Override
+    public boolean canSend() {
+        return session.socket() != null && authenticated;
+    }
+
+    @Override
+    public CompletableFuture<Void> send(String text) {
+        WebSocket ws = session.socket();
+        if (ws == null || !authenticated) {
+            return CompletableFuture.failedFuture(new PlatformException(PlatformException.Kind.TRANSIENT, "Not connected with an OAuth token."));
+        }
+        // Line breaks would end the IRC line early and smuggle in a second command.
+        String line = "PRIVMSG #" + channelNames().get(0) + " :" + text.replace('\r', ' ').replace('\n', ' ');
+        return send(ws, line).thenApply(sent -> null);
+    }
+
+    private CompletableFuture<?> send(WebSocket ws, String line) {
+        return session.send(ws, line + "\r\n");
+    }
+
+    /** Handles every complete line in {@code buf}; a frame may carry several. */
+    private void handleFrame(WebSocket ws, CharSequence buf) {
+        int start = 0;
+        int length = buf.length();
+        while (start < length) {
+            int newline = start;
+            while (newline < length && buf.charAt(newline) != '\n') newline++;
+            if (parser.parse(buf, start, newline)) {
+                handleLine(ws);
+            }
+            start = newline + 1;
+        }
+    }
+
+    private void handleLine(WebSocket ws) {
+        if (parser.commandIs("PRIVMSG")) {
+            ChatMessage msg = parser.chatMessage();
+            if (msg != null) messageConsumer.accept(msg);
+        } else if (parser.commandIs("PING")) {
+            send(ws, "PONG :" + parser.trailing());
+        } else if (parser.commandIs("RECONNECT")) {
+            session.fail(new PlatformException(PlatformException.Kind.TRANSIENT, "Twitch asked us to reconnect.", Duration.ZERO));
+            ws.abort();
+        } else if (parser.commandIs("NOTICE") && parser.channel() == null) {
+            // Server-wide notices after PASS are login failures; they end the connection.
+            String text = parser.trailing();
+            if (text.contains("authentication failed") || text.contains("Improperly formatted auth")) {
+                session.fail(new PlatformException(PlatformException.Kind.FATAL, "Twitch rejected the OAuth token: " + text));
+                ws.abort();
+            } else {
+                ChatterMod.LOGGER.info("[Twitch] {}", text);
+            }
+        }
+    }
+
+    private List<String> channelNames() {
+        return accounts.stream().map(a -> a.channelName().toLowerCase().replace("#", "")).toList();
+    }
+}
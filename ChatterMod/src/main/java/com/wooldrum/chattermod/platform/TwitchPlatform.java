@@ -4,19 +4,53 @@ import com.github.philippheuer.credentialmanager.domain.OAuth2Credential;
 import com.github.twitch4j.chat.TwitchChat;
 import com.github.twitch4j.chat.TwitchChatBuilder;
 import com.github.twitch4j.chat.events.channel.ChannelMessageEvent;
+import com.github.twitch4j.chat.events.channel.IRCMessageEvent;
+import com.github.twitch4j.chat.util.TwitchChatLimitHelper;
 import com.wooldrum.chattermod.ChatterMod;
 import com.wooldrum.chattermod.ChatterModConfig;
+import com.wooldrum.chattermod.metrics.Counter;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
-public class TwitchPlatform implements ChatPlatform {
+/**
+ * Joins every configured Twitch channel over one shared {@link TwitchChat} connection.
+ * The connection authenticates with the first account that has a token. twitch4j handles
+ * socket-level reconnects itself and the supervisor covers failures to build the connection;
+ * both count towards the same {@code reconnects.twitch} metric.
+ * Outbound messages go through the same connection to the first configured channel, under
+ * twitch4j's own chat limiter sized for a moderator or a regular user.
+ * <p>
+ * {@link #canSend} and {@link #send} only read the current connection, so the client thread
+ * never waits on a connect in progress.
+ */
+public class TwitchPlatform implements ChatPlatform, ChatSender {
 
-    private final ChatterModConfig.TwitchAccount account;
-    private TwitchChat twitchChat;
+    // The supervisor's counter for this platform, so reconnects show up whoever made them.
+    private static final Counter RECONNECTS = ChatterMod.METRICS.counter("reconnects.twitch");
+    private static final String RPL_WELCOME = "001";
+
+    private final List<ChatterModConfig.TwitchAccount> accounts;
+    private final boolean moderator;
+    private final AtomicReference<TwitchChat> twitchChat = new AtomicReference<>();
+    private volatile CountDownLatch closed = new CountDownLatch(0);
     private Consumer<ChatMessage> messageConsumer;
 
-    public TwitchPlatform(ChatterModConfig.TwitchAccount account) {
-        this.account = account;
+    /** @param moderator whether the account moderates its channels, which raises Twitch's send limit */
+    public TwitchPlatform(List<ChatterModConfig.TwitchAccount> accounts, boolean moderator) {
+        this.accounts = List.copyOf(accounts);
+        this.moderator = moderator;
+    }
+
+    @Override
+    public String name() {
+        return "Twitch";
     }
 
     @Override
@@ -25,35 +59,106 @@ public class TwitchPlatform implements ChatPlatform {
     }
 
     @Override
-    public void connect() {
-        if (account.oauthToken().isBlank() || account.oauthToken().equals("YOUR_OAUTH_TOKEN_HERE")) {
-            ChatterMod.LOGGER.error("[Twitch] Cannot connect to channel '{}': OAuth token is missing.", account.channelName());
-            return;
+    public void connect() throws PlatformException {
+        String token = accounts.stream()
+                .map(ChatterModConfig.TwitchAccount::oauthToken)
+                .filter(t -> !t.isBlank() && !t.equals("YOUR_OAUTH_TOKEN_HERE"))
+                .findFirst()
+                .orElse(null);
+        if (token == null) {
+            throw new PlatformException(PlatformException.Kind.FATAL, "Cannot connect to " + channelNames() + ": OAuth token is missing.");
         }
-        
-        OAuth2Credential credential = new OAuth2Credential("twitch", account.oauthToken());
 
-        twitchChat = TwitchChatBuilder.builder()
+        OAuth2Credential credential = new OAuth2Credential("twitch", token);
+
+        closed = new CountDownLatch(1);
+        TwitchChat chat = TwitchChatBuilder.builder()
                 .withChatAccount(credential)
                 .withEnableMembershipEvents(false)
+                .withChatRateLimit(moderator ? TwitchChatLimitHelper.MOD_MESSAGE_LIMIT : TwitchChatLimitHelper.USER_MESSAGE_LIMIT)
                 .build();
 
-        twitchChat.joinChannel(account.channelName());
-
-        twitchChat.getEventManager().onEvent(ChannelMessageEvent.class, event -> {
-            String author = event.getUser().getName();
-            String message = event.getMessage();
-            messageConsumer.accept(new ChatMessage(author, message, ChatMessage.Platform.TWITCH));
+        chat.getEventManager().onEvent(ChannelMessageEvent.class, event ->
+                messageConsumer.accept(toChatMessage(event)));
+        // Twitch greets every new socket with 001; after the first, each is a reconnect twitch4j made on its own.
+        AtomicBoolean welcomed = new AtomicBoolean();
+        chat.getEventManager().onEvent(IRCMessageEvent.class, event -> {
+            if (RPL_WELCOME.equals(event.getCommandType()) && welcomed.getAndSet(true)) {
+                RECONNECTS.increment();
+            }
         });
 
-        ChatterMod.LOGGER.info("[Twitch] Connected to channel: {}", account.channelName());
+        for (ChatterModConfig.TwitchAccount account : accounts) {
+            chat.joinChannel(account.channelName());
+        }
+        // Published only once set up; the supervisor's disconnect() afterwards closes it either way.
+        twitchChat.set(chat);
+
+        ChatterMod.LOGGER.info("[Twitch] Connected to channels: {}", channelNames());
+    }
+
+    @Override
+    public void awaitDisconnect() throws InterruptedException {
+        closed.await();
+    }
+
+    static ChatMessage toChatMessage(ChannelMessageEvent event) {
+        String badgesTag = event.getMessageEvent().getTagValue("badges").orElse("");
+        String bits = event.getMessageEvent().getTagValue("bits").orElse("");
+        ChatMessage.Priority priority = TwitchIrcParser.cheered(bits, 0, bits.length())
+                ? ChatMessage.Priority.PAID : ChatMessage.Priority.forBadges(badgesTag);
+        if (priority == ChatMessage.Priority.NORMAL) {
+            return new ChatMessage(event.getUser().getName(), event.getMessage(), ChatMessage.Platform.TWITCH,
+                    event.getChannel().getName());
+        }
+        Map<String, String> metadata = new HashMap<>(4);
+        if (!badgesTag.isEmpty()) metadata.put(ChatMessage.BADGES, TwitchIrcParser.badgeNames(badgesTag, 0, badgesTag.length()));
+        if (TwitchIrcParser.cheered(bits, 0, bits.length())) metadata.put(ChatMessage.AMOUNT, bits + " bits");
+        return new ChatMessage(event.getUser().getName(), event.getMessage(), ChatMessage.Platform.TWITCH,
+                event.getChannel().getName(), priority, metadata);
+    }
+
+    @Override
+    public ChatMessage.Platform platform() {
+        return ChatMessage.Platform.TWITCH;
+    }
+
+    @Override
+    public int maxMessageLength() {
+        return 500;
+    }
+
+    @Override
+    public boolean canSend() {
+        return twitchChat.get() != null;
+    }
+
+    /**
+     * Completes as soon as twitch4j has queued the message; its writer thread does the socket
+     * I/O later, so a message it drops after that point is not reported as a failure.
+     */
+    @Override
+    public CompletableFuture<Void> send(String text) {
+        TwitchChat chat = twitchChat.get();
+        if (chat == null || !chat.sendMessage(accounts.get(0).channelName(), text)) {
+            return CompletableFuture.failedFuture(new PlatformException(PlatformException.Kind.TRANSIENT, "Twitch chat is not connected."));
+        }
+        return CompletableFuture.completedFuture(null);
     }
 
     @Override
     public void disconnect() {
-        if (twitchChat != null) {
-            twitchChat.disconnect();
-            ChatterMod.LOGGER.info("[Twitch] Disconnected from channel: {}", account.channelName());
+        TwitchChat chat = twitchChat.getAndSet(null);
+        if (chat != null) {
+            chat.disconnect();
+            // close() also stops the chat's scheduler and event threads; disconnect() alone leaves them running.
+            chat.close();
+            ChatterMod.LOGGER.info("[Twitch] Disconnected from channels: {}", channelNames());
         }
+        closed.countDown();
+    }
+
+    private List<String> channelNames() {
+        return accounts.stream().map(ChatterModConfig.TwitchAccount::channelName).toList();
     }
 }
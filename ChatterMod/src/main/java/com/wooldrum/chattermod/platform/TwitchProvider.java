@@ -0,0 +1,32 @@
+package com.wooldrum.chattermod.platform;
+
+import com.wooldrum.chattermod.ChatterModConfig;
+
+import java.net.http.HttpClient;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * One Twitch platform for all configured channels, on the backend {@code twitch.backend}
+ * selects. twitch4j is only loaded when the TWITCH4J backend is actually started.
+ */
+public class TwitchProvider implements ChatPlatformProvider {
+
+    @Override
+    public String id() {
+        return "twitch";
+    }
+
+    @Override
+    public Map<List<Object>, Supplier<ChatPlatform>> platforms(ChatterModConfig config, HttpClient http) {
+        if (config.twitchAccounts.isEmpty()) return Map.of();
+        List<ChatterModConfig.TwitchAccount> accounts = config.twitchAccounts;
+        ChatterModConfig.TwitchBackend backend = config.twitchBackend;
+        String endpoint = config.twitchEndpoint;
+        boolean moderator = config.outboundTwitchModerator;
+        return Map.of(List.of(id(), accounts, backend, endpoint, moderator), () -> backend == ChatterModConfig.TwitchBackend.TWITCH4J
+                ? new TwitchPlatform(accounts, moderator)
+                : new TwitchIrcPlatform(accounts, http, endpoint));
+    }
+}
@@ -0,0 +1,183 @@
+package com.wooldrum.chattermod.platform;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The socket half of a WebSocket chat platform: opening the connection, reassembling
+ * fragmented text frames, the idle ping and dead-socket check, and the send chain. The
+ * platform supplies a {@link Handler} for complete frames and keeps the protocol.
+ * <p>
+ * Frames usually arrive whole and are handed over in place; fragments are collected in one
+ * reused buffer, and a frame larger than {@code MAX_FRAME_CHARS} is dropped rather than
+ * buffered without bound. Listener callbacks run one at a time on the HTTP client's
+ * threads, while {@link #awaitClose} runs on the supervisor's thread and watches for
+ * silence: once nothing has arrived for the idle time the ping is sent, and if nothing
+ * comes back within the pong timeout the socket is aborted.
+ */
+final class WebSocketSession {
+
+    interface Handler {
+        /** A complete text frame; {@code frame} is only valid for the duration of the call. */
+        void onFrame(WebSocket ws, CharSequence frame);
+
+        /** The error a close with anything but {@link WebSocket#NORMAL_CLOSURE} ends the session with. */
+        default PlatformException closeError(int code, String reason) {
+            return new PlatformException(PlatformException.Kind.TRANSIENT, "Chat socket closed (" + code + ").");
+        }
+    }
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final long HEARTBEAT_CHECK_MILLIS = 5_000;
+    // A frame this large is not chat; drop it rather than buffering without bound.
+    private static final int MAX_FRAME_CHARS = 1 << 20;
+    private static final int RETAINED_BUFFER_CHARS = 16 * 1024;
+
+    private final HttpClient http;
+    private final URI endpoint;
+    private final String ping;
+    private final long pongTimeoutMillis;
+    private final Handler handler;
+
+    private volatile WebSocket socket;
+    private volatile CountDownLatch closed = new CountDownLatch(0);
+    private volatile PlatformException closeReason;
+    private volatile long lastReceivedNanos;
+    private volatile long idlePingMillis;
+    private volatile boolean pingSent;
+    private CompletableFuture<?> lastSend = CompletableFuture.completedFuture(null);
+
+    /** @param ping the frame sent when the socket has been idle for {@code idlePingMillis} */
+    WebSocketSession(HttpClient http, URI endpoint, String ping, long idlePingMillis, long pongTimeoutMillis, Handler handler) {
+        this.http = http;
+        this.endpoint = endpoint;
+        this.ping = ping;
+        this.idlePingMillis = idlePingMillis;
+        this.pongTimeoutMillis = pongTimeoutMillis;
+        this.handler = handler;
+    }
+
+    /** Opens a new connection, waiting at most the connect timeout for it. */
+    WebSocket open() throws PlatformException, InterruptedException {
+        closed = new CountDownLatch(1);
+        closeReason = null;
+        pingSent = false;
+        lastReceivedNanos = System.nanoTime();
+        try {
+            WebSocket ws = http.newWebSocketBuilder()
+                    .connectTimeout(CONNECT_TIMEOUT)
+                    .buildAsync(endpoint, new Listener())
+                    .get(CONNECT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            socket = ws;
+            return ws;
+        } catch (ExecutionException | TimeoutException e) {
+            closed.countDown();
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            throw new PlatformException(PlatformException.Kind.TRANSIENT, "Could not open the chat socket: " + cause);
+        }
+    }
+
+    /** Blocks until the connection ends; throws the reason unless it was closed normally. */
+    void awaitClose() throws PlatformException, InterruptedException {
+        CountDownLatch latch = closed;
+        while (!latch.await(HEARTBEAT_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+            checkHeartbeat();
+        }
+        PlatformException reason = closeReason;
+        if (reason != null) throw reason;
+    }
+
+    private void checkHeartbeat() {
+        WebSocket ws = socket;
+        if (ws == null) return;
+        long idleMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastReceivedNanos);
+        if (idleMillis > idlePingMillis + pongTimeoutMillis) {
+            fail(new PlatformException(PlatformException.Kind.TRANSIENT, "No reply to ping; the chat socket is dead."));
+            ws.abort();
+        } else if (idleMillis > idlePingMillis && !pingSent) {
+            pingSent = true;
+            send(ws, ping);
+        }
+    }
+
+    /** Drops the connection; returns false if there was none. */
+    boolean close() {
+        WebSocket ws = socket;
+        socket = null;
+        if (ws != null) ws.abort();
+        closed.countDown();
+        return ws != null;
+    }
+
+    /** Ends the session with {@code reason}; the first reason given wins. */
+    void fail(PlatformException reason) {
+        if (closeReason == null) closeReason = reason;
+        closed.countDown();
+    }
+
+    /** The open socket, or null. */
+    WebSocket socket() {
+        return socket;
+    }
+
+    /** For protocols where the server announces how long the socket may stay quiet. */
+    void setIdlePingMillis(long idlePingMillis) {
+        this.idlePingMillis = idlePingMillis;
+    }
+
+    /** WebSocket allows one outstanding send at a time, so sends are chained. */
+    synchronized CompletableFuture<?> send(WebSocket ws, String text) {
+        lastSend = lastSend.handle((ignored, error) -> null).thenCompose(v -> ws.sendText(text, true));
+        return lastSend;
+    }
+
+    private final class Listener implements WebSocket.Listener {
+        private final StringBuilder partial = new StringBuilder();
+        private boolean oversized;
+
+        @Override
+        public CompletionStage<?> onText(WebSocket ws, CharSequence data, boolean last) {
+            lastReceivedNanos = System.nanoTime();
+            pingSent = false;
+            if (last && partial.isEmpty() && !oversized) {
+                // The common case: the whole frame arrived at once, parse it in place.
+                handler.onFrame(ws, data);
+            } else {
+                if (!oversized && partial.length() + data.length() <= MAX_FRAME_CHARS) {
+                    partial.append(data);
+                } else {
+                    oversized = true;
+                    partial.setLength(0);
+                }
+                if (last) {
+                    if (!oversized) handler.onFrame(ws, partial);
+                    oversized = false;
+                    partial.setLength(0);
+                    if (partial.capacity() > RETAINED_BUFFER_CHARS) partial.trimToSize();
+                }
+            }
+            ws.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket ws, int statusCode, String reason) {
+            if (statusCode != WebSocket.NORMAL_CLOSURE) fail(handler.closeError(statusCode, reason));
+            else closed.countDown();
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket ws, Throwable error) {
+            fail(new PlatformException(PlatformException.Kind.TRANSIENT, "Chat socket error: " + error));
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.wooldrum.chattermod.platform;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Streams a {@code liveChatMessages.list} response straight into {@link ChatMessage}s
+ * without building a Gson tree. Text messages, Super Chats and Super Stickers are kept;
+ * membership and moderation events are skipped. One instance per live chat; not thread-safe.
+ */
+public final class YouTubeChatParser {
+
+    public record Page(String nextPageToken, long pollingIntervalMillis, int itemCount) {}
+
+    private final String channel;
+    private String itemType;
+    private String itemText;
+    private String itemAuthor;
+    private String itemAmount;
+    private String itemSticker;
+    private final List<String> itemBadges = new ArrayList<>(3);
+
+    public YouTubeChatParser(String channel) {
+        this.channel = channel;
+    }
+
+    public Page parse(Reader in, Consumer<ChatMessage> sink) throws IOException {
+        JsonReader reader = new JsonReader(in);
+        String nextPageToken = "";
+        long pollingIntervalMillis = -1;
+        int itemCount = 0;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "nextPageToken" -> nextPageToken = reader.nextString();
+                case "pollingIntervalMillis" -> pollingIntervalMillis = reader.nextLong();
+                case "items" -> itemCount = readItems(reader, sink);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return new Page(nextPageToken, pollingIntervalMillis, itemCount);
+    }
+
+    private int readItems(JsonReader reader, Consumer<ChatMessage> sink) throws IOException {
+        int count = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            readItem(reader);
+            count++;
+            ChatMessage msg = toChatMessage();
+            if (msg != null) sink.accept(msg);
+        }
+        reader.endArray();
+        return count;
+    }
+
+    private ChatMessage toChatMessage() {
+        if (itemType == null || itemAuthor == null) return null;
+        switch (itemType) {
+            case "textMessageEvent" -> {
+                if (itemText == null) return null;
+                if (itemBadges.isEmpty()) {
+                    return new ChatMessage(itemAuthor, itemText, ChatMessage.Platform.YOUTUBE, channel);
+                }
+                String badges = String.join(",", itemBadges);
+                return new ChatMessage(itemAuthor, itemText, ChatMessage.Platform.YOUTUBE, channel,
+                        ChatMessage.Priority.forBadges(badges), Map.of(ChatMessage.BADGES, badges));
+            }
+            case "superChatEvent", "superStickerEvent" -> {
+                // A Super Chat may come without a comment; a sticker has only its alt text.
+                String text = itemSticker != null ? itemSticker : itemText != null ? itemText : "";
+                Map<String, String> metadata = new HashMap<>(4);
+                if (itemAmount != null) metadata.put(ChatMessage.AMOUNT, itemAmount);
+                if (itemSticker != null) metadata.put(ChatMessage.STICKER, itemSticker);
+                if (!itemBadges.isEmpty()) metadata.put(ChatMessage.BADGES, String.join(",", itemBadges));
+                return new ChatMessage(itemAuthor, text, ChatMessage.Platform.YOUTUBE, channel,
+                        ChatMessage.Priority.PAID, metadata);
+            }
+            default -> {
+                return null;
+            }
+        }
+    }
+
+    private void readItem(JsonReader reader) throws IOException {
+        itemType = null;
+        itemText = null;
+        itemAuthor = null;
+        itemAmount = null;
+        itemSticker = null;
+        itemBadges.clear();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "snippet" -> readSnippet(reader);
+                case "authorDetails" -> readAuthorDetails(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private void readSnippet(JsonReader reader) throws IOException {
+        String displayMessage = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "type" -> itemType = nextStringOrNull(reader);
+                case "displayMessage" -> displayMessage = nextStringOrNull(reader);
+                case "textMessageDetails" -> readTextMessageDetails(reader);
+                case "superChatDetails" -> readSuperChatDetails(reader);
+                case "superStickerDetails" -> readSuperStickerDetails(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+        // For a Super Chat the display message is its comment; a sticker's only repeats the amount.
+        if (itemText == null && !"superStickerEvent".equals(itemType)) itemText = displayMessage;
+    }
+
+    private void readSuperChatDetails(JsonReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "amountDisplayString" -> itemAmount = nextStringOrNull(reader);
+                case "userComment" -> itemText = nextStringOrNull(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private void readSuperStickerDetails(JsonReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "amountDisplayString" -> itemAmount = nextStringOrNull(reader);
+                case "superStickerMetadata" -> {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        if (reader.nextName().equals("altText")) {
+                            itemSticker = nextStringOrNull(reader);
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                }
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private void readTextMessageDetails(JsonReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals("messageText")) {
+                itemText = nextStringOrNull(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private void readAuthorDetails(JsonReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "displayName" -> itemAuthor = nextStringOrNull(reader);
+                case "isChatOwner" -> readBadge(reader, "owner");
+                case "isChatModerator" -> readBadge(reader, "moderator");
+                case "isChatSponsor" -> readBadge(reader, "member");
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private void readBadge(JsonReader reader, String badge) throws IOException {
+        if (reader.peek() != JsonToken.BOOLEAN) {
+            reader.skipValue();
+        } else if (reader.nextBoolean()) {
+            itemBadges.add(badge);
+        }
+    }
+
+    private static String nextStringOrNull(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+}
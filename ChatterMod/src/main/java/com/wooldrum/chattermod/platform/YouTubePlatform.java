@@ -1,12 +1,16 @@
 package com.wooldrum.chattermod.platform;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.wooldrum.chattermod.ChatterMod;
 import com.wooldrum.chattermod.ChatterModConfig;
+import com.wooldrum.chattermod.metrics.Counter;
+import com.wooldrum.chattermod.metrics.Histogram;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.net.http.HttpClient;
@@ -14,23 +18,69 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
-public class YouTubePlatform implements ChatPlatform {
+public class YouTubePlatform implements ChatPlatform, ChatSender {
+
+    public static final String DEFAULT_API_BASE = "https://www.googleapis.com/youtube/v3";
+    private static final long MAX_IDLE_DELAY_MILLIS = 30_000;
+    // search.list costs 100 quota units, so an offline channel is only re-checked every few minutes.
+    private static final Duration OFFLINE_RETRY = Duration.ofMinutes(10);
+    // Google only serves gzip when the User-Agent also advertises it.
+    private static final String USER_AGENT = "ChatterMod (gzip)";
+    // Quota costs from the YouTube Data API reference.
+    private static final int LIST_MESSAGES_COST = 5;
+    private static final int SEARCH_COST = 100;
+    private static final int VIDEOS_COST = 1;
+    private static final int INSERT_COST = 50;
+    private static final int MAX_MESSAGE_CHARS = 200;
+
+    private static final Histogram POLL_RTT = ChatterMod.METRICS.histogram("youtube.pollRtt");
+    private static final Counter QUOTA_UNITS = ChatterMod.METRICS.counter("youtube.quotaUnits");
+    private static final Counter CACHE_HITS = ChatterMod.METRICS.counter("youtube.liveChatCache.hits");
+    private static final Counter CACHE_MISSES = ChatterMod.METRICS.counter("youtube.liveChatCache.misses");
 
     private final ChatterModConfig.YouTubeAccount account;
     private final HttpClient http;
-    private ScheduledExecutorService poller;
-    private String liveChatId;
+    private final LiveChatIdCache liveChatIds;
+    private final String apiBase;
+    private final String accessToken;
+    private final long minPollIntervalMillis;
+    private final YouTubeChatParser parser;
+    // Poll thread only: the page being read, held back until the whole page has parsed.
+    private final List<ChatMessage> pageMessages = new ArrayList<>(200);
+    private volatile boolean polling;
+    private volatile String liveChatId;
     private String nextPageToken = "";
+    private int emptyPolls;
     private Consumer<ChatMessage> messageConsumer;
 
-    public YouTubePlatform(ChatterModConfig.YouTubeAccount account, HttpClient http) {
+    /**
+     * One instance per live chat; the HTTP client and live chat cache are shared by all of them.
+     *
+     * @param apiBase     Data API root to call instead of Google's, e.g. a local mock server;
+     *                    blank for the real service
+     * @param accessToken OAuth access token for posting to the chat; blank to only read it
+     */
+    public YouTubePlatform(ChatterModConfig.YouTubeAccount account, HttpClient http, LiveChatIdCache liveChatIds,
+                           int minPollIntervalSeconds, String apiBase, String accessToken) {
         this.account = account;
         this.http = http;
+        this.liveChatIds = liveChatIds;
+        this.apiBase = apiBase == null || apiBase.isBlank() ? DEFAULT_API_BASE : apiBase.replaceAll("/+$", "");
+        this.minPollIntervalMillis = Math.max(1, minPollIntervalSeconds) * 1000L;
+        this.accessToken = accessToken == null ? "" : accessToken.trim();
+        this.parser = new YouTubeChatParser(account.channelId());
+    }
+
+    @Override
+    public String name() {
+        return "YouTube/" + account.channelId();
     }
 
     @Override
@@ -39,96 +89,255 @@ public class YouTubePlatform implements ChatPlatform {
     }
 
     @Override
-    public void connect() {
+    public void connect() throws IOException, InterruptedException {
         if (account.apiKey().isBlank() || account.apiKey().equals("YOUR_API_KEY_HERE")) {
-            ChatterMod.LOGGER.error("[YouTube] Cannot connect: API Key is missing.");
-            return;
+            throw new PlatformException(PlatformException.Kind.FATAL, "Cannot connect: API Key is missing.");
         }
-        this.liveChatId = resolveLiveChatIdFromChannel();
+        this.liveChatId = account.liveChatId().isBlank() ? resolveLiveChatId() : account.liveChatId();
+        this.nextPageToken = "";
+        this.emptyPolls = 0;
+        this.polling = true;
+        ChatterMod.LOGGER.info("[YouTube] Connected and polling chat for liveChatId: {}", this.liveChatId);
+    }
 
-        if (this.liveChatId == null || this.liveChatId.isBlank()) {
-            ChatterMod.LOGGER.error("[YouTube] Could not find a live chat ID for channel '{}'.", account.channelId());
-            return;
+    @Override
+    public void awaitDisconnect() throws IOException, InterruptedException {
+        while (polling) {
+            long delay = poll();
+            Thread.sleep(delay);
         }
+    }
 
-        poller = Executors.newSingleThreadScheduledExecutor();
-        poller.scheduleAtFixedRate(this::poll, 0, 10, TimeUnit.SECONDS);
-        ChatterMod.LOGGER.info("[YouTube] Connected and polling chat for liveChatId: {}", this.liveChatId);
+    @Override
+    public ChatMessage.Platform platform() {
+        return ChatMessage.Platform.YOUTUBE;
     }
 
-    private void poll() {
-        try {
-            String url = "https://www.googleapis.com/youtube/v3/liveChat/messages"
-                    + "?part=snippet,authorDetails"
-                    + "&liveChatId=" + URLEncoder.encode(liveChatId, StandardCharsets.UTF_8)
-                    + (nextPageToken.isBlank() ? "" : "&pageToken=" + URLEncoder.encode(nextPageToken, StandardCharsets.UTF_8))
-                    + "&maxResults=200"
-                    + "&key=" + URLEncoder.encode(account.apiKey(), StandardCharsets.UTF_8);
+    @Override
+    public int maxMessageLength() {
+        return MAX_MESSAGE_CHARS;
+    }
+
+    @Override
+    public boolean canSend() {
+        return polling && liveChatId != null && !accessToken.isEmpty();
+    }
 
-            HttpRequest req = HttpRequest.newBuilder().uri(URI.create(url)).timeout(Duration.ofSeconds(10)).GET().build();
-            HttpResponse<String> res = http.send(req, HttpResponse.BodyHandlers.ofString());
+    /** {@code liveChatMessages.insert}, which needs OAuth rather than the API key and costs 50 quota units. */
+    @Override
+    public CompletableFuture<Void> send(String text) {
+        String chat = liveChatId;
+        if (!polling || chat == null || accessToken.isEmpty()) {
+            return CompletableFuture.failedFuture(new PlatformException(PlatformException.Kind.TRANSIENT,
+                    "Not connected to a live chat with an access token."));
+        }
+        JsonObject details = new JsonObject();
+        details.addProperty("messageText", text);
+        JsonObject snippet = new JsonObject();
+        snippet.addProperty("liveChatId", chat);
+        snippet.addProperty("type", "textMessageEvent");
+        snippet.add("textMessageDetails", details);
+        JsonObject body = new JsonObject();
+        body.add("snippet", snippet);
 
+        HttpRequest req = HttpRequest.newBuilder().uri(URI.create(apiBase + "/liveChat/messages?part=snippet"))
+                .timeout(Duration.ofSeconds(10))
+                .header("Authorization", "Bearer " + accessToken)
+                .header("Content-Type", "application/json; charset=UTF-8")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+        QUOTA_UNITS.add(INSERT_COST);
+        return http.sendAsync(req, HttpResponse.BodyHandlers.ofString()).thenApply(res -> {
             if (res.statusCode() != 200) {
-                ChatterMod.LOGGER.error("[YouTube] API Error: HTTP {}. Disconnecting.", res.statusCode());
-                disconnect();
-                return;
+                if (res.statusCode() == 401) {
+                    throw new CompletionException(new PlatformException(PlatformException.Kind.FATAL,
+                            "YouTube rejected the access token (HTTP 401)."));
+                }
+                throw new CompletionException(apiError(res, res.body()));
             }
+            return null;
+        });
+    }
 
-            JsonObject root = JsonParser.parseString(res.body()).getAsJsonObject();
-            nextPageToken = root.has("nextPageToken") ? root.get("nextPageToken").getAsString() : "";
+    /** Fetches one page and returns the delay until the next poll. */
+    private long poll() throws IOException, InterruptedException {
+        String url = apiBase + "/liveChat/messages"
+                + "?part=snippet,authorDetails"
+                + "&liveChatId=" + URLEncoder.encode(liveChatId, StandardCharsets.UTF_8)
+                + (nextPageToken.isBlank() ? "" : "&pageToken=" + URLEncoder.encode(nextPageToken, StandardCharsets.UTF_8))
+                + "&maxResults=200"
+                + "&key=" + URLEncoder.encode(account.apiKey(), StandardCharsets.UTF_8);
 
-            for (JsonElement el : root.getAsJsonArray("items")) {
-                JsonObject item = el.getAsJsonObject();
-                if (item.getAsJsonObject("snippet").get("type").getAsString().equals("textMessageEvent")) {
-                    String author = item.getAsJsonObject("authorDetails").get("displayName").getAsString();
-                    String msg = item.getAsJsonObject("snippet").getAsJsonObject("textMessageDetails").get("messageText").getAsString();
-                    messageConsumer.accept(new ChatMessage(author, msg, ChatMessage.Platform.YOUTUBE));
-                }
+        HttpRequest req = HttpRequest.newBuilder().uri(URI.create(url)).timeout(Duration.ofSeconds(10))
+                .header("Accept-Encoding", "gzip")
+                .header("User-Agent", USER_AGENT)
+                .GET().build();
+        long sentAt = System.nanoTime();
+        HttpResponse<InputStream> res = http.send(req, HttpResponse.BodyHandlers.ofInputStream());
+        QUOTA_UNITS.add(LIST_MESSAGES_COST);
+
+        if (res.statusCode() != 200) {
+            String error;
+            try (Reader body = openBody(res)) {
+                error = readError(body);
+            } catch (IOException e) {
+                error = "";
+            }
+            if (isChatGone(res.statusCode(), error)) {
+                liveChatIds.invalidate(account.channelId());
             }
-        } catch (Exception e) {
-            ChatterMod.LOGGER.error("[YouTube] Polling failed.", e);
-            disconnect();
+            throw apiError(res, error);
+        }
+
+        // A page that breaks off halfway is fetched again with the same token, so nothing from
+        // it may reach chat before the token advances; otherwise its first half shows twice.
+        YouTubeChatParser.Page page;
+        try (Reader body = openBody(res)) {
+            page = parser.parse(body, pageMessages::add);
+            // The round trip ends with the page read; handing it to the pipeline is not network time.
+            POLL_RTT.recordNanos(System.nanoTime() - sentAt);
+            nextPageToken = page.nextPageToken();
+            for (ChatMessage msg : pageMessages) {
+                messageConsumer.accept(msg);
+            }
+        } finally {
+            pageMessages.clear();
+        }
+        return nextDelay(page);
+    }
+
+    private long nextDelay(YouTubeChatParser.Page page) {
+        long delay = Math.max(minPollIntervalMillis, page.pollingIntervalMillis());
+        if (page.itemCount() > 0) {
+            emptyPolls = 0;
+            return delay;
+        }
+        // Quiet chat: stretch the interval so idle streams burn less quota.
+        emptyPolls = Math.min(emptyPolls + 1, 3);
+        return Math.max(delay, Math.min(MAX_IDLE_DELAY_MILLIS, delay << emptyPolls));
+    }
+
+    private static Reader openBody(HttpResponse<InputStream> res) throws IOException {
+        InputStream in = res.body();
+        boolean gzip = res.headers().firstValue("Content-Encoding").map("gzip"::equalsIgnoreCase).orElse(false);
+        return new InputStreamReader(gzip ? new GZIPInputStream(in) : in, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Maps a non-200 response to a supervisor decision. 403 and 429 are quota/rate refusals
+     * unless the error says the chat itself is gone; 400/401 mean the key is bad.
+     */
+    private static PlatformException apiError(HttpResponse<?> res, String error) {
+        int status = res.statusCode();
+        Duration retryAfter = res.headers().firstValue("Retry-After")
+                .map(YouTubePlatform::parseRetryAfter)
+                .orElse(null);
+
+        if (isChatGone(status, error)) {
+            return new PlatformException(PlatformException.Kind.TRANSIENT, "Live chat ended (HTTP " + status + ").", OFFLINE_RETRY);
+        }
+        if (status == 403 || status == 429) {
+            return new PlatformException(PlatformException.Kind.QUOTA, "API quota or rate limit hit (HTTP " + status + ").", retryAfter);
+        }
+        if (status == 400 || status == 401) {
+            return new PlatformException(PlatformException.Kind.FATAL, "API rejected the request (HTTP " + status + "). Check the API Key.");
+        }
+        return new PlatformException(PlatformException.Kind.TRANSIENT, "API Error: HTTP " + status + ".", retryAfter);
+    }
+
+    private static boolean isChatGone(int status, String error) {
+        return error.contains("liveChatEnded") || error.contains("liveChatNotFound") || status == 404;
+    }
+
+    /** Error bodies are small JSON documents; only the reason codes in them matter. */
+    private static String readError(Reader reader) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        char[] buf = new char[1024];
+        int n;
+        while (sb.length() < 8192 && (n = reader.read(buf)) > 0) {
+            sb.append(buf, 0, n);
+        }
+        return sb.toString();
+    }
+
+    private static Duration parseRetryAfter(String value) {
+        try {
+            return Duration.ofSeconds(Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return null;
         }
     }
 
     @Override
     public void disconnect() {
-        if (poller != null && !poller.isShutdown()) {
-            poller.shutdownNow();
-            ChatterMod.LOGGER.info("[YouTube] Disconnected.");
+        if (polling) {
+            polling = false;
+            ChatterMod.LOGGER.info("[YouTube] Disconnected from channel '{}'.", account.channelId());
         }
     }
 
-    private String resolveLiveChatIdFromChannel() {
-        try {
-            String searchUrl = "https://www.googleapis.com/youtube/v3/search?part=snippet"
-                    + "&channelId=" + URLEncoder.encode(account.channelId(), StandardCharsets.UTF_8)
-                    + "&eventType=live&type=video"
-                    + "&key=" + URLEncoder.encode(account.apiKey(), StandardCharsets.UTF_8);
+    /**
+     * Reuses the cached stream while {@code videos.list} (1 unit) still reports a live chat
+     * for it, and only falls back to {@code search.list} (100 units) once it has ended.
+     */
+    private String resolveLiveChatId() throws IOException, InterruptedException {
+        LiveChatIdCache.Entry cached = liveChatIds.get(account.channelId());
+        if (cached != null) {
+            String current = activeLiveChatId(cached.videoId());
+            if (current != null) {
+                CACHE_HITS.increment();
+                liveChatIds.put(account.channelId(), cached.videoId(), current);
+                return current;
+            }
+            liveChatIds.invalidate(account.channelId());
+        }
+        CACHE_MISSES.increment();
 
-            HttpRequest req = HttpRequest.newBuilder().uri(URI.create(searchUrl)).build();
-            HttpResponse<String> res = http.send(req, HttpResponse.BodyHandlers.ofString());
+        String videoId = findLiveVideoId();
+        String resolved = activeLiveChatId(videoId);
+        if (resolved == null) {
+            throw new PlatformException(PlatformException.Kind.TRANSIENT,
+                    "Could not find a live chat ID for channel '" + account.channelId() + "'.", OFFLINE_RETRY);
+        }
+        liveChatIds.put(account.channelId(), videoId, resolved);
+        return resolved;
+    }
 
-            if (res.statusCode() != 200) return null;
+    private String findLiveVideoId() throws IOException, InterruptedException {
+        String searchUrl = apiBase + "/search?part=snippet"
+                + "&channelId=" + URLEncoder.encode(account.channelId(), StandardCharsets.UTF_8)
+                + "&eventType=live&type=video"
+                + "&key=" + URLEncoder.encode(account.apiKey(), StandardCharsets.UTF_8);
 
-            JsonObject root = JsonParser.parseString(res.body()).getAsJsonObject();
-            if (!root.has("items") || root.getAsJsonArray("items").isEmpty()) return null;
+        HttpRequest req = HttpRequest.newBuilder().uri(URI.create(searchUrl)).timeout(Duration.ofSeconds(10)).build();
+        HttpResponse<String> res = http.send(req, HttpResponse.BodyHandlers.ofString());
+        QUOTA_UNITS.add(SEARCH_COST);
+        if (res.statusCode() != 200) throw apiError(res, res.body());
 
-            String videoId = root.getAsJsonArray("items").get(0).getAsJsonObject().getAsJsonObject("id").get("videoId").getAsString();
+        JsonObject root = JsonParser.parseString(res.body()).getAsJsonObject();
+        if (!root.has("items") || root.getAsJsonArray("items").isEmpty()) {
+            throw new PlatformException(PlatformException.Kind.TRANSIENT,
+                    "No active live stream on channel '" + account.channelId() + "'.", OFFLINE_RETRY);
+        }
 
-            String detailUrl = "https://www.googleapis.com/youtube/v3/videos?part=liveStreamingDetails&id=" + videoId + "&key=" + account.apiKey();
-            req = HttpRequest.newBuilder().uri(URI.create(detailUrl)).build();
-            res = http.send(req, HttpResponse.BodyHandlers.ofString());
+        return root.getAsJsonArray("items").get(0).getAsJsonObject().getAsJsonObject("id").get("videoId").getAsString();
+    }
 
-            if (res.statusCode() != 200) return null;
+    /** The video's live chat, or null once the broadcast is over or the video is gone. */
+    private String activeLiveChatId(String videoId) throws IOException, InterruptedException {
+        String detailUrl = apiBase + "/videos?part=liveStreamingDetails"
+                + "&id=" + URLEncoder.encode(videoId, StandardCharsets.UTF_8)
+                + "&key=" + URLEncoder.encode(account.apiKey(), StandardCharsets.UTF_8);
+        HttpRequest req = HttpRequest.newBuilder().uri(URI.create(detailUrl)).timeout(Duration.ofSeconds(10)).build();
+        HttpResponse<String> res = http.send(req, HttpResponse.BodyHandlers.ofString());
+        QUOTA_UNITS.add(VIDEOS_COST);
+        if (res.statusCode() != 200) throw apiError(res, res.body());
 
-            JsonObject detailRoot = JsonParser.parseString(res.body()).getAsJsonObject();
-            if (!detailRoot.has("items") || detailRoot.getAsJsonArray("items").isEmpty()) return null;
-            
-            return detailRoot.getAsJsonArray("items").get(0).getAsJsonObject().getAsJsonObject("liveStreamingDetails").get("activeLiveChatId").getAsString();
-        } catch (Exception e) {
-            ChatterMod.LOGGER.error("[YouTube] Failed to auto-resolve live chat ID.", e);
-            return null;
-        }
+        JsonObject detailRoot = JsonParser.parseString(res.body()).getAsJsonObject();
+        if (!detailRoot.has("items") || detailRoot.getAsJsonArray("items").isEmpty()) return null;
+
+        JsonObject details = detailRoot.getAsJsonArray("items").get(0).getAsJsonObject().getAsJsonObject("liveStreamingDetails");
+        if (details == null || !details.has("activeLiveChatId") || details.has("actualEndTime")) return null;
+        return details.get("activeLiveChatId").getAsString();
     }
 }
@@ -0,0 +1,46 @@
+package com.wooldrum.chattermod.platform;
+
+import com.wooldrum.chattermod.ChatterModConfig;
+
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/** One {@link YouTubePlatform} per configured channel, sharing a live chat cache. */
+public class YouTubeProvider implements ChatPlatformProvider {
+
+    private static final Path LIVE_CHAT_CACHE = Path.of("config", "chattermod-livechats.properties");
+    private static final Duration LIVE_CHAT_CACHE_TTL = Duration.ofHours(24);
+
+    // Read from disk the first time a YouTube platform is actually created.
+    private LiveChatIdCache liveChatIds;
+
+    @Override
+    public String id() {
+        return "youtube";
+    }
+
+    @Override
+    public Map<List<Object>, Supplier<ChatPlatform>> platforms(ChatterModConfig config, HttpClient http) {
+        Map<List<Object>, Supplier<ChatPlatform>> platforms = new LinkedHashMap<>();
+        int pollInterval = config.youtubePollIntervalSeconds;
+        String apiBase = config.youtubeApiBaseUrl;
+        String accessToken = config.youtubeAccessToken;
+        for (ChatterModConfig.YouTubeAccount account : config.youtubeAccounts) {
+            platforms.put(List.of(id(), account, pollInterval, apiBase, accessToken),
+                    () -> new YouTubePlatform(account, http, liveChatIds(), pollInterval, apiBase, accessToken));
+        }
+        return platforms;
+    }
+
+    private synchronized LiveChatIdCache liveChatIds() {
+        if (liveChatIds == null) {
+            liveChatIds = new LiveChatIdCache(LIVE_CHAT_CACHE, LIVE_CHAT_CACHE_TTL);
+        }
+        return liveChatIds;
+    }
+}
@@ -0,0 +1,112 @@
+package com.wooldrum.chattermod.journal;
+
+import com.wooldrum.chattermod.platform.ChatMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChatJournalTest {
+
+    // Large enough that a few thousand messages rotate through several 1 MB segments.
+    private static final String PADDING = "p".repeat(900);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void searchFindsNewestMatchesFirstIgnoringCase() throws IOException {
+        ChatJournal journal = ChatJournal.open(dir, 1, 10, 0);
+        journal.append(message("alice", "first Creeper sighting"));
+        journal.append(message("bob", "nothing to see"));
+        journal.append(message("carol", "another creeper!"));
+
+        List<ChatJournal.Entry> hits = journal.search("CREEPER", 10);
+        assertEquals(2, hits.size());
+        assertEquals("carol", hits.get(0).message().author());
+        assertEquals("alice", hits.get(1).message().author());
+        assertEquals(1, journal.search("bob", 10).size());
+        journal.close();
+    }
+
+    @Test
+    void sinceReturnsTheMostRecentMessagesOldestFirst() throws IOException {
+        ChatJournal journal = ChatJournal.open(dir, 1, 10, 0);
+        for (int i = 0; i < 50; i++) {
+            journal.append(message("viewer", "line " + i));
+        }
+
+        List<ChatJournal.Entry> last = journal.since(0, 5);
+        assertEquals(5, last.size());
+        assertEquals("line 45", last.get(0).message().message());
+        assertEquals("line 49", last.get(4).message().message());
+        journal.close();
+    }
+
+    @Test
+    void rotationKeepsAtMostMaxSegments() throws IOException {
+        ChatJournal journal = ChatJournal.open(dir, 1, 3, 0);
+        for (int i = 0; i < 6_000; i++) {
+            journal.append(message("viewer", i + " " + PADDING));
+        }
+
+        assertEquals(3, journal.segmentCount());
+        assertEquals(3, segmentFiles());
+        List<ChatJournal.Entry> newest = journal.since(0, 1);
+        assertTrue(newest.get(0).message().message().startsWith("5999 "));
+        journal.close();
+    }
+
+    @Test
+    void reopenedJournalKeepsItsHistoryAndAppendsAfterIt() throws IOException {
+        ChatJournal journal = ChatJournal.open(dir, 1, 10, 0);
+        journal.append(message("viewer", "before restart"));
+        journal.close();
+
+        ChatJournal reopened = ChatJournal.open(dir, 1, 10, 0);
+        reopened.append(message("viewer", "after restart"));
+        List<ChatJournal.Entry> all = reopened.since(0, 10);
+        assertEquals(2, all.size());
+        assertEquals("before restart", all.get(0).message().message());
+        assertEquals("after restart", all.get(1).message().message());
+        assertEquals(1, reopened.segmentCount());
+        reopened.close();
+    }
+
+    @Test
+    void segmentsPastRetentionAreDroppedOnOpen() throws IOException {
+        long now = System.currentTimeMillis();
+        long twoDaysAgo = now - 2 * 86_400_000L;
+        JournalSegment old = JournalSegment.create(dir, twoDaysAgo, 256 * 1024);
+        old.append(twoDaysAgo, message("viewer", "ancient"));
+        old.seal();
+        JournalSegment recent = JournalSegment.create(dir, now, 256 * 1024);
+        recent.append(now, message("viewer", "today"));
+        recent.seal();
+
+        ChatJournal journal = ChatJournal.open(dir, 1, 10, 1);
+        assertEquals(1, journal.segmentCount());
+        assertEquals(1, segmentFiles());
+        List<ChatJournal.Entry> all = journal.since(0, 10);
+        assertEquals(1, all.size());
+        assertEquals("today", all.get(0).message().message());
+        journal.close();
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(JournalSegment.DATA_SUFFIX)).count();
+        }
+    }
+
+    private static ChatMessage message(String author, String text) {
+        return new ChatMessage(author, text, ChatMessage.Platform.YOUTUBE, "UCchannel");
+    }
+}
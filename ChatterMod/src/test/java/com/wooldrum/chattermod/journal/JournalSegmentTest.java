@@ -0,0 +1,160 @@
+package com.wooldrum.chattermod.journal;
+
+import com.wooldrum.chattermod.platform.ChatMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JournalSegmentTest {
+
+    private static final int SEGMENT_BYTES = 64 * 1024;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void priorityAndMetadataSurviveTheRoundTrip() throws IOException {
+        JournalSegment segment = JournalSegment.create(dir, 1000, SEGMENT_BYTES);
+        ChatMessage superChat = new ChatMessage("Fan", "great stream", ChatMessage.Platform.YOUTUBE, "UCchannel",
+                ChatMessage.Priority.PAID, Map.of(ChatMessage.AMOUNT, "$5.00", ChatMessage.BADGES, "member"));
+        assertTrue(segment.append(1000, superChat));
+        assertTrue(segment.append(1001, new ChatMessage("viewer", "hi", ChatMessage.Platform.TWITCH, "chan")));
+        segment.seal();
+
+        List<ChatMessage> read = readAll(JournalSegment.open(segment.dataPath(), false));
+        assertEquals(2, read.size());
+        ChatMessage paid = read.get(0);
+        assertEquals(ChatMessage.Priority.PAID, paid.priority());
+        assertEquals("$5.00", paid.meta(ChatMessage.AMOUNT));
+        assertEquals("member", paid.meta(ChatMessage.BADGES));
+        assertEquals("great stream", paid.message());
+        assertEquals(ChatMessage.Priority.NORMAL, read.get(1).priority());
+        assertTrue(read.get(1).metadata().isEmpty());
+    }
+
+    @Test
+    void versionOneSegmentsAreReadButNotAppendedTo() throws IOException {
+        Path file = dir.resolve("5000" + JournalSegment.DATA_SUFFIX);
+        ByteBuffer data = ByteBuffer.allocate(SEGMENT_BYTES);
+        data.putInt(0x434d4a31).putInt(1);
+        byte[] channel = "chan".getBytes(StandardCharsets.UTF_8);
+        byte[] author = "old".getBytes(StandardCharsets.UTF_8);
+        byte[] message = "from before".getBytes(StandardCharsets.UTF_8);
+        data.putInt(8 + 1 + 6 + channel.length + author.length + message.length)
+                .putLong(5000)
+                .put((byte) ChatMessage.Platform.KICK.ordinal())
+                .putShort((short) channel.length).put(channel)
+                .putShort((short) author.length).put(author)
+                .putShort((short) message.length).put(message);
+        Files.write(file, data.array());
+
+        JournalSegment segment = JournalSegment.open(file, true);
+        List<ChatMessage> read = readAll(segment);
+        assertEquals(1, read.size());
+        assertEquals("from before", read.get(0).message());
+        assertEquals(ChatMessage.Platform.KICK, read.get(0).platform());
+        assertEquals(ChatMessage.Priority.NORMAL, read.get(0).priority());
+        assertFalse(segment.append(6000, new ChatMessage("new", "text", ChatMessage.Platform.KICK, "chan")));
+        segment.seal();
+    }
+
+    @Test
+    void manyRecordsRoundTripInOrderAndAreIndexed() throws IOException {
+        JournalSegment segment = JournalSegment.create(dir, 10_000, SEGMENT_BYTES);
+        int written = 0;
+        while (segment.append(10_000 + written, message(written))) {
+            written++;
+        }
+        segment.seal();
+        assertTrue(written > 500, "only " + written + " records fit");
+
+        JournalSegment reopened = JournalSegment.open(segment.dataPath(), false);
+        List<ChatMessage> read = readAll(reopened);
+        assertEquals(written, read.size());
+        for (int i = 0; i < written; i++) {
+            assertEquals("message " + i, read.get(i).message());
+        }
+        assertEquals(10_000, reopened.firstTimestamp());
+        assertEquals(10_000 + written - 1, reopened.lastTimestamp());
+        assertTrue(reopened.indexCount() > 1);
+    }
+
+    @Test
+    void floorOffsetStartsAtOrBeforeTheRequestedTime() throws IOException {
+        JournalSegment segment = JournalSegment.create(dir, 0, SEGMENT_BYTES);
+        for (int i = 0; segment.append(i * 10L, message(i)); i++) {
+            // Fill the segment.
+        }
+        long target = segment.lastTimestamp() / 2;
+        List<Long> timestamps = new ArrayList<>();
+        segment.scan(segment.floorOffset(target), segment.end(), (epochMillis, msg) -> timestamps.add(epochMillis));
+        assertTrue(timestamps.get(0) <= target);
+        assertTrue(timestamps.contains(target));
+        assertTrue(timestamps.size() < segment.lastTimestamp() / 10, "the scan should skip the first half");
+        segment.seal();
+    }
+
+    @Test
+    void reopenedWritableSegmentResumesAfterItsLastRecord() throws IOException {
+        JournalSegment segment = JournalSegment.create(dir, 2000, SEGMENT_BYTES);
+        for (int i = 0; i < 300; i++) {
+            assertTrue(segment.append(2000 + i, message(i)));
+        }
+        segment.seal();
+
+        JournalSegment resumed = JournalSegment.open(segment.dataPath(), true);
+        assertEquals(2299, resumed.lastTimestamp());
+        assertTrue(resumed.append(2300, message(300)));
+        resumed.seal();
+
+        List<ChatMessage> read = readAll(JournalSegment.open(segment.dataPath(), false));
+        assertEquals(301, read.size());
+        assertEquals("message 300", read.get(300).message());
+    }
+
+    @Test
+    void oversizedFieldsAreClipped() throws IOException {
+        JournalSegment segment = JournalSegment.create(dir, 3000, SEGMENT_BYTES);
+        String huge = "x".repeat(5000);
+        assertTrue(segment.append(3000, new ChatMessage("author", huge, ChatMessage.Platform.TWITCH, "chan")));
+        segment.seal();
+
+        ChatMessage read = readAll(segment).get(0);
+        assertTrue(read.message().length() < huge.length());
+        assertTrue(huge.startsWith(read.message()));
+    }
+
+    @Test
+    void fullSegmentRefusesAppendsWithoutCorruptingEarlierRecords() throws IOException {
+        JournalSegment segment = JournalSegment.create(dir, 4000, 1024);
+        int written = 0;
+        while (segment.append(4000 + written, message(written))) {
+            written++;
+        }
+        assertFalse(segment.append(9999, message(0)));
+        segment.seal();
+        assertEquals(written, readAll(JournalSegment.open(segment.dataPath(), false)).size());
+    }
+
+    private static ChatMessage message(int i) {
+        return new ChatMessage("viewer" + i % 7, "message " + i, ChatMessage.Platform.TWITCH, "chan");
+    }
+
+    private static List<ChatMessage> readAll(JournalSegment segment) {
+        List<ChatMessage> messages = new ArrayList<>();
+        segment.scan(segment.floorOffset(Long.MIN_VALUE), segment.end(), (epochMillis, msg) -> messages.add(msg));
+        return messages;
+    }
+}
@@ -0,0 +1,91 @@
+package com.wooldrum.chattermod.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HistogramTest {
+
+    @Test
+    void emptyHistogramReportsZero() {
+        Histogram histogram = new Histogram();
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.percentileMicros(50));
+        assertEquals(0, histogram.percentileMicros(99));
+    }
+
+    @Test
+    void smallValuesAreExact() {
+        Histogram histogram = new Histogram();
+        for (int micros = 1; micros <= 10; micros++) {
+            histogram.recordMicros(micros);
+        }
+        assertEquals(10, histogram.count());
+        assertEquals(5, histogram.percentileMicros(50));
+        assertEquals(9, histogram.percentileMicros(90));
+        assertEquals(10, histogram.percentileMicros(100));
+    }
+
+    @Test
+    void largeValuesAreWithinOneEighth() {
+        for (long value : new long[] {17, 100, 1_000, 12_345, 999_999, 3_600_000_000L}) {
+            Histogram histogram = new Histogram();
+            histogram.recordMicros(value);
+            long reported = histogram.percentileMicros(50);
+            assertTrue(reported >= value, value + " reported as " + reported);
+            assertTrue(reported <= value + value / 8, value + " reported as " + reported);
+        }
+    }
+
+    @Test
+    void percentilesFollowTheDistribution() {
+        Histogram histogram = new Histogram();
+        for (int i = 0; i < 990; i++) {
+            histogram.recordMicros(1_000);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.recordMicros(500_000);
+        }
+        assertTrue(histogram.percentileMicros(50) < 1_200);
+        assertTrue(histogram.percentileMicros(99) < 1_200);
+        assertTrue(histogram.percentileMicros(99.9) >= 500_000);
+    }
+
+    @Test
+    void nanosAreRecordedAsMicros() {
+        Histogram histogram = new Histogram();
+        histogram.recordNanos(7_999);
+        assertEquals(7, histogram.percentileMicros(100));
+    }
+
+    @Test
+    void outOfRangeValuesAreClamped() {
+        Histogram histogram = new Histogram();
+        histogram.recordMicros(-5);
+        assertEquals(0, histogram.percentileMicros(100));
+        histogram.recordMicros(Long.MAX_VALUE);
+        assertEquals(2, histogram.count());
+        assertTrue(histogram.percentileMicros(100) > 1L << 40);
+    }
+
+    @Test
+    void concurrentRecordingLosesNothing() throws InterruptedException {
+        Histogram histogram = new Histogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.recordMicros(i);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(80_000, histogram.count());
+    }
+}
@@ -0,0 +1,64 @@
+package com.wooldrum.chattermod.outbound;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    private static final Duration HOUR = Duration.ofHours(1);
+
+    @Test
+    void startsWithAFullBurstThenAsksToWait() {
+        TokenBucket bucket = new TokenBucket(20, 3, HOUR);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire());
+        }
+        assertTrue(bucket.tryAcquire() > 0);
+    }
+
+    @Test
+    void burstIsCappedByTheLimitAndAtLeastOne() {
+        assertEquals(3.0, new TokenBucket(3, 10, HOUR).available());
+        assertEquals(1.0, new TokenBucket(5, 0, HOUR).available());
+        assertEquals(1.0, new TokenBucket(0, 0, HOUR).available());
+    }
+
+    @Test
+    void waitMatchesTheRefillRateOfTheRemainingLimit() {
+        // 11 per 10 s with a burst of 1 refills the other 10 at one per second.
+        TokenBucket bucket = new TokenBucket(11, 1, Duration.ofSeconds(10));
+        assertEquals(0, bucket.tryAcquire());
+        long wait = bucket.tryAcquire();
+        assertTrue(wait > Duration.ofMillis(900).toNanos(), "wait " + wait);
+        assertTrue(wait <= Duration.ofSeconds(1).toNanos(), "wait " + wait);
+    }
+
+    @Test
+    void setLimitKeepsEarnedTokensUpToTheNewBurst() {
+        TokenBucket bucket = new TokenBucket(20, 20, HOUR);
+        for (int i = 0; i < 5; i++) {
+            bucket.tryAcquire();
+        }
+        bucket.setLimit(20, 10, HOUR);
+        assertEquals(10.0, bucket.available(), 0.01);
+
+        bucket.setLimit(100, 50, HOUR);
+        double available = bucket.available();
+        assertTrue(available >= 10 && available < 10.01, "available " + available);
+    }
+
+    @Test
+    void acquireWaitsForTheNextToken() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1001, 1, Duration.ofSeconds(1));
+        bucket.acquire();
+        long start = System.nanoTime();
+        bucket.acquire();
+        long elapsed = System.nanoTime() - start;
+        assertTrue(elapsed < Duration.ofMillis(500).toNanos(), "elapsed " + elapsed);
+        assertTrue(bucket.available() < 1);
+    }
+}
@@ -0,0 +1,147 @@
+package com.wooldrum.chattermod.pipeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IngestBufferTest {
+
+    @Test
+    void capacityRoundsUpToAPowerOfTwo() {
+        assertEquals(8, new IngestBuffer<String>(5, IngestBuffer.OverloadPolicy.DROP_OLDEST, 1).capacity());
+        assertEquals(8, new IngestBuffer<String>(8, IngestBuffer.OverloadPolicy.DROP_OLDEST, 1).capacity());
+        assertEquals(1024, new IngestBuffer<String>(1000, IngestBuffer.OverloadPolicy.DROP_OLDEST, 1).capacity());
+    }
+
+    @Test
+    void itemsComeOutInOrderAndWrapAround() {
+        IngestBuffer<Integer> buffer = new IngestBuffer<>(4, IngestBuffer.OverloadPolicy.DROP_NEWEST, 1);
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 3; i++) {
+                assertTrue(buffer.offer(round * 10 + i));
+            }
+            for (int i = 0; i < 3; i++) {
+                assertEquals(Integer.valueOf(round * 10 + i), buffer.poll());
+            }
+        }
+        assertNull(buffer.poll());
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void dropOldestEvictsTheHeadToAdmitTheNewItem() {
+        IngestBuffer<Integer> buffer = new IngestBuffer<>(4, IngestBuffer.OverloadPolicy.DROP_OLDEST, 1);
+        for (int i = 0; i < 6; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertEquals(2, buffer.droppedOldest());
+        assertEquals(List.of(2, 3, 4, 5), drain(buffer));
+    }
+
+    @Test
+    void dropNewestRejectsOnceFull() {
+        IngestBuffer<Integer> buffer = new IngestBuffer<>(4, IngestBuffer.OverloadPolicy.DROP_NEWEST, 1);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(1, buffer.droppedNewest());
+        assertEquals(List.of(0, 1, 2, 3), drain(buffer));
+    }
+
+    @Test
+    void keptItemsEvictEvenUnderDropNewest() {
+        IngestBuffer<Integer> buffer = new IngestBuffer<>(4, IngestBuffer.OverloadPolicy.DROP_NEWEST, 1);
+        for (int i = 0; i < 4; i++) {
+            buffer.offer(i);
+        }
+        assertTrue(buffer.offer(4, true));
+        assertFalse(buffer.offer(5));
+        assertEquals(1, buffer.droppedOldest());
+        assertEquals(1, buffer.droppedNewest());
+        assertEquals(List.of(1, 2, 3, 4), drain(buffer));
+    }
+
+    @Test
+    void sampleAdmitsEveryNthItemOnceHalfFull() {
+        IngestBuffer<Integer> buffer = new IngestBuffer<>(64, IngestBuffer.OverloadPolicy.SAMPLE, 4);
+        for (int i = 0; i < 32; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        int admitted = 0;
+        for (int i = 0; i < 20; i++) {
+            if (buffer.offer(100 + i)) admitted++;
+        }
+        assertEquals(5, admitted);
+        assertEquals(15, buffer.sampledOut());
+        assertEquals(15, buffer.droppedTotal());
+    }
+
+    @Test
+    void takeWakesUpForAnItemFromAnotherThread() throws InterruptedException {
+        IngestBuffer<String> buffer = new IngestBuffer<>(4, IngestBuffer.OverloadPolicy.DROP_OLDEST, 1);
+        List<String> taken = new ArrayList<>();
+        Thread consumer = Thread.ofPlatform().start(() -> {
+            try {
+                taken.add(buffer.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Thread.sleep(50);
+        buffer.offer("hello");
+        consumer.join(TimeUnit.SECONDS.toMillis(5));
+        assertFalse(consumer.isAlive());
+        assertEquals(List.of("hello"), taken);
+    }
+
+    @Test
+    void takeCanBeInterrupted() {
+        IngestBuffer<String> buffer = new IngestBuffer<>(4, IngestBuffer.OverloadPolicy.DROP_OLDEST, 1);
+        Thread.currentThread().interrupt();
+        assertThrows(InterruptedException.class, buffer::take);
+        assertFalse(Thread.interrupted());
+    }
+
+    @Test
+    void concurrentProducersLoseNothingWhenThereIsRoom() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 10_000;
+        IngestBuffer<Integer> buffer = new IngestBuffer<>(producers * perProducer, IngestBuffer.OverloadPolicy.DROP_NEWEST, 1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    buffer.offer(base + i);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Set<Integer> seen = new HashSet<>(drain(buffer));
+        assertEquals(producers * perProducer, seen.size());
+        assertEquals(0, buffer.droppedTotal());
+    }
+
+    private static <T> List<T> drain(IngestBuffer<T> buffer) {
+        List<T> items = new ArrayList<>();
+        T item;
+        while ((item = buffer.poll()) != null) {
+            items.add(item);
+        }
+        return items;
+    }
+}
@@ -0,0 +1,94 @@
+package com.wooldrum.chattermod.pipeline;
+
+import com.wooldrum.chattermod.platform.ChatMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PriorityIngestBufferTest {
+
+    private static final int LANES = ChatMessage.Priority.values().length;
+    private static final int PAID = ChatMessage.Priority.PAID.ordinal();
+    private static final int MODERATOR = ChatMessage.Priority.MODERATOR.ordinal();
+    private static final int NORMAL = ChatMessage.Priority.NORMAL.ordinal();
+
+    @Test
+    void normalFloodNeverDropsPaidOrModeratorMessages() {
+        for (IngestBuffer.OverloadPolicy policy : IngestBuffer.OverloadPolicy.values()) {
+            PriorityIngestBuffer<String> buffer = new PriorityIngestBuffer<>(LANES, 64, policy, 4);
+            buffer.offer("paid-0", PAID);
+            buffer.offer("mod-0", MODERATOR);
+            for (int i = 0; i < 10_000; i++) {
+                buffer.offer("normal-" + i, NORMAL);
+                if (i % 1000 == 999) {
+                    buffer.offer("paid-" + (i / 1000 + 1), PAID);
+                    buffer.offer("mod-" + (i / 1000 + 1), MODERATOR);
+                }
+            }
+
+            assertEquals(0, buffer.dropped(PAID), policy + ": paid drops");
+            assertEquals(0, buffer.dropped(MODERATOR), policy + ": moderator drops");
+            assertTrue(buffer.dropped(NORMAL) > 0, policy + ": the flood itself overflowed");
+
+            List<String> drained = drain(buffer);
+            for (int i = 0; i <= 10; i++) {
+                assertTrue(drained.contains("paid-" + i), policy + ": paid-" + i);
+                assertTrue(drained.contains("mod-" + i), policy + ": mod-" + i);
+            }
+        }
+    }
+
+    @Test
+    void fullHighLaneEvictsOnlyItsOwnOldestItems() {
+        PriorityIngestBuffer<String> buffer = new PriorityIngestBuffer<>(LANES, 4, IngestBuffer.OverloadPolicy.DROP_NEWEST, 1);
+        buffer.offer("normal", NORMAL);
+        for (int i = 0; i < 6; i++) {
+            assertTrue(buffer.offer("paid-" + i, PAID));
+        }
+
+        assertEquals(2, buffer.dropped(PAID));
+        assertEquals(List.of("paid-2", "paid-3", "paid-4", "paid-5", "normal"), drain(buffer));
+    }
+
+    @Test
+    void highestLaneIsServedFirst() {
+        PriorityIngestBuffer<String> buffer = new PriorityIngestBuffer<>(LANES, 16, IngestBuffer.OverloadPolicy.DROP_OLDEST, 1);
+        buffer.offer("normal", NORMAL);
+        buffer.offer("mod", MODERATOR);
+        buffer.offer("paid", PAID);
+
+        assertEquals(3, buffer.size());
+        assertEquals(List.of("paid", "mod", "normal"), drain(buffer));
+        assertNull(buffer.poll());
+    }
+
+    @Test
+    void takeWakesUpForAnyLane() throws Exception {
+        PriorityIngestBuffer<String> buffer = new PriorityIngestBuffer<>(LANES, 16, IngestBuffer.OverloadPolicy.DROP_OLDEST, 1);
+        Thread producer = Thread.ofVirtual().start(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                return;
+            }
+            buffer.offer("mod", MODERATOR);
+        });
+
+        assertEquals("mod", buffer.take());
+        producer.join();
+    }
+
+    private static List<String> drain(PriorityIngestBuffer<String> buffer) {
+        List<String> items = new ArrayList<>();
+        String item;
+        while ((item = buffer.poll()) != null) {
+            items.add(item);
+        }
+        return items;
+    }
+}
@@ -0,0 +1,97 @@
+package com.wooldrum.chattermod.pipeline;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PriorityLanesTest {
+
+    private static final long AGING = 1_000;
+
+    /** Lane 0 strict, lanes 1 to 3 aging. */
+    private final PriorityLanes<String> lanes = new PriorityLanes<>(4, 1, 100, AGING);
+
+    @Test
+    void eachLaneIsFifo() {
+        lanes.offer("a", 2, 0);
+        lanes.offer("b", 2, 1);
+        lanes.offer("c", 2, 2);
+        assertEquals("a", lanes.poll(3, false));
+        assertEquals("b", lanes.poll(3, false));
+        assertEquals("c", lanes.poll(3, false));
+        assertNull(lanes.poll(3, false));
+    }
+
+    @Test
+    void higherLanesGoFirstUntilLowerHeadsAge() {
+        lanes.offer("normal", 3, 0);
+        lanes.offer("sub", 1, 0);
+        assertEquals("sub", lanes.poll(10, false));
+        assertEquals("normal", lanes.poll(10, false));
+    }
+
+    @Test
+    void agedHeadsArePromotedAndTiesGoToTheOlderHead() {
+        lanes.offer("normal", 3, 0);
+        lanes.offer("sub", 1, 2 * AGING);
+        // After two aging periods lane 3's head ranks with lane 1 and has waited longer.
+        assertEquals("normal", lanes.poll(2 * AGING, false));
+        assertEquals("sub", lanes.poll(2 * AGING, false));
+    }
+
+    @Test
+    void agingNeverOvertakesTheStrictLanes() {
+        lanes.offer("ancient", 3, 0);
+        lanes.offer("mod", 0, 1_000 * AGING);
+        assertEquals("mod", lanes.poll(1_000 * AGING, false));
+        assertEquals("ancient", lanes.poll(1_000 * AGING, false));
+    }
+
+    @Test
+    void guaranteedOnlyServesJustTheStrictLanes() {
+        lanes.offer("normal", 3, 0);
+        lanes.offer("mod", 0, 0);
+        assertEquals("mod", lanes.poll(0, true));
+        assertNull(lanes.poll(0, true));
+        assertEquals("normal", lanes.poll(0, false));
+    }
+
+    @Test
+    void overflowTrimsTheOldestItemsOfTheLowestLaneFirst() {
+        PriorityLanes<String> small = new PriorityLanes<>(4, 1, 3, AGING);
+        small.offer("mod1", 0, 0);
+        small.offer("normal1", 3, 1);
+        small.offer("normal2", 3, 2);
+        small.offer("sub1", 1, 3);
+        assertEquals(3, small.size());
+        assertEquals(1, small.size(3));
+        assertEquals(1, small.dropped());
+
+        small.offer("mod2", 0, 4);
+        assertEquals(0, small.size(3));
+        assertEquals(2, small.dropped());
+
+        small.offer("mod3", 0, 5);
+        small.offer("mod4", 0, 6);
+        assertEquals(3, small.size(0));
+        assertEquals(0, small.size(1));
+        assertEquals(4, small.dropped());
+        assertEquals("mod2", small.poll(7, false));
+    }
+
+    @Test
+    void shrinkingTheCapacityTrimsOnTheNextOffer() {
+        for (int i = 0; i < 10; i++) {
+            lanes.offer("n" + i, 3, i);
+        }
+        lanes.setLimits(4, AGING);
+        assertEquals(10, lanes.size());
+        lanes.offer("sub", 1, 10);
+        assertEquals(4, lanes.size());
+        assertEquals(3, lanes.size(3));
+        assertEquals(7, lanes.dropped());
+        assertEquals("sub", lanes.poll(10, false));
+        assertEquals("n7", lanes.poll(10, false));
+    }
+}
@@ -0,0 +1,101 @@
+package com.wooldrum.chattermod.pipeline;
+
+import com.wooldrum.chattermod.ChatterModConfig;
+import com.wooldrum.chattermod.platform.ChatMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class SpamFilterTest {
+
+    private static SpamFilter filter(boolean enabled, int authorMaxMessages) {
+        Properties props = new Properties();
+        props.setProperty("spam.enabled", String.valueOf(enabled));
+        props.setProperty("spam.windowSeconds", "60");
+        props.setProperty("spam.authorMaxMessages", String.valueOf(authorMaxMessages));
+        props.setProperty("spam.authorWindowSeconds", "60");
+        SpamFilter filter = new SpamFilter();
+        filter.configure(ChatterModConfig.fromProperties(props));
+        return filter;
+    }
+
+    private static ChatMessage message(String author, String text) {
+        return new ChatMessage(author, text, ChatMessage.Platform.TWITCH, "chan");
+    }
+
+    @Test
+    void repeatsInOneChannelAreCountedAsOneBurst() {
+        SpamFilter filter = filter(true, 0);
+        assertEquals(1, filter.process(message("a", "gg")));
+        long key = filter.lastKey();
+        assertEquals(2, filter.process(message("b", "GG")));
+        assertEquals(key, filter.lastKey());
+        assertEquals(3, filter.process(message("c", "  gg ")));
+        assertEquals(2, filter.coalesced());
+    }
+
+    @Test
+    void theSameTextInAnotherChannelIsItsOwnBurst() {
+        SpamFilter filter = filter(true, 0);
+        assertEquals(1, filter.process(message("a", "gg")));
+        long key = filter.lastKey();
+        assertEquals(1, filter.process(new ChatMessage("a", "gg", ChatMessage.Platform.TWITCH, "other")));
+        assertNotEquals(key, filter.lastKey());
+        assertEquals(1, filter.process(new ChatMessage("a", "gg", ChatMessage.Platform.KICK, "chan")));
+    }
+
+    @Test
+    void authorsOverTheLimitAreHeldBack() {
+        SpamFilter filter = filter(true, 3);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(1, filter.process(message("chatty", "line " + i)));
+        }
+        assertEquals(SpamFilter.RATE_LIMITED, filter.process(message("chatty", "line 3")));
+        assertEquals(0, filter.lastKey());
+        assertEquals(1, filter.process(message("quiet", "line 4")));
+        assertEquals(1, filter.rateLimited());
+    }
+
+    @Test
+    void burstRepeatsAreCountedEvenFromRateLimitedAuthors() {
+        SpamFilter filter = filter(true, 2);
+        assertEquals(1, filter.process(message("someone", "W")));
+        filter.process(message("chatty", "one"));
+        filter.process(message("chatty", "two"));
+
+        // Over the limit for new lines, but this only bumps the count on the line already shown.
+        assertEquals(2, filter.process(message("chatty", "w")));
+        assertEquals(SpamFilter.RATE_LIMITED, filter.process(message("chatty", "three")));
+        assertEquals(3, filter.process(message("other", "W")));
+        assertEquals(1, filter.rateLimited());
+    }
+
+    @Test
+    void aHeldBackMessageDoesNotStartABurst() {
+        SpamFilter filter = filter(true, 1);
+        filter.process(message("chatty", "first"));
+        assertEquals(SpamFilter.RATE_LIMITED, filter.process(message("chatty", "copy me")));
+        // Nobody saw the held-back copy, so this one is shown as new rather than as "x2".
+        assertEquals(1, filter.process(message("someone", "copy me")));
+    }
+
+    @Test
+    void disabledFilterPassesEverything() {
+        SpamFilter filter = filter(false, 1);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(1, filter.process(message("chatty", "same")));
+            assertEquals(0, filter.lastKey());
+        }
+    }
+
+    @Test
+    void hashIgnoresCaseAndWhitespaceRunsButNotChannelBoundaries() {
+        assertEquals(SpamFilter.messageHash(message("a", "Hello  World")),
+                SpamFilter.messageHash(message("b", " hello world ")));
+        assertNotEquals(SpamFilter.messageHash(new ChatMessage("a", "c", ChatMessage.Platform.TWITCH, "ab")),
+                SpamFilter.messageHash(new ChatMessage("a", "bc", ChatMessage.Platform.TWITCH, "a")));
+    }
+}
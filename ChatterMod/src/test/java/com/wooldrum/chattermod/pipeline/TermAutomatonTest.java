@@ -0,0 +1,76 @@
+package com.wooldrum.chattermod.pipeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TermAutomatonTest {
+
+    private static final int BLOCK = ChatRules.BLOCK;
+    private static final int MASK = ChatRules.MASK;
+    private static final int HIGHLIGHT = ChatRules.HIGHLIGHT;
+
+    private static TermAutomaton build(boolean wholeWords, Object... termsAndActions) {
+        Map<String, Integer> terms = new LinkedHashMap<>();
+        for (int i = 0; i < termsAndActions.length; i += 2) {
+            terms.put((String) termsAndActions[i], (Integer) termsAndActions[i + 1]);
+        }
+        return TermAutomaton.build(terms, wholeWords);
+    }
+
+    @Test
+    void findsTermsEndingInsideOtherTermsThroughTheFailureLinks() {
+        TermAutomaton automaton = build(false, "he", HIGHLIGHT, "she", MASK, "hers", BLOCK);
+        assertEquals(HIGHLIGHT | MASK, automaton.scan("ushe", 0));
+        assertEquals(HIGHLIGHT | MASK | BLOCK, automaton.scan("ushers", 0));
+        assertEquals(0, automaton.scan("nothing to see", 0));
+    }
+
+    @Test
+    void matchingIgnoresCase() {
+        TermAutomaton automaton = build(false, "PogChamp", HIGHLIGHT, "straße", MASK);
+        assertEquals(HIGHLIGHT, automaton.scan("what a POGCHAMP moment", 0));
+        assertEquals(MASK, automaton.scan("die STRAßE", 0));
+    }
+
+    @Test
+    void wholeWordsSkipsTermsEmbeddedInLongerWords() {
+        TermAutomaton automaton = build(true, "ass", BLOCK);
+        assertEquals(0, automaton.scan("a classic pass", 0));
+        assertEquals(BLOCK, automaton.scan("ass", 0));
+        assertEquals(BLOCK, automaton.scan("what an ass!", 0));
+        assertEquals(BLOCK, build(false, "ass", BLOCK).scan("a classic pass", 0));
+    }
+
+    @Test
+    void scanStopsOnceEveryStopBitIsSeen() {
+        TermAutomaton automaton = build(false, "bad", BLOCK, "later", HIGHLIGHT);
+        assertEquals(BLOCK, automaton.scan("bad words come later", BLOCK));
+        assertEquals(BLOCK | HIGHLIGHT, automaton.scan("bad words come later", 0));
+    }
+
+    @Test
+    void maskStarsOnlyTermsCarryingTheActionAndKeepsSpaces() {
+        TermAutomaton automaton = build(false, "dang it", MASK, "hello", HIGHLIGHT);
+        assertEquals("Hello, **** ** all", automaton.mask("Hello, DANG it all", MASK, '*'));
+    }
+
+    @Test
+    void textWithoutMatchesIsReturnedAsIs() {
+        TermAutomaton automaton = build(false, "secret", MASK);
+        String text = "nothing here";
+        assertSame(text, automaton.mask(text, MASK, '*'));
+    }
+
+    @Test
+    void blankTermsAreIgnored() {
+        TermAutomaton automaton = build(false, "  ", BLOCK, "", MASK);
+        assertTrue(automaton.isEmpty());
+        assertEquals(0, automaton.scan("anything", 0));
+    }
+}
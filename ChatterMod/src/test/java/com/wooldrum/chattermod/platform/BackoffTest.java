@@ -0,0 +1,52 @@
+package com.wooldrum.chattermod.platform;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class BackoffTest {
+
+    private static void assertInUpperHalf(long delay, long window) {
+        assertTrue(delay >= window / 2 && delay <= window, delay + " not in [" + window / 2 + ", " + window + "]");
+    }
+
+    @Test
+    void windowDoublesEachAttemptUpToTheMaximum() {
+        Backoff backoff = new Backoff(Duration.ofSeconds(1), Duration.ofSeconds(30));
+        long[] windows = {1_000, 2_000, 4_000, 8_000, 16_000, 30_000, 30_000, 30_000};
+        for (long window : windows) {
+            assertInUpperHalf(backoff.nextDelayMillis(), window);
+        }
+    }
+
+    @Test
+    void resetStartsOverFromTheBase() {
+        Backoff backoff = new Backoff(Duration.ofSeconds(1), Duration.ofSeconds(30));
+        for (int i = 0; i < 10; i++) {
+            backoff.nextDelayMillis();
+        }
+        backoff.reset();
+        assertInUpperHalf(backoff.nextDelayMillis(), 1_000);
+    }
+
+    @Test
+    void manyAttemptsNeitherOverflowNorExceedTheMaximum() {
+        Backoff backoff = new Backoff(Duration.ofMillis(500), Duration.ofMinutes(5));
+        for (int i = 0; i < 1_000; i++) {
+            long delay = backoff.nextDelayMillis();
+            assertTrue(delay > 0 && delay <= Duration.ofMinutes(5).toMillis(), "attempt " + i + ": " + delay);
+        }
+    }
+
+    @Test
+    void delaysAreJittered() {
+        long first = new Backoff(Duration.ofSeconds(10), Duration.ofSeconds(10)).nextDelayMillis();
+        for (int i = 0; i < 100; i++) {
+            if (new Backoff(Duration.ofSeconds(10), Duration.ofSeconds(10)).nextDelayMillis() != first) return;
+        }
+        fail("100 fresh backoffs all picked " + first + " ms");
+    }
+}
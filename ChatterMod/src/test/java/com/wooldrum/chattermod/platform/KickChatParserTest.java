@@ -0,0 +1,79 @@
+package com.wooldrum.chattermod.platform;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class KickChatParserTest {
+
+    private static final String CHAT_FRAME = "{\"event\":\"App\\\\Events\\\\ChatMessageEvent\",\"channel\":\"chatrooms.42.v2\","
+            + "\"data\":\"{\\\"id\\\":\\\"m1\\\",\\\"chatroom_id\\\":42,\\\"content\\\":\\\"hi [emote:37226:KEKW] all\\\","
+            + "\\\"type\\\":\\\"message\\\",\\\"sender\\\":{\\\"id\\\":7,\\\"username\\\":\\\"viewer7\\\","
+            + "\\\"identity\\\":{\\\"color\\\":\\\"#75FD46\\\",\\\"badges\\\":[{\\\"type\\\":\\\"moderator\\\",\\\"text\\\":\\\"Moderator\\\"}]}}}\"}";
+
+    private final KickChatParser parser = new KickChatParser();
+
+    @Test
+    void chatEventBecomesAMessageFromTheMappedChannel() throws IOException {
+        parser.parse(CHAT_FRAME);
+        assertEquals(KickChatParser.CHAT_MESSAGE, parser.event());
+        assertEquals("chatrooms.42.v2", parser.channel());
+
+        ChatMessage msg = parser.chatMessage(id -> id == 42 ? "somestreamer" : null);
+        assertEquals("viewer7", msg.author());
+        assertEquals("hi KEKW all", msg.message());
+        assertEquals(ChatMessage.Platform.KICK, msg.platform());
+        assertEquals("somestreamer", msg.channel());
+        assertEquals(ChatMessage.Priority.MODERATOR, msg.priority());
+        assertEquals("moderator", msg.metadata().get(ChatMessage.BADGES));
+    }
+
+    @Test
+    void framesAssembledInAStringBuilderParseTheSame() throws IOException {
+        parser.parse(new StringBuilder(CHAT_FRAME));
+        ChatMessage msg = parser.chatMessage(id -> "somestreamer");
+        assertEquals("hi KEKW all", msg.message());
+    }
+
+    @Test
+    void unknownChatroomsAreSkipped() throws IOException {
+        parser.parse(CHAT_FRAME);
+        assertNull(parser.chatMessage(id -> null));
+    }
+
+    @Test
+    void nonTextMessagesAreSkipped() throws IOException {
+        parser.parse("{\"event\":\"App\\\\Events\\\\ChatMessageEvent\",\"data\":\"{\\\"chatroom_id\\\":1,"
+                + "\\\"type\\\":\\\"celebration\\\",\\\"content\\\":\\\"x\\\",\\\"sender\\\":{\\\"username\\\":\\\"a\\\"}}\"}");
+        assertNull(parser.chatMessage(id -> "c"));
+    }
+
+    @Test
+    void systemEventsWithInlineObjectDataKeepItAsJson() throws IOException {
+        parser.parse("{\"event\":\"pusher:connection_established\",\"data\":{\"socket_id\":\"1.2\",\"activity_timeout\":120}}");
+        assertEquals(KickChatParser.CONNECTION_ESTABLISHED, parser.event());
+        assertNull(parser.channel());
+        assertEquals("{\"socket_id\":\"1.2\",\"activity_timeout\":120}", parser.data());
+    }
+
+    @Test
+    void fieldsFromThePreviousFrameDoNotLeakIntoTheNext() throws IOException {
+        parser.parse(CHAT_FRAME);
+        parser.parse("{\"event\":\"pusher:ping\"}");
+        assertEquals(KickChatParser.PING, parser.event());
+        assertNull(parser.channel());
+        assertNull(parser.data());
+        assertNull(parser.chatMessage(id -> "c"));
+    }
+
+    @Test
+    void emotesAreReducedToTheirNames() {
+        assertEquals("plain", KickChatParser.stripEmotes("plain"));
+        assertEquals("KEKW", KickChatParser.stripEmotes("[emote:37226:KEKW]"));
+        assertEquals("a KEKW b PogU", KickChatParser.stripEmotes("a [emote:1:KEKW] b [emote:2:PogU]"));
+        assertEquals("broken [emote:1", KickChatParser.stripEmotes("broken [emote:1"));
+    }
+}
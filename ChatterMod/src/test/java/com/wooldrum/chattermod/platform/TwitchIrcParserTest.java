@@ -0,0 +1,127 @@
+package com.wooldrum.chattermod.platform;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TwitchIrcParserTest {
+
+    private final String streamer = "somestreamer";
+    private final TwitchIrcParser parser = new TwitchIrcParser(new String[] {"other", streamer});
+
+    private boolean parse(String line) {
+        return parser.parse(line, 0, line.length());
+    }
+
+    @Test
+    void plainPrivmsgBecomesANormalMessage() {
+        assertTrue(parse("@badges=;color=#1E90FF;display-name=Viewer7;user-id=7 "
+                + ":viewer7!viewer7@viewer7.tmi.twitch.tv PRIVMSG #somestreamer :hello there\r\n"));
+
+        ChatMessage msg = parser.chatMessage();
+        assertEquals("Viewer7", msg.author());
+        assertEquals("hello there", msg.message());
+        assertEquals(ChatMessage.Platform.TWITCH, msg.platform());
+        assertSame(streamer, msg.channel());
+        assertEquals(ChatMessage.Priority.NORMAL, msg.priority());
+        assertTrue(msg.metadata().isEmpty());
+    }
+
+    @Test
+    void parsesTheLineInsideALargerBuffer() {
+        String buf = "PING :x\r\n:nick!nick@host PRIVMSG #SomeStreamer :mid\r\nPING :y\r\n";
+        int start = buf.indexOf(":nick");
+        int end = buf.indexOf("PING :y");
+        assertTrue(parser.parse(buf, start, end));
+
+        ChatMessage msg = parser.chatMessage();
+        assertEquals("nick", msg.author());
+        assertEquals("mid", msg.message());
+        assertSame(streamer, msg.channel());
+    }
+
+    @Test
+    void pingCarriesItsToken() {
+        assertTrue(parse("PING :tmi.twitch.tv"));
+        assertTrue(parser.commandIs("PING"));
+        assertFalse(parser.commandIs("PRIVMSG"));
+        assertEquals("tmi.twitch.tv", parser.trailing());
+        assertNull(parser.chatMessage());
+    }
+
+    @Test
+    void blankLinesAreRejected() {
+        assertFalse(parse(""));
+        assertFalse(parse("\r\n"));
+    }
+
+    @Test
+    void actionsAreShownAsPlainText() {
+        parse(":nick!nick@host PRIVMSG #somestreamer :\u0001ACTION waves\u0001");
+        assertEquals("waves", parser.chatMessage().message());
+    }
+
+    @Test
+    void tagValuesAreUnescaped() {
+        parse("@display-name=;system-msg=a\\sb\\:c\\\\d :nick!nick@host USERNOTICE #somestreamer");
+        assertEquals("a b;c\\d", parser.tag("system-msg"));
+        assertEquals("", parser.tag("display-name"));
+        assertNull(parser.tag("missing"));
+    }
+
+    @Test
+    void emptyDisplayNameFallsBackToTheNick() {
+        parse("@display-name= :nick!nick@host PRIVMSG #somestreamer :hi");
+        assertEquals("nick", parser.chatMessage().author());
+    }
+
+    @Test
+    void otherChannelsAndCommandsAreSkipped() {
+        parse(":nick!nick@host PRIVMSG #stranger :hi");
+        assertNull(parser.channel());
+        assertNull(parser.chatMessage());
+
+        parse(":tmi.twitch.tv 001 nick :Welcome, GLHF!");
+        assertTrue(parser.commandIs("001"));
+        assertNull(parser.chatMessage());
+    }
+
+    @Test
+    void badgesSetThePriorityAndAreListedWithoutVersions() {
+        parse("@badges=subscriber/12,moderator/1;display-name=Mod "
+                + ":mod!mod@host PRIVMSG #somestreamer :behave");
+        ChatMessage msg = parser.chatMessage();
+        assertEquals(ChatMessage.Priority.MODERATOR, msg.priority());
+        assertEquals("subscriber,moderator", msg.metadata().get(ChatMessage.BADGES));
+        assertNull(msg.metadata().get(ChatMessage.AMOUNT));
+    }
+
+    @Test
+    void cheersArePaidWithTheirAmount() {
+        parse("@badges=vip/1;bits=100;display-name=Fan :fan!fan@host PRIVMSG #somestreamer :Cheer100 gg");
+        ChatMessage msg = parser.chatMessage();
+        assertEquals(ChatMessage.Priority.PAID, msg.priority());
+        assertEquals("100 bits", msg.metadata().get(ChatMessage.AMOUNT));
+        assertEquals("vip", msg.metadata().get(ChatMessage.BADGES));
+    }
+
+    @Test
+    void zeroBitsIsNotACheer() {
+        assertFalse(TwitchIrcParser.cheered("0", 0, 1));
+        assertFalse(TwitchIrcParser.cheered("", 0, 0));
+        assertTrue(TwitchIrcParser.cheered("bits=10", 5, 7));
+
+        parse("@bits=0 :nick!nick@host PRIVMSG #somestreamer :hi");
+        assertEquals(ChatMessage.Priority.NORMAL, parser.chatMessage().priority());
+    }
+
+    @Test
+    void badgeNamesDropVersions() {
+        assertEquals("moderator,subscriber", TwitchIrcParser.badgeNames("moderator/1,subscriber/12", 0, 25));
+        assertEquals("broadcaster", TwitchIrcParser.badgeNames("x=broadcaster/1;", 2, 15));
+    }
+}
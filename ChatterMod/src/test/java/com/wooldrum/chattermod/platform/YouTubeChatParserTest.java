@@ -0,0 +1,141 @@
+package com.wooldrum.chattermod.platform;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class YouTubeChatParserTest {
+
+    private final YouTubeChatParser parser = new YouTubeChatParser("UCstreamer");
+    private final List<ChatMessage> messages = new ArrayList<>();
+
+    private YouTubeChatParser.Page parse(String json) throws IOException {
+        return parser.parse(new StringReader(json), messages::add);
+    }
+
+    @Test
+    void readsPagingFieldsAndTextMessages() throws IOException {
+        YouTubeChatParser.Page page = parse("""
+                {"kind": "youtube#liveChatMessageListResponse", "nextPageToken": "p42", "pollingIntervalMillis": 3000,
+                 "pageInfo": {"totalResults": 1}, "items": [
+                  {"snippet": {"type": "textMessageEvent", "displayMessage": "hi chat",
+                               "textMessageDetails": {"messageText": "hi chat"}},
+                   "authorDetails": {"displayName": "viewer1", "isChatOwner": false, "isChatModerator": false,
+                                     "isChatSponsor": false}}
+                ]}
+                """);
+
+        assertEquals(new YouTubeChatParser.Page("p42", 3000, 1), page);
+        assertEquals(1, messages.size());
+        ChatMessage msg = messages.getFirst();
+        assertEquals("viewer1", msg.author());
+        assertEquals("hi chat", msg.message());
+        assertEquals(ChatMessage.Platform.YOUTUBE, msg.platform());
+        assertEquals("UCstreamer", msg.channel());
+        assertEquals(ChatMessage.Priority.NORMAL, msg.priority());
+        assertTrue(msg.metadata().isEmpty());
+    }
+
+    @Test
+    void authorFlagsBecomeBadgesAndPriority() throws IOException {
+        parse("""
+                {"items": [
+                  {"authorDetails": {"displayName": "mod", "isChatModerator": true, "isChatSponsor": true},
+                   "snippet": {"type": "textMessageEvent", "textMessageDetails": {"messageText": "behave"}}}
+                ]}
+                """);
+
+        ChatMessage msg = messages.getFirst();
+        assertEquals(ChatMessage.Priority.MODERATOR, msg.priority());
+        assertEquals("moderator,member", msg.metadata().get(ChatMessage.BADGES));
+    }
+
+    @Test
+    void superChatsAndStickersArePaidWithTheirAmount() throws IOException {
+        parse("""
+                {"items": [
+                  {"snippet": {"type": "superChatEvent", "displayMessage": "$5.00 from fan: thanks",
+                               "superChatDetails": {"amountMicros": "5000000", "amountDisplayString": "$5.00",
+                                                    "userComment": "thanks", "tier": 2}},
+                   "authorDetails": {"displayName": "fan"}},
+                  {"snippet": {"type": "superChatEvent", "displayMessage": "",
+                               "superChatDetails": {"amountDisplayString": "$2.00"}},
+                   "authorDetails": {"displayName": "quiet"}},
+                  {"snippet": {"type": "superStickerEvent", "displayMessage": "$1.00",
+                               "superStickerDetails": {"amountDisplayString": "$1.00",
+                                                       "superStickerMetadata": {"altText": "Dancing cat", "language": "en"}}},
+                   "authorDetails": {"displayName": "stickerfan"}}
+                ]}
+                """);
+
+        assertEquals(3, messages.size());
+        ChatMessage superChat = messages.get(0);
+        assertEquals("thanks", superChat.message());
+        assertEquals(ChatMessage.Priority.PAID, superChat.priority());
+        assertEquals("$5.00", superChat.metadata().get(ChatMessage.AMOUNT));
+
+        assertEquals("", messages.get(1).message());
+        assertEquals("$2.00", messages.get(1).metadata().get(ChatMessage.AMOUNT));
+
+        ChatMessage sticker = messages.get(2);
+        assertEquals("Dancing cat", sticker.message());
+        assertEquals("Dancing cat", sticker.metadata().get(ChatMessage.STICKER));
+        assertEquals("$1.00", sticker.metadata().get(ChatMessage.AMOUNT));
+        assertEquals(ChatMessage.Priority.PAID, sticker.priority());
+    }
+
+    @Test
+    void otherEventsAreCountedButSkipped() throws IOException {
+        YouTubeChatParser.Page page = parse("""
+                {"nextPageToken": "p2", "items": [
+                  {"snippet": {"type": "newSponsorEvent", "displayMessage": "welcome!"},
+                   "authorDetails": {"displayName": "member"}},
+                  {"snippet": {"type": "messageDeletedEvent"}, "authorDetails": {"displayName": "mod"}},
+                  {"snippet": {"type": "textMessageEvent", "textMessageDetails": {"messageText": null}},
+                   "authorDetails": {"displayName": "ghost"}}
+                ]}
+                """);
+
+        assertEquals(3, page.itemCount());
+        assertTrue(messages.isEmpty());
+    }
+
+    @Test
+    void missingPagingFieldsFallBack() throws IOException {
+        YouTubeChatParser.Page page = parse("{\"items\": []}");
+        assertEquals("", page.nextPageToken());
+        assertEquals(-1, page.pollingIntervalMillis());
+        assertEquals(0, page.itemCount());
+    }
+
+    @Test
+    void stateFromOneItemDoesNotLeakIntoTheNext() throws IOException {
+        parse("""
+                {"items": [
+                  {"snippet": {"type": "superChatEvent", "superChatDetails": {"amountDisplayString": "$9.00",
+                               "userComment": "big"}},
+                   "authorDetails": {"displayName": "rich", "isChatModerator": true}},
+                  {"snippet": {"type": "textMessageEvent", "textMessageDetails": {"messageText": "small"}},
+                   "authorDetails": {"displayName": "plain"}}
+                ]}
+                """);
+
+        ChatMessage plain = messages.get(1);
+        assertEquals(ChatMessage.Priority.NORMAL, plain.priority());
+        assertFalse(plain.metadata().containsKey(ChatMessage.AMOUNT));
+        assertFalse(plain.metadata().containsKey(ChatMessage.BADGES));
+    }
+
+    @Test
+    void truncatedPageFails() {
+        assertThrows(IOException.class, () -> parse("{\"nextPageToken\": \"p3\", \"items\": [{\"snippet\": {\"type\""));
+    }
+}